@@ -0,0 +1,130 @@
+// Paquete de los benchmarks
+package vallegrande.edu.pe.benchmarks;
+
+
+import org.openjdk.jmh.annotations.Benchmark;    // anotaciones de JMH
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import vallegrande.edu.pe.model.Estudiante;
+import vallegrande.edu.pe.model.Repository;
+import vallegrande.edu.pe.model.ResultadoBusqueda;
+import vallegrande.edu.pe.model.TextoBusqueda;
+import vallegrande.edu.pe.service.MotorAlmacenamiento;
+
+
+import java.util.List;                  // páginas de la tabla
+import java.util.concurrent.TimeUnit;   // unidad de los resultados
+
+
+// Caminos de búsqueda que usan las ventanas CRUD: el filtro de la tabla (query) con texto corto
+// (recorrido completo), con trigramas y estrechando una búsqueda anterior; la comprobación de
+// correos duplicados (existeCorreo de los controladores) y la lectura de una página de la tabla
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx6g"})
+public class BusquedaBenchmark {
+
+    // Cantidad de estudiantes del repositorio
+    @Param({"1000", "100000", "1000000", "5000000"})
+    public int filas;
+
+    // Motor del repositorio: MEMORIA (índices en memoria) o SQL (base embebida)
+    @Param({"MEMORIA", "SQL"})
+    public String motor;
+
+    // Filas por página de la tabla
+    private static final int FILAS_PAGINA = 100;
+
+    private Repository<Estudiante, Long> repositorio;
+    private ResultadoBusqueda anterior;
+    private String correoExistente;
+    private String correoNuevo;
+
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Datos.limpiarCarpeta();
+        repositorio = MotorAlmacenamiento.valueOf(motor).crearEstudiantes();
+        repositorio.saveAll(Datos.estudiantes(filas));
+        // Búsqueda previa que el benchmark "estrechar" refina (como al seguir escribiendo en el buscador)
+        anterior = repositorio.query(TextoBusqueda.normalizar("quis"), null);
+        // Correo de la mitad de los datos y uno que no existe, con otras mayúsculas (se ignoran)
+        correoExistente = Datos.correo(filas / 2).toUpperCase();
+        correoNuevo = Datos.correo(filas + 1).toUpperCase();
+    }
+
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        repositorio.close();
+    }
+
+
+    // Texto de menos de 3 caracteres: no hay trigramas, se revisan todos los registros
+    @Benchmark
+    public ResultadoBusqueda filtrarTextoCorto() {
+        return repositorio.query(TextoBusqueda.normalizar("ro"), null);
+    }
+
+
+    // Texto con trigramas selectivo ("chumpitaz" aparece en pocos nombres)
+    @Benchmark
+    public ResultadoBusqueda filtrarTrigramas() {
+        return repositorio.query(TextoBusqueda.normalizar("Chumpitaz"), null);
+    }
+
+
+    // Texto frecuente ("garcía" sin tilde): muchos candidatos que verificar
+    @Benchmark
+    public ResultadoBusqueda filtrarFrecuente() {
+        return repositorio.query(TextoBusqueda.normalizar("garcia"), null);
+    }
+
+
+    // Se agrega una letra a la búsqueda anterior: solo se revisan sus coincidencias
+    @Benchmark
+    public ResultadoBusqueda filtrarEstrechando() {
+        return repositorio.query(TextoBusqueda.normalizar("quisp"), anterior);
+    }
+
+
+    // Texto sin coincidencias
+    @Benchmark
+    public ResultadoBusqueda filtrarSinResultados() {
+        return repositorio.query(TextoBusqueda.normalizar("zzzz"), null);
+    }
+
+
+    // Correo ya registrado (como lo comprueba el controlador antes de guardar)
+    @Benchmark
+    public boolean existeCorreo() {
+        return repositorio.findByCorreo(correoExistente) != null;
+    }
+
+
+    // Correo libre
+    @Benchmark
+    public boolean existeCorreoNuevo() {
+        return repositorio.findByCorreo(correoNuevo) != null;
+    }
+
+
+    // Página de la tabla en medio de los datos (lo que pide el modelo al desplazarse)
+    @Benchmark
+    public List<Estudiante> paginaTabla() {
+        return repositorio.findAll(filas / 2, FILAS_PAGINA);
+    }
+}
@@ -0,0 +1,99 @@
+// Paquete de los benchmarks
+package vallegrande.edu.pe.benchmarks;
+
+
+import vallegrande.edu.pe.model.Estudiante; // registros generados
+import vallegrande.edu.pe.model.Usuario;
+
+
+import java.io.IOException;        // errores al limpiar la carpeta
+import java.io.UncheckedIOException;
+import java.nio.file.Files;        // utilidades de ficheros
+import java.nio.file.Path;         // rutas
+import java.nio.file.Paths;
+import java.util.ArrayList;        // listas generadas
+import java.util.List;
+import java.util.stream.Stream;    // contenido de la carpeta data
+
+
+// Datos sintéticos y carpeta de trabajo de los benchmarks.
+// Los repositorios usan rutas relativas (data/estudiantes.csv, usuarios.csv, data/agenda...),
+// así que los benchmarks escriben en la carpeta actual: se deben ejecutar desde "benchmarks/",
+// nunca desde la carpeta de la aplicación (se borrarían sus datos).
+final class Datos {
+
+    // Nombres, apellidos, cursos y roles que se combinan (repartición parecida a la de datos reales)
+    private static final String[] NOMBRES = {
+            "Juan", "Ana", "Luis", "María", "José", "Carmen", "Jorge", "Rosa", "Carlos", "Lucía",
+            "Pedro", "Elena", "Miguel", "Sofía", "Andrés", "Valery", "Diego", "Camila", "Raúl", "Paola"
+    };
+    private static final String[] APELLIDOS = {
+            "Pérez", "García", "López", "Quispe", "Mamani", "Flores", "Chumpitaz", "Rojas", "Torres", "Díaz",
+            "Ramírez", "Vargas", "Castillo", "Huamán", "Mendoza", "Cruz", "Romero", "Gutiérrez", "Chávez", "Reyes"
+    };
+    private static final String[] CURSOS = {"Programación", "Redes", "Base de Datos", "Matemática", "Inglés"};
+    private static final String[] ROLES = {"Administrador", "Docente", "Estudiante"};
+
+    private Datos() {
+    }
+
+
+    // Genera "filas" estudiantes sin ID (el repositorio los asigna); los correos son únicos
+    static List<Estudiante> estudiantes(int filas) {
+        List<Estudiante> lista = new ArrayList<>(filas);
+        for (int i = 0; i < filas; i++) {
+            lista.add(new Estudiante(nombre(i), correo(i), CURSOS[i % CURSOS.length]));
+        }
+        return lista;
+    }
+
+
+    // Genera "filas" usuarios con IDs 1..filas; los correos son únicos
+    static List<Usuario> usuarios(int filas) {
+        List<Usuario> lista = new ArrayList<>(filas);
+        for (int i = 0; i < filas; i++) {
+            lista.add(new Usuario(i + 1, nombre(i), correo(i), ROLES[i % ROLES.length]));
+        }
+        return lista;
+    }
+
+
+    // Nombre completo del registro i: "Nombre Apellido Apellido"
+    static String nombre(int i) {
+        int a = i / NOMBRES.length;
+        return NOMBRES[i % NOMBRES.length] + " " + APELLIDOS[a % APELLIDOS.length]
+                + " " + APELLIDOS[(a / APELLIDOS.length) % APELLIDOS.length];
+    }
+
+
+    // Correo único del registro i
+    static String correo(int i) {
+        return "usuario" + i + "@correo.com";
+    }
+
+
+    // Deja la carpeta actual sin datos de la aplicación (CSV, snapshots, diarios y base SQL).
+    // Se niega a hacerlo en la carpeta de la aplicación
+    static void limpiarCarpeta() {
+        if (Files.exists(Paths.get("src", "main", "java", "vallegrande", "edu", "pe", "App.java"))) {
+            throw new IllegalStateException("Ejecute los benchmarks desde la carpeta benchmarks/: "
+                    + "escriben datos en la carpeta actual y borrarían los de la aplicación");
+        }
+        try {
+            Path data = Paths.get("data");
+            Files.createDirectories(data);
+            try (Stream<Path> archivos = Files.list(data)) {
+                for (Path archivo : (Iterable<Path>) archivos::iterator) {
+                    Files.deleteIfExists(archivo);
+                }
+            }
+            for (String nombre : new String[]{"usuarios.csv", "usuarios.bin"}) {
+                for (String sufijo : new String[]{"", ".tmp", ".bak"}) {
+                    Files.deleteIfExists(Paths.get(nombre + sufijo));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo limpiar la carpeta de datos", e);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+// Paquete de los benchmarks
+package vallegrande.edu.pe.benchmarks;
+
+
+import vallegrande.edu.pe.model.ArchivoAtomico;  // escritura atómica con suma de verificación
+import vallegrande.edu.pe.model.Estudiante;
+import vallegrande.edu.pe.model.SnapshotBinario; // formato binario de la aplicación
+import vallegrande.edu.pe.model.TextoBusqueda;   // correos sin tildes
+import vallegrande.edu.pe.model.Usuario;
+import vallegrande.edu.pe.service.UsuarioPersistenceService;
+
+
+import java.io.IOException;            // errores de escritura
+import java.nio.file.Paths;            // rutas de los archivos de datos
+import java.util.AbstractList;         // listas generadas bajo demanda
+import java.util.Arrays;               // búsqueda binaria en la distribución
+import java.util.List;
+import java.util.SplittableRandom;     // aleatorio reproducible por registro
+
+
+// Datos sintéticos con nombres sesgados: los nombres y apellidos se eligen con una distribución
+// de Zipf (unos pocos muy frecuentes y una cola larga, como en datos reales), así las búsquedas
+// encuentran tanto textos muy repetidos como raros. El registro i depende solo de la semilla y de i:
+// las listas se generan bajo demanda y millones de registros no ocupan memoria.
+// Los archivos se escriben en los formatos de la aplicación (CSV o snapshot binario).
+final class DatosSinteticos {
+
+    private static final String[] NOMBRES = {
+            "Juan", "María", "José", "Ana", "Luis", "Carmen", "Carlos", "Rosa", "Jorge", "Lucía",
+            "Miguel", "Sofía", "Pedro", "Elena", "Andrés", "Valery", "Diego", "Camila", "Raúl", "Paola",
+            "Fernando", "Gabriela", "Ricardo", "Daniela", "Óscar", "Mónica", "Héctor", "Verónica", "Iván", "Ximena",
+            "Julio", "Patricia", "César", "Milagros", "Renzo", "Fiorella", "Álvaro", "Ángela", "Bruno", "Nayeli"
+    };
+    private static final String[] APELLIDOS = {
+            "Quispe", "Flores", "Sánchez", "Rodríguez", "García", "Rojas", "Mamani", "Huamán", "Díaz", "Vásquez",
+            "López", "Torres", "Pérez", "Ramírez", "Mendoza", "Chávez", "Castillo", "Gutiérrez", "Cruz", "Romero",
+            "Vargas", "Espinoza", "Ramos", "Reyes", "Fernández", "Ccori", "Salazar", "Chumpitaz", "Paucar", "Ñahui",
+            "Villanueva", "Aguilar", "Medina", "Zapata", "Cárdenas", "Palomino", "Condori", "Yupanqui", "Arévalo", "Tello"
+    };
+    private static final String[] CURSOS = {"Programación", "Redes", "Base de Datos", "Matemática", "Inglés", "Diseño Web"};
+    private static final String[] ROLES = {"Estudiante", "Docente", "Administrador"};
+
+    private final long semilla;
+    private final Zipf nombres;
+    private final Zipf apellidos;
+    private final Zipf cursos;
+    private final Zipf roles;
+
+
+    // "sesgo" es el exponente de Zipf: 0 = uniforme, 1 = típico de nombres reales, más = más concentrado
+    DatosSinteticos(long semilla, double sesgo) {
+        this.semilla = semilla;
+        this.nombres = new Zipf(NOMBRES.length, sesgo);
+        this.apellidos = new Zipf(APELLIDOS.length, sesgo);
+        this.cursos = new Zipf(CURSOS.length, sesgo);
+        this.roles = new Zipf(ROLES.length, sesgo);
+    }
+
+
+    // Aleatorio propio del registro i (mismo resultado en cualquier orden o hilo)
+    private SplittableRandom aleatorio(long i) {
+        return new SplittableRandom(semilla * 0x9E3779B97F4A7C15L + i);
+    }
+
+
+    // Nombre completo sesgado: "Nombre Apellido Apellido"
+    String nombre(SplittableRandom r) {
+        return NOMBRES[nombres.elegir(r)] + " " + APELLIDOS[apellidos.elegir(r)] + " " + APELLIDOS[apellidos.elegir(r)];
+    }
+
+
+    // Correo único a partir del nombre y un número: "juan.quispe.123@correo.com"
+    static String correo(String nombre, long numero) {
+        String[] partes = TextoBusqueda.normalizar(nombre).split(" ");
+        return partes[0] + "." + partes[1] + "." + numero + "@correo.com";
+    }
+
+
+    // Texto de búsqueda como lo escribiría alguien: un apellido o nombre frecuente, completo o sus primeras letras
+    String textoBusqueda(SplittableRandom r) {
+        String palabra = r.nextBoolean() ? APELLIDOS[apellidos.elegir(r)] : NOMBRES[nombres.elegir(r)];
+        int largo = Math.min(palabra.length(), 2 + r.nextInt(5));
+        return palabra.substring(0, largo);
+    }
+
+
+    String curso(SplittableRandom r) {
+        return CURSOS[cursos.elegir(r)];
+    }
+
+
+    String rol(SplittableRandom r) {
+        return ROLES[roles.elegir(r)];
+    }
+
+
+    // Estudiante i (ID i + 1)
+    Estudiante estudiante(int i) {
+        SplittableRandom r = aleatorio(i);
+        String nombre = nombre(r);
+        return new Estudiante(i + 1, nombre, correo(nombre, i), curso(r));
+    }
+
+
+    // Usuario i (ID i + 1); usa otra secuencia que los estudiantes
+    Usuario usuario(int i) {
+        SplittableRandom r = aleatorio(~(long) i);
+        String nombre = nombre(r);
+        return new Usuario(i + 1, nombre, correo(nombre, i), rol(r));
+    }
+
+
+    // Lista de "filas" estudiantes generados al leerlos
+    List<Estudiante> estudiantes(int filas) {
+        return new AbstractList<>() {
+            @Override
+            public Estudiante get(int i) {
+                return estudiante(i);
+            }
+
+            @Override
+            public int size() {
+                return filas;
+            }
+        };
+    }
+
+
+    // Lista de "filas" usuarios generados al leerlos
+    List<Usuario> usuarios(int filas) {
+        return new AbstractList<>() {
+            @Override
+            public Usuario get(int i) {
+                return usuario(i);
+            }
+
+            @Override
+            public int size() {
+                return filas;
+            }
+        };
+    }
+
+
+    // Escribe data/estudiantes.csv (o data/estudiantes.bin) como lo haría el repositorio:
+    // CSV con la marca del diario y líneas nombre;correo;curso;id, o el snapshot binario
+    void escribirEstudiantes(int filas, boolean binario) throws IOException {
+        if (binario) {
+            SnapshotBinario.escribir(new ArchivoAtomico(Paths.get("data", "estudiantes.bin"), false),
+                    SnapshotBinario.ESTUDIANTES, 0, estudiantes(filas));
+            return;
+        }
+        // Los textos generados no tienen ';' ni saltos de línea, no hace falta escaparlos
+        new ArchivoAtomico(Paths.get("data", "estudiantes.csv"), false).escribir(writer -> {
+            writer.write("#seq=0");
+            writer.newLine();
+            for (int i = 0; i < filas; i++) {
+                Estudiante e = estudiante(i);
+                writer.write(e.getNombre() + ";" + e.getCorreo() + ";" + e.getCurso() + ";" + e.getId());
+                writer.newLine();
+            }
+        });
+    }
+
+
+    // Escribe usuarios.csv (o usuarios.bin) con el servicio de persistencia de la aplicación
+    void escribirUsuarios(int filas, boolean binario) throws IOException {
+        UsuarioPersistenceService servicio = new UsuarioPersistenceService(binario);
+        if (!servicio.guardarUsuarios(usuarios(filas))) {
+            throw new IOException(servicio.getUltimoError());
+        }
+    }
+
+
+    // Distribución de Zipf sobre 0..n-1: P(k) proporcional a 1 / (k + 1)^s
+    private static final class Zipf {
+        private final double[] acumulada;
+
+        Zipf(int n, double s) {
+            acumulada = new double[n];
+            double suma = 0;
+            for (int k = 0; k < n; k++) {
+                suma += 1.0 / Math.pow(k + 1, s);
+                acumulada[k] = suma;
+            }
+            for (int k = 0; k < n; k++) {
+                acumulada[k] /= suma;
+            }
+        }
+
+        int elegir(SplittableRandom r) {
+            int k = Arrays.binarySearch(acumulada, r.nextDouble());
+            return Math.min(k >= 0 ? k : -k - 1, acumulada.length - 1);
+        }
+    }
+}
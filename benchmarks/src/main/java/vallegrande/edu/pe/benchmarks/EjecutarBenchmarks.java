@@ -0,0 +1,50 @@
+// Paquete de los benchmarks
+package vallegrande.edu.pe.benchmarks;
+
+
+import org.openjdk.jmh.profile.GCProfiler;              // perfil de asignaciones (-prof gc)
+import org.openjdk.jmh.results.format.ResultFormatType; // resultados en JSON
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+import java.io.IOException;                             // errores del Main de JMH
+
+
+// Punto de entrada de target/benchmarks.jar: acepta las mismas opciones que JMH
+// (-p filas=1000, -f, -wi, -i, filtros por nombre...) y agrega por defecto el perfil de
+// asignaciones "-prof gc" y el resultado en JSON (target/jmh-resultados.json), así cada
+// cambio de rendimiento viene con números comparables. Las opciones explícitas tienen prioridad
+public final class EjecutarBenchmarks {
+
+    // Archivo de resultados si no se indica otro con -rff
+    private static final String RESULTADOS = "target/jmh-resultados.json";
+
+    private EjecutarBenchmarks() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions linea = new CommandLineOptions(args);
+        if (linea.shouldHelp() || linea.shouldList() || linea.shouldListWithParams()
+                || linea.shouldListProfilers() || linea.shouldListResultFormats()) {
+            // Ayuda y listados: se delega en el Main de JMH
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder opciones = new OptionsBuilder().parent(linea);
+        if (linea.getProfilers().isEmpty()) {
+            opciones.addProfiler(GCProfiler.class);
+        }
+        if (!linea.getResultFormat().hasValue()) {
+            opciones.resultFormat(ResultFormatType.JSON);
+        }
+        if (!linea.getResult().hasValue()) {
+            opciones.result(RESULTADOS);
+        }
+        new Runner(opciones.build()).run();
+    }
+}
@@ -0,0 +1,85 @@
+// Paquete de los benchmarks
+package vallegrande.edu.pe.benchmarks;
+
+
+import org.openjdk.jmh.annotations.Benchmark;    // anotaciones de JMH
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import vallegrande.edu.pe.model.Estudiante;
+import vallegrande.edu.pe.model.InMemoryEstudianteRepository;
+
+
+import java.util.ArrayList;             // IDs de los ejemplos iniciales
+import java.util.List;
+import java.util.concurrent.TimeUnit;   // unidad de los resultados
+
+
+// Persistencia de estudiantes: cargar el snapshot al abrir el repositorio (loadFromFile,
+// incluido el armado de los índices) y escribir el snapshot completo (saveToFile), en CSV y binario
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx6g"})
+public class EstudiantesArchivoBenchmark {
+
+    // Cantidad de estudiantes del snapshot
+    @Param({"1000", "100000", "1000000", "5000000"})
+    public int filas;
+
+    // Formato del snapshot: CSV o BINARIO
+    @Param({"CSV", "BINARIO"})
+    public String formato;
+
+    // Repositorio con los datos generados (el que se guarda en cada iteración)
+    private InMemoryEstudianteRepository repositorio;
+    private boolean binario;
+
+
+    // Genera los datos y escribe el snapshot que luego se carga
+    @Setup(Level.Trial)
+    public void preparar() {
+        Datos.limpiarCarpeta();
+        binario = "BINARIO".equals(formato);
+        repositorio = new InMemoryEstudianteRepository(binario);
+        // Se quitan los ejemplos que agrega un repositorio vacío
+        List<Long> ejemplos = new ArrayList<>();
+        for (Estudiante e : repositorio.findAll(0, Integer.MAX_VALUE)) {
+            ejemplos.add(e.getId());
+        }
+        repositorio.deleteAll(ejemplos);
+        // saveAll escribe un único snapshot al terminar
+        repositorio.saveAll(Datos.estudiantes(filas));
+    }
+
+
+    // Abre un repositorio nuevo: lee el snapshot (y el diario, vacío) y arma los índices
+    @Benchmark
+    public InMemoryEstudianteRepository cargar() {
+        InMemoryEstudianteRepository cargado = new InMemoryEstudianteRepository(binario);
+        if (cargado.count() != filas) {
+            throw new IllegalStateException("Se cargaron " + cargado.count() + " estudiantes de " + filas);
+        }
+        return cargado;
+    }
+
+
+    // Escribe el snapshot completo (temporal + fsync + renombrado atómico)
+    @Benchmark
+    public boolean guardar() {
+        if (!repositorio.saveToFile()) {
+            throw new IllegalStateException(repositorio.getErrorGuardado());
+        }
+        return true;
+    }
+}
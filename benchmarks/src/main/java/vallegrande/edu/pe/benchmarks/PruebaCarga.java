@@ -0,0 +1,412 @@
+// Paquete de los benchmarks
+package vallegrande.edu.pe.benchmarks;
+
+
+import vallegrande.edu.pe.controller.EstudianteController; // controladores bajo prueba (sin Swing)
+import vallegrande.edu.pe.controller.UsuarioController;
+import vallegrande.edu.pe.model.Estudiante;
+import vallegrande.edu.pe.model.Repository;
+import vallegrande.edu.pe.model.Usuario;
+import vallegrande.edu.pe.service.MotorAlmacenamiento;
+
+
+import java.util.ArrayList;                     // resultados por hilo
+import java.util.Arrays;                        // orden de latencias
+import java.util.EnumMap;                       // pesos y resultados por operación
+import java.util.LinkedHashMap;                 // opciones de la línea de comandos
+import java.util.List;
+import java.util.Locale;                        // formato de números
+import java.util.Map;
+import java.util.SplittableRandom;              // aleatorio por hilo
+import java.util.concurrent.ExecutorService;    // hilos de carga
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;  // correos nuevos y último ID
+
+
+// Prueba de carga por línea de comandos (sin Swing) de EstudianteController y UsuarioController:
+// genera archivos sintéticos en los formatos de la aplicación, abre los controladores con el motor
+// elegido y ejecuta desde varios hilos una mezcla configurable de altas, ediciones, bajas, búsquedas,
+// lecturas por ID y páginas de tabla. Informa el tiempo de carga, el rendimiento (ops/s) y los
+// percentiles de latencia de cada operación.
+//
+// Se ejecuta desde la carpeta benchmarks/ (escribe los datos en la carpeta actual):
+//   java -cp target/benchmarks.jar vallegrande.edu.pe.benchmarks.PruebaCarga --estudiantes=1000000 --hilos=8
+public final class PruebaCarga {
+
+    // Operaciones de la mezcla
+    enum Operacion {
+        ALTA, EDICION, BAJA, BUSQUEDA, LECTURA, PAGINA
+    }
+
+    // Opciones por defecto (se reemplazan con --clave=valor)
+    private static final String[][] OPCIONES = {
+            {"estudiantes", "100000", "registros de estudiantes generados"},
+            {"usuarios", "10000", "registros de usuarios generados"},
+            {"entidad", "ambas", "estudiantes, usuarios o ambas"},
+            {"operaciones", "100000", "operaciones por entidad (repartidas entre los hilos)"},
+            {"hilos", "4", "hilos que ejecutan operaciones a la vez"},
+            {"mezcla", "busqueda=40,lectura=20,pagina=15,alta=10,edicion=10,baja=5", "peso de cada operación"},
+            {"sesgo", "1.0", "exponente de Zipf de nombres y apellidos (0 = uniforme)"},
+            {"formato", "csv", "formato de los archivos generados: csv o binario"},
+            {"motor", "", "motor de los controladores (memoria, csv, binario, sql); vacío = el del formato"},
+            {"semilla", "42", "semilla de los datos y de las operaciones"},
+            {"reusar", "false", "true para no generar datos y usar los de la carpeta actual"},
+    };
+
+    // Registros por página de tabla
+    private static final int FILAS_PAGINA = 50;
+
+    private PruebaCarga() {
+    }
+
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = leerOpciones(args);
+        if (opciones == null) {
+            return;
+        }
+        int estudiantes = Integer.parseInt(opciones.get("estudiantes"));
+        int usuarios = Integer.parseInt(opciones.get("usuarios"));
+        String entidad = opciones.get("entidad").toLowerCase(Locale.ROOT);
+        int operaciones = Integer.parseInt(opciones.get("operaciones"));
+        int hilos = Integer.parseInt(opciones.get("hilos"));
+        Map<Operacion, Integer> mezcla = leerMezcla(opciones.get("mezcla"));
+        long semilla = Long.parseLong(opciones.get("semilla"));
+        boolean binario = "binario".equalsIgnoreCase(opciones.get("formato"));
+        String motor = opciones.get("motor").isBlank() ? (binario ? "binario" : "csv") : opciones.get("motor");
+        DatosSinteticos datos = new DatosSinteticos(semilla, Double.parseDouble(opciones.get("sesgo")));
+        boolean conEstudiantes = !entidad.equals("usuarios");
+        boolean conUsuarios = !entidad.equals("estudiantes");
+
+        // 1) Archivos sintéticos en los formatos de la aplicación
+        if (!Boolean.parseBoolean(opciones.get("reusar"))) {
+            Datos.limpiarCarpeta();
+            long inicio = System.nanoTime();
+            if (conEstudiantes) datos.escribirEstudiantes(estudiantes, binario);
+            if (conUsuarios) datos.escribirUsuarios(usuarios, binario);
+            System.out.printf(Locale.ROOT, "Datos generados (%s, sesgo %s) en %.1f s%n",
+                    binario ? "binario" : "csv", opciones.get("sesgo"), segundos(System.nanoTime() - inicio));
+        }
+
+        // 2) Carga y operaciones contra los controladores, con el motor elegido
+        System.setProperty("agenda.motor", motor);
+        if (conEstudiantes) {
+            long inicio = System.nanoTime();
+            EstudianteController controlador = abrirEstudiantes(motor, datos, estudiantes);
+            long carga = System.nanoTime() - inicio;
+            Objetivo objetivo = new ObjetivoEstudiantes(controlador, datos);
+            ejecutar("Estudiantes", objetivo, controlador.contarEstudiantes(), carga, motor,
+                    operaciones, hilos, mezcla, semilla);
+            medirCierre(controlador::close);
+        }
+        if (conUsuarios) {
+            long inicio = System.nanoTime();
+            UsuarioController controlador = abrirUsuarios(motor, datos, usuarios);
+            long carga = System.nanoTime() - inicio;
+            Objetivo objetivo = new ObjetivoUsuarios(controlador, datos);
+            ejecutar("Usuarios", objetivo, controlador.contarUsuarios(), carga, motor,
+                    operaciones, hilos, mezcla, semilla);
+            medirCierre(controlador::close);
+        }
+        System.exit(0); // el pool SQL y los hilos de guardado no detienen la salida
+    }
+
+
+    // Controlador con el motor configurado; el motor "memoria" no lee archivos, así que recibe
+    // los mismos registros generados (sin ID: el repositorio los asigna)
+    private static EstudianteController abrirEstudiantes(String motor, DatosSinteticos datos, int filas) {
+        if (!MotorAlmacenamiento.MEMORIA.name().equalsIgnoreCase(motor)) {
+            return new EstudianteController();
+        }
+        Repository<Estudiante, Long> repositorio = MotorAlmacenamiento.MEMORIA.crearEstudiantes();
+        List<Estudiante> lote = new ArrayList<>(filas);
+        for (Estudiante e : datos.estudiantes(filas)) {
+            e.setId(0);
+            lote.add(e);
+        }
+        repositorio.saveAll(lote);
+        return new EstudianteController(repositorio);
+    }
+
+
+    private static UsuarioController abrirUsuarios(String motor, DatosSinteticos datos, int filas) {
+        if (!MotorAlmacenamiento.MEMORIA.name().equalsIgnoreCase(motor)) {
+            return new UsuarioController();
+        }
+        Repository<Usuario, Long> repositorio = MotorAlmacenamiento.MEMORIA.crearUsuarios();
+        List<Usuario> lote = new ArrayList<>(filas);
+        for (Usuario u : datos.usuarios(filas)) {
+            u.setId(0);
+            lote.add(u);
+        }
+        repositorio.saveAll(lote);
+        return new UsuarioController(repositorio);
+    }
+
+
+    // Ejecuta la mezcla desde varios hilos e imprime el informe
+    private static void ejecutar(String titulo, Objetivo objetivo, int registros, long carga, String motor,
+                                 int operaciones, int hilos, Map<Operacion, Integer> mezcla, long semilla)
+            throws Exception {
+        Operacion[] ruleta = ruleta(mezcla);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        List<Future<Map<Operacion, Latencias>>> tareas = new ArrayList<>();
+        long inicio = System.nanoTime();
+        for (int h = 0; h < hilos; h++) {
+            int cantidad = operaciones / hilos + (h < operaciones % hilos ? 1 : 0);
+            SplittableRandom aleatorio = new SplittableRandom(semilla * 31 + h);
+            tareas.add(ejecutor.submit(() -> {
+                Map<Operacion, Latencias> medidas = new EnumMap<>(Operacion.class);
+                for (Operacion op : Operacion.values()) medidas.put(op, new Latencias());
+                for (int i = 0; i < cantidad; i++) {
+                    Operacion op = ruleta[aleatorio.nextInt(ruleta.length)];
+                    long antes = System.nanoTime();
+                    boolean hecho = objetivo.ejecutar(op, aleatorio);
+                    medidas.get(op).agregar(System.nanoTime() - antes, hecho);
+                }
+                return medidas;
+            }));
+        }
+        Map<Operacion, Latencias> total = new EnumMap<>(Operacion.class);
+        for (Operacion op : Operacion.values()) total.put(op, new Latencias());
+        for (Future<Map<Operacion, Latencias>> tarea : tareas) {
+            for (Map.Entry<Operacion, Latencias> medida : tarea.get().entrySet()) {
+                total.get(medida.getKey()).sumar(medida.getValue());
+            }
+        }
+        double duracion = segundos(System.nanoTime() - inicio);
+        ejecutor.shutdown();
+        imprimir(titulo, registros, carga, motor, hilos, duracion, total);
+    }
+
+
+    private static void imprimir(String titulo, int registros, long carga, String motor, int hilos,
+                                 double duracion, Map<Operacion, Latencias> total) {
+        System.out.printf(Locale.ROOT, "%n== %s: %,d registros, motor %s, %d hilos ==%n", titulo, registros, motor, hilos);
+        System.out.printf(Locale.ROOT, "Carga: %.1f ms%n", carga / 1e6);
+        System.out.printf(Locale.ROOT, "%-10s %10s %10s %11s %10s %10s %10s %10s %10s%n",
+                "Operación", "cantidad", "sin efecto", "ops/s", "p50 µs", "p90 µs", "p99 µs", "p99.9 µs", "máx µs");
+        long todas = 0;
+        for (Map.Entry<Operacion, Latencias> medida : total.entrySet()) {
+            Latencias l = medida.getValue();
+            if (l.cantidad == 0) continue;
+            todas += l.cantidad;
+            long[] orden = l.ordenadas();
+            System.out.printf(Locale.ROOT, "%-10s %,10d %10d %,11.0f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    medida.getKey().name().toLowerCase(Locale.ROOT), l.cantidad, l.sinEfecto, l.cantidad / duracion,
+                    percentil(orden, 0.50), percentil(orden, 0.90), percentil(orden, 0.99),
+                    percentil(orden, 0.999), orden[orden.length - 1] / 1e3);
+        }
+        System.out.printf(Locale.ROOT, "Total: %,d operaciones en %.2f s (%,.0f ops/s)%n", todas, duracion, todas / duracion);
+    }
+
+
+    // Cierre del controlador: espera a que los cambios pendientes estén en disco
+    private static void medirCierre(Runnable cierre) {
+        long inicio = System.nanoTime();
+        cierre.run();
+        System.out.printf(Locale.ROOT, "Cierre (guardado pendiente): %.1f ms%n", (System.nanoTime() - inicio) / 1e6);
+    }
+
+
+    // Percentil en microsegundos (método del rango más cercano)
+    private static double percentil(long[] orden, double p) {
+        int indice = (int) Math.ceil(p * orden.length) - 1;
+        return orden[Math.max(0, Math.min(indice, orden.length - 1))] / 1e3;
+    }
+
+
+    private static double segundos(long nanos) {
+        return nanos / 1e9;
+    }
+
+
+    // Arreglo de 100 casillas repartidas según los pesos: elegir una al azar respeta la mezcla
+    private static Operacion[] ruleta(Map<Operacion, Integer> mezcla) {
+        int suma = 0;
+        for (int peso : mezcla.values()) suma += peso;
+        if (suma <= 0) {
+            throw new IllegalArgumentException("La mezcla no tiene operaciones con peso");
+        }
+        List<Operacion> casillas = new ArrayList<>();
+        for (Map.Entry<Operacion, Integer> peso : mezcla.entrySet()) {
+            int cantidad = (int) Math.round(100.0 * peso.getValue() / suma);
+            for (int i = 0; i < Math.max(cantidad, peso.getValue() > 0 ? 1 : 0); i++) {
+                casillas.add(peso.getKey());
+            }
+        }
+        return casillas.toArray(new Operacion[0]);
+    }
+
+
+    // "busqueda=40,alta=10,..." -> pesos por operación (las no mencionadas valen 0)
+    private static Map<Operacion, Integer> leerMezcla(String texto) {
+        Map<Operacion, Integer> mezcla = new EnumMap<>(Operacion.class);
+        for (String parte : texto.split(",")) {
+            String[] par = parte.trim().split("=");
+            if (par.length != 2) {
+                throw new IllegalArgumentException("Mezcla inválida: " + parte + " (se espera operacion=peso)");
+            }
+            mezcla.put(Operacion.valueOf(par[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(par[1].trim()));
+        }
+        return mezcla;
+    }
+
+
+    // Opciones --clave=valor sobre los valores por defecto; null si se pidió la ayuda
+    private static Map<String, String> leerOpciones(String[] args) {
+        Map<String, String> opciones = new LinkedHashMap<>();
+        for (String[] opcion : OPCIONES) opciones.put(opcion[0], opcion[1]);
+        for (String arg : args) {
+            if (arg.equals("--ayuda") || arg.equals("-h") || arg.equals("--help")) {
+                System.out.println("Opciones (--clave=valor):");
+                for (String[] opcion : OPCIONES) {
+                    System.out.printf("  --%-12s %s (por defecto: %s)%n", opcion[0], opcion[2], opcion[1]);
+                }
+                return null;
+            }
+            int igual = arg.indexOf('=');
+            String clave = arg.startsWith("--") && igual > 2 ? arg.substring(2, igual) : null;
+            if (clave == null || !opciones.containsKey(clave)) {
+                throw new IllegalArgumentException("Opción desconocida: " + arg + " (use --ayuda)");
+            }
+            opciones.put(clave, arg.substring(igual + 1));
+        }
+        return opciones;
+    }
+
+
+    // Operaciones de la mezcla sobre un controlador; devuelve false si no tuvo efecto
+    // (ID ya eliminado, correo repetido...)
+    private interface Objetivo {
+        boolean ejecutar(Operacion operacion, SplittableRandom aleatorio);
+    }
+
+
+    // IDs para ediciones, bajas y lecturas: 1..último asignado (algunos ya eliminados)
+    private static long idAlAzar(AtomicLong ultimoId, SplittableRandom aleatorio) {
+        return 1 + aleatorio.nextLong(Math.max(1, ultimoId.get()));
+    }
+
+
+    private static final class ObjetivoEstudiantes implements Objetivo {
+        private final EstudianteController controlador;
+        private final DatosSinteticos datos;
+        private final AtomicLong ultimoId;
+        private final AtomicLong nuevos = new AtomicLong(1_000_000_000L);
+
+        ObjetivoEstudiantes(EstudianteController controlador, DatosSinteticos datos) {
+            this.controlador = controlador;
+            this.datos = datos;
+            this.ultimoId = new AtomicLong(controlador.contarEstudiantes());
+        }
+
+        @Override
+        public boolean ejecutar(Operacion operacion, SplittableRandom aleatorio) {
+            switch (operacion) {
+                case ALTA: {
+                    String nombre = datos.nombre(aleatorio);
+                    String correo = DatosSinteticos.correo(nombre, nuevos.incrementAndGet());
+                    // Como la ventana: primero se comprueba el correo y luego se guarda
+                    boolean hecho = !controlador.existeCorreo(correo)
+                            && controlador.addEstudiante(nombre, correo, datos.curso(aleatorio));
+                    if (hecho) ultimoId.incrementAndGet();
+                    return hecho;
+                }
+                case EDICION: {
+                    long id = idAlAzar(ultimoId, aleatorio);
+                    Estudiante actual = controlador.obtenerEstudiante(id);
+                    return actual != null && controlador.updateEstudiante(id,
+                            new Estudiante(datos.nombre(aleatorio), actual.getCorreo(), datos.curso(aleatorio)));
+                }
+                case BAJA:
+                    return controlador.deleteEstudiante(idAlAzar(ultimoId, aleatorio));
+                case BUSQUEDA:
+                    return controlador.buscarEstudiantes(datos.textoBusqueda(aleatorio), null) != null;
+                case LECTURA:
+                    return controlador.obtenerEstudiante(idAlAzar(ultimoId, aleatorio)) != null;
+                default: {
+                    int cantidad = controlador.contarEstudiantes();
+                    int desde = cantidad <= FILAS_PAGINA ? 0 : aleatorio.nextInt(cantidad - FILAS_PAGINA);
+                    return !controlador.paginaEstudiantes(desde, FILAS_PAGINA).isEmpty();
+                }
+            }
+        }
+    }
+
+
+    private static final class ObjetivoUsuarios implements Objetivo {
+        private final UsuarioController controlador;
+        private final DatosSinteticos datos;
+        private final AtomicLong ultimoId;
+        private final AtomicLong nuevos = new AtomicLong(1_000_000_000L);
+
+        ObjetivoUsuarios(UsuarioController controlador, DatosSinteticos datos) {
+            this.controlador = controlador;
+            this.datos = datos;
+            this.ultimoId = new AtomicLong(controlador.contarUsuarios());
+        }
+
+        @Override
+        public boolean ejecutar(Operacion operacion, SplittableRandom aleatorio) {
+            switch (operacion) {
+                case ALTA: {
+                    String nombre = datos.nombre(aleatorio);
+                    String correo = DatosSinteticos.correo(nombre, nuevos.incrementAndGet());
+                    boolean hecho = controlador.addUsuario(new Usuario(nombre, correo, datos.rol(aleatorio)));
+                    if (hecho) ultimoId.incrementAndGet();
+                    return hecho;
+                }
+                case EDICION: {
+                    long id = idAlAzar(ultimoId, aleatorio);
+                    Usuario actual = controlador.getUsuario(id);
+                    return actual != null && controlador.updateUsuario(id,
+                            new Usuario(datos.nombre(aleatorio), actual.getCorreo(), datos.rol(aleatorio)));
+                }
+                case BAJA:
+                    return controlador.deleteUsuario(idAlAzar(ultimoId, aleatorio));
+                case BUSQUEDA:
+                    return controlador.buscarUsuarios(datos.textoBusqueda(aleatorio), null) != null;
+                case LECTURA:
+                    return controlador.getUsuario(idAlAzar(ultimoId, aleatorio)) != null;
+                default: {
+                    int cantidad = controlador.contarUsuarios();
+                    int desde = cantidad <= FILAS_PAGINA ? 0 : aleatorio.nextInt(cantidad - FILAS_PAGINA);
+                    return !controlador.paginaUsuarios(desde, FILAS_PAGINA).isEmpty();
+                }
+            }
+        }
+    }
+
+
+    // Latencias de una operación en un hilo (nanosegundos); se suman al final
+    private static final class Latencias {
+        private long[] valores = new long[1024];
+        private int cantidad;
+        private int sinEfecto;
+
+        void agregar(long nanos, boolean hecho) {
+            if (cantidad == valores.length) {
+                valores = Arrays.copyOf(valores, cantidad * 2);
+            }
+            valores[cantidad++] = nanos;
+            if (!hecho) sinEfecto++;
+        }
+
+        void sumar(Latencias otra) {
+            if (cantidad + otra.cantidad > valores.length) {
+                valores = Arrays.copyOf(valores, cantidad + otra.cantidad);
+            }
+            System.arraycopy(otra.valores, 0, valores, cantidad, otra.cantidad);
+            cantidad += otra.cantidad;
+            sinEfecto += otra.sinEfecto;
+        }
+
+        long[] ordenadas() {
+            long[] orden = Arrays.copyOf(valores, cantidad);
+            Arrays.sort(orden);
+            return orden;
+        }
+    }
+}
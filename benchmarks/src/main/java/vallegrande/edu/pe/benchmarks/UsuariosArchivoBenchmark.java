@@ -0,0 +1,77 @@
+// Paquete de los benchmarks
+package vallegrande.edu.pe.benchmarks;
+
+
+import org.openjdk.jmh.annotations.Benchmark;    // anotaciones de JMH
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import vallegrande.edu.pe.model.Usuario;
+import vallegrande.edu.pe.service.UsuarioPersistenceService;
+
+
+import java.util.List;                  // usuarios generados
+import java.util.concurrent.TimeUnit;   // unidad de los resultados
+
+
+// Persistencia de usuarios: cargarUsuarios y guardarUsuarios del servicio de archivos, en CSV y binario
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx6g"})
+public class UsuariosArchivoBenchmark {
+
+    // Cantidad de usuarios del archivo
+    @Param({"1000", "100000", "1000000", "5000000"})
+    public int filas;
+
+    // Formato del archivo: CSV o BINARIO
+    @Param({"CSV", "BINARIO"})
+    public String formato;
+
+    private UsuarioPersistenceService servicio;
+    private List<Usuario> usuarios;
+
+
+    // Genera los usuarios y escribe el archivo que luego se carga
+    @Setup(Level.Trial)
+    public void preparar() {
+        Datos.limpiarCarpeta();
+        servicio = new UsuarioPersistenceService("BINARIO".equals(formato));
+        usuarios = Datos.usuarios(filas);
+        if (!servicio.guardarUsuarios(usuarios)) {
+            throw new IllegalStateException(servicio.getUltimoError());
+        }
+    }
+
+
+    // Lee el archivo completo
+    @Benchmark
+    public List<Usuario> cargarUsuarios() {
+        List<Usuario> cargados = servicio.cargarUsuarios();
+        if (cargados.size() != filas) {
+            throw new IllegalStateException("Se cargaron " + cargados.size() + " usuarios de " + filas);
+        }
+        return cargados;
+    }
+
+
+    // Escribe el archivo completo (temporal + fsync + renombrado atómico)
+    @Benchmark
+    public boolean guardarUsuarios() {
+        if (!servicio.guardarUsuarios(usuarios)) {
+            throw new IllegalStateException(servicio.getUltimoError());
+        }
+        return true;
+    }
+}
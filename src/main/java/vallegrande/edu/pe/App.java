@@ -1,6 +1,7 @@
 package vallegrande.edu.pe;
 
-import vallegrande.edu.pe.controller.UsuarioController;
+import vallegrande.edu.pe.metricas.Metricas;
+import vallegrande.edu.pe.metricas.MonitorEdt;
 import vallegrande.edu.pe.view.MiniPaginaView;
 
 import javax.swing.*;
@@ -9,13 +10,19 @@ import com.formdev.flatlaf.FlatLaf;
 
 public class App {
     public static void main(String[] args) {
+        Metricas.iniciarVolcado();
+        MonitorEdt.instalar();
+        // Los datos empiezan a cargarse en paralelo antes de construir la ventana: el portal se
+        // muestra enseguida y cada tarjeta indica cuándo están listos sus datos
+        AppContext contexto = new AppContext();
+        contexto.precargar();
+        Runtime.getRuntime().addShutdownHook(new Thread(contexto::cerrar, "agenda-cierre"));
         SwingUtilities.invokeLater(() -> {
             try {
                 FlatLaf.setup(new FlatDarkLaf());
                 JFrame.setDefaultLookAndFeelDecorated(true);
             } catch (Exception ignored) {}
-            UsuarioController controller = new UsuarioController();
-            new MiniPaginaView(controller).setVisible(true);
+            new MiniPaginaView(contexto).setVisible(true);
         });
     }
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package vallegrande.edu.pe;
+
+import vallegrande.edu.pe.controller.EstudianteController;
+import vallegrande.edu.pe.controller.UsuarioController;
+import vallegrande.edu.pe.metricas.Metricas;
+
+import java.util.concurrent.CompletableFuture; // carga en segundo plano
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+// Contexto de la aplicación: dueño de un único controlador por entidad.
+// Cada controlador (y su repositorio) se crea la primera vez que se pide y luego lo comparten
+// todas las ventanas, así los datos se cargan una sola vez y todas ven el mismo estado.
+//
+// La carga corre en un hilo propio por entidad (precargar() las inicia en paralelo al arrancar),
+// así la ventana principal se muestra sin esperar a los datos. Si una carga falla, el siguiente
+// pedido la vuelve a intentar.
+public class AppContext {
+
+    // Cada carga en su propio hilo (daemon: no impide cerrar la aplicación)
+    private static final Executor CARGAS = tarea -> {
+        Thread hilo = new Thread(tarea, "agenda-carga");
+        hilo.setDaemon(true);
+        hilo.start();
+    };
+
+    // Cargas de los controladores compartidos (null hasta que se piden)
+    private CompletableFuture<EstudianteController> estudiantes;
+    private CompletableFuture<UsuarioController> usuarios;
+
+    // Inicia en paralelo la carga de todos los controladores (no espera a que terminen)
+    public void precargar() {
+        cargarEstudiantes();
+        cargarUsuarios();
+    }
+
+    // Carga del controlador de estudiantes; la primera llamada (o la siguiente a un error) la inicia
+    public synchronized CompletableFuture<EstudianteController> cargarEstudiantes() {
+        estudiantes = iniciar(estudiantes, EstudianteController::new);
+        return estudiantes;
+    }
+
+    // Carga del controlador de usuarios; la primera llamada (o la siguiente a un error) la inicia
+    public synchronized CompletableFuture<UsuarioController> cargarUsuarios() {
+        usuarios = iniciar(usuarios, UsuarioController::new);
+        return usuarios;
+    }
+
+    // Controlador de estudiantes compartido; espera a que termine la carga
+    public EstudianteController getEstudianteController() {
+        return esperar(cargarEstudiantes());
+    }
+
+    // Controlador de usuarios compartido; espera a que termine la carga
+    public UsuarioController getUsuarioController() {
+        return esperar(cargarUsuarios());
+    }
+
+    // Reutiliza la carga en curso o terminada bien; si no hay o falló, empieza otra
+    private static <T> CompletableFuture<T> iniciar(CompletableFuture<T> actual, Supplier<T> crear) {
+        if (actual != null && !actual.isCompletedExceptionally()) {
+            return actual;
+        }
+        return CompletableFuture.supplyAsync(crear, CARGAS);
+    }
+
+    // Espera la carga y relanza su error tal cual (sin el CompletionException que lo envuelve)
+    private static <T> T esperar(CompletableFuture<T> carga) {
+        try {
+            return carga.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    // Controlador ya cargado, o null si no se pidió o falló; si la carga sigue en curso, la espera
+    private static <T> T cargado(CompletableFuture<T> carga) {
+        if (carga == null) {
+            return null;
+        }
+        try {
+            return carga.join();
+        } catch (CompletionException e) {
+            return null;
+        }
+    }
+
+    // Escribe lo pendiente y libera los repositorios que se llegaron a crear (al salir de la aplicación)
+    public synchronized void cerrar() {
+        EstudianteController e = cargado(estudiantes);
+        if (e != null) {
+            e.close();
+        }
+        UsuarioController u = cargado(usuarios);
+        if (u != null) {
+            u.close();
+        }
+        // Último volcado de métricas con lo que cambió desde el anterior
+        Metricas.volcar();
+    }
+}
@@ -3,64 +3,153 @@ package vallegrande.edu.pe.controller;
 
 
 // Importa el modelo Estudiante y el repositorio en memoria
+import vallegrande.edu.pe.model.CambioRegistro;
 import vallegrande.edu.pe.model.Estudiante;
-import vallegrande.edu.pe.model.InMemoryEstudianteRepository;
+import vallegrande.edu.pe.model.Instantanea;
+import vallegrande.edu.pe.model.Repository;
+import vallegrande.edu.pe.model.ResultadoBusqueda;
+import vallegrande.edu.pe.model.TextoBusqueda;
+import vallegrande.edu.pe.service.ExportadorRegistros;
+import vallegrande.edu.pe.service.ImportadorCsv;
+import vallegrande.edu.pe.service.MotorAlmacenamiento;
 
 
-import java.util.List; // para devolver listas
+import java.io.IOException;                      // errores al leer el archivo a importar
+import java.nio.file.Path;                       // archivo a importar
+import java.util.Collections;                    // listas de solo lectura
+import java.util.List;                           // para devolver listas
+import java.util.function.BooleanSupplier;      // cancelación de la importación
+import java.util.function.Consumer;             // listeners de cambios
 
 
 // Controlador que actúa como capa intermedia entre la vista y el repositorio
 public class EstudianteController {
 
 
-    // Repositorio interno (en memoria + persistencia simple)
-    private final InMemoryEstudianteRepository repository;
+    // Repositorio interno (el motor de almacenamiento se elige al crearlo)
+    private final Repository<Estudiante, Long> repository;
 
 
-    // Constructor que crea el repositorio
+    // Constructor que crea el repositorio con el motor configurado (CSV con diario por defecto)
     public EstudianteController() {
-        this.repository = new InMemoryEstudianteRepository(); // inicializa y carga datos desde archivo
+        this(MotorAlmacenamiento.configurado("estudiantes").crearEstudiantes()); // inicializa y carga datos
+    }
+
+
+    // Constructor que recibe un repositorio ya creado (cualquier motor)
+    public EstudianteController(Repository<Estudiante, Long> repository) {
+        this.repository = repository;
     }
 
 
     // Retorna la lista completa de estudiantes
     public List<Estudiante> listarEstudiantes() {
-        return repository.findAll();
+        // Los motores en memoria comparten su instantánea inmutable (sin copiar la lista en cada llamada)
+        Instantanea<Estudiante> datos = repository.instantanea();
+        return datos != null ? datos.getRegistros() : Collections.unmodifiableList(repository.findAll(0, Integer.MAX_VALUE));
+    }
+
+
+    // Cantidad de estudiantes (para el modelo de tabla)
+    public int contarEstudiantes() {
+        return repository.count();
+    }
+
+
+    // Página de estudiantes en el orden del repositorio: desde "offset", como máximo "limit"
+    // (el modelo de tabla solo pide las páginas que se ven)
+    public List<Estudiante> paginaEstudiantes(int offset, int limit) {
+        return repository.findAll(offset, limit);
+    }
+
+
+    // Versión de los datos: cambia con cada alta, edición o baja (invalida las páginas leídas)
+    public long versionDatos() {
+        return repository.getVersion();
+    }
+
+
+    // Busca los estudiantes cuyo nombre o correo contienen el texto; puede llamarse fuera del hilo de Swing.
+    // Si se pasa el resultado de una búsqueda anterior más corta, solo se revisan sus coincidencias
+    public ResultadoBusqueda buscarEstudiantes(String texto, ResultadoBusqueda anterior) {
+        // Se compara contra la clave cacheada de cada estudiante (sin mayúsculas ni tildes)
+        return repository.query(TextoBusqueda.normalizar(texto), anterior);
+    }
+
+
+    // Retorna el estudiante con el ID indicado (null si no existe)
+    public Estudiante obtenerEstudiante(long id) {
+        return repository.findById(id);
     }
 
 
     // Agrega un estudiante a partir de tres cadenas (nombre, correo, curso)
-    public void addEstudiante(String nombre, String correo, String curso) {
-        // Crea el objeto y lo añade al repositorio
-        repository.add(new Estudiante(nombre, correo, curso));
-        // Después de modificar, guarda en disco para persistencia
-        repository.saveToFile();
+    // Devuelve false si ya existe un estudiante con ese correo
+    public boolean addEstudiante(String nombre, String correo, String curso) {
+        // Crea el objeto (ID 0 = alta) y lo guarda en el repositorio, que valida el correo
+        return repository.save(new Estudiante(nombre, correo, curso));
     }
 
 
-    // Actualiza un estudiante existente por índice
-    public void updateEstudiante(int index, Estudiante estudiante) {
-        repository.update(index, estudiante); // actualiza en memoria
-        repository.saveToFile();              // guarda cambios
+    // Actualiza un estudiante existente por ID
+    // Devuelve false si el ID no existe o el nuevo correo ya pertenece a otro estudiante
+    public boolean updateEstudiante(long id, Estudiante estudiante) {
+        estudiante.setId(id);                // con ID el repositorio lo trata como edición
+        return repository.save(estudiante);  // valida el correo y guarda el cambio
     }
 
 
-    // Elimina un estudiante por índice
-    public void deleteEstudiante(int index) {
-        repository.remove(index); // remueve en memoria
-        repository.saveToFile();  // guarda cambios
+    // Elimina un estudiante por ID
+    public boolean deleteEstudiante(long id) {
+        return repository.delete(id); // remueve y guarda el cambio
     }
 
 
     // Comprueba si existe un estudiante con el mismo correo (evitar duplicados)
     public boolean existeCorreo(String correo) {
-        // Recorre la lista y compara por correo (ignora mayúsculas)
-        for (Estudiante e : repository.findAll()) {
-            if (e.getCorreo().equalsIgnoreCase(correo)) {
-                return true;
-            }
-        }
-        return false;
+        // Consulta el índice por correo del repositorio (ignora mayúsculas)
+        return repository.findByCorreo(correo) != null;
+    }
+
+
+    // Escribe lo pendiente y libera el repositorio (al salir de la aplicación)
+    public void close() {
+        repository.close();
+    }
+
+
+    // Descripción del último error al guardar los cambios (null si no hubo)
+    public String getErrorGuardado() {
+        return repository.getErrorGuardado();
+    }
+
+
+    // Suscribe un listener a las altas, ediciones y bajas de estudiantes (de cualquier ventana).
+    // Se llama en el hilo que hizo el cambio: las vistas deben pasarlo al hilo de Swing
+    public void addCambioListener(Consumer<CambioRegistro> listener) {
+        repository.addCambioListener(listener);
+    }
+
+
+    // Deja de avisar cambios al listener (al cerrar la ventana)
+    public void removeCambioListener(Consumer<CambioRegistro> listener) {
+        repository.removeCambioListener(listener);
+    }
+
+
+    // Importa un CSV de estudiantes (nombre;correo;curso): valida por lotes y guarda todo junto al final.
+    // Tarda según el tamaño del archivo: se llama fuera del hilo de Swing
+    public ImportadorCsv.Resultado importarCsv(Path archivo, ImportadorCsv.Progreso progreso,
+                                               BooleanSupplier cancelado) throws IOException {
+        return new ImportadorCsv<>(repository, ImportadorCsv.ESTUDIANTES).importar(archivo, progreso, cancelado);
+    }
+
+
+    // Exporta a CSV o JSON los estudiantes que coinciden con el texto de búsqueda (todos si está vacío),
+    // leyendo el repositorio por páginas. Devuelve los registros escritos (-1 si se canceló); se llama fuera del hilo de Swing
+    public long exportar(String texto, Path archivo, ExportadorRegistros.Formato formato,
+                         ExportadorRegistros.Progreso progreso, BooleanSupplier cancelado) throws IOException {
+        return new ExportadorRegistros<>(repository, ExportadorRegistros.ESTUDIANTES)
+                .exportar(TextoBusqueda.normalizar(texto), archivo, formato, progreso, cancelado);
     }
 }
@@ -1,68 +1,149 @@
 // Definición del paquete donde se encuentra esta clase
 package vallegrande.edu.pe.controller;
 
-// Importa la clase Usuario del paquete model
+// Importa la clase Usuario y el repositorio del paquete model
+import vallegrande.edu.pe.model.CambioRegistro;
+import vallegrande.edu.pe.model.EstadoGuardado;
+import vallegrande.edu.pe.model.Instantanea;
+import vallegrande.edu.pe.model.Repository;
+import vallegrande.edu.pe.model.ResultadoBusqueda;
+import vallegrande.edu.pe.model.TextoBusqueda;
 import vallegrande.edu.pe.model.Usuario;
-import vallegrande.edu.pe.service.UsuarioPersistenceService;
+import vallegrande.edu.pe.service.ExportadorRegistros;
+import vallegrande.edu.pe.service.ImportadorCsv;
+import vallegrande.edu.pe.service.MotorAlmacenamiento;
 
 // Importa las clases necesarias para usar listas dinámicas
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 // Definición de la clase UsuarioController que maneja la lógica de usuarios
 public class UsuarioController {
 
-    // Lista privada que almacena todos los usuarios
-    private final List<Usuario> usuarios;
-    
-    // Servicio de persistencia para guardar/cargar datos
-    private final UsuarioPersistenceService persistenceService;
+    // Repositorio de usuarios (el motor de almacenamiento se elige al crearlo)
+    private final Repository<Usuario, Long> repository;
 
-    // Constructor de la clase
+    // Constructor de la clase: usa el motor configurado (CSV guardado en segundo plano por defecto)
     public UsuarioController() {
-        // Inicializa el servicio de persistencia
-        persistenceService = new UsuarioPersistenceService();
-        
-        // Intenta cargar usuarios desde archivo
-        usuarios = new ArrayList<>(persistenceService.cargarUsuarios());
-        
-        // Si no hay usuarios cargados, agrega datos de ejemplo
-        if (usuarios.isEmpty()) {
-            usuarios.add(new Usuario("Valery Chumpitaz", "valery@correo.com", "Administrador"));
-            usuarios.add(new Usuario("Juan Pérez", "juan@correo.com", "Docente"));
-            usuarios.add(new Usuario("María López", "maria@correo.com", "Estudiante"));
-            // Guarda los datos de ejemplo
-            persistenceService.guardarUsuarios(usuarios);
-        }
-    }
-
-    // Método que retorna la lista completa de usuarios
+        this(MotorAlmacenamiento.configurado("usuarios").crearUsuarios());
+    }
+
+    // Constructor que recibe un repositorio ya creado (cualquier motor)
+    public UsuarioController(Repository<Usuario, Long> repository) {
+        this.repository = repository;
+    }
+
+    // Método que retorna la lista completa de usuarios (copia)
     public List<Usuario> getUsuarios() {
-        return usuarios;
+        // Los motores en memoria comparten su instantánea inmutable (sin copiar la lista en cada llamada)
+        Instantanea<Usuario> datos = repository.instantanea();
+        return datos != null ? datos.getRegistros() : Collections.unmodifiableList(repository.findAll(0, Integer.MAX_VALUE));
     }
 
-    // Método para agregar un nuevo usuario a la lista
-    public void addUsuario(Usuario usuario) {
-        usuarios.add(usuario);
-        persistenceService.guardarUsuarios(usuarios); // Guarda automáticamente
+    // Método que retorna la cantidad de usuarios (para el modelo de tabla)
+    public int contarUsuarios() {
+        return repository.count();
     }
 
-    // Método para eliminar un usuario de la lista según su índice
-    public void deleteUsuario(int index) {
-        // Verifica que el índice sea válido antes de eliminar
-        if (index >= 0 && index < usuarios.size()) {
-            usuarios.remove(index);
-            persistenceService.guardarUsuarios(usuarios); // Guarda automáticamente
-        }
+    // Método que retorna una página de usuarios en el orden del repositorio: desde "offset", como máximo "limit"
+    // (el modelo de tabla solo pide las páginas que se ven)
+    public List<Usuario> paginaUsuarios(int offset, int limit) {
+        return repository.findAll(offset, limit);
     }
 
-    // Método para actualizar un usuario existente en la lista según su índice
-    public void updateUsuario(int index, Usuario usuario) {
-        // Verifica que el índice sea válido antes de actualizar
-        if (index >= 0 && index < usuarios.size()) {
-            usuarios.set(index, usuario);
-            persistenceService.guardarUsuarios(usuarios); // Guarda automáticamente
-        }
+    // Versión de los datos: cambia con cada alta, edición o baja (invalida las páginas leídas)
+    public long versionDatos() {
+        return repository.getVersion();
+    }
+
+    // Método que busca los usuarios cuyo nombre o correo contienen el texto; puede llamarse fuera del hilo de Swing.
+    // Si se pasa el resultado de una búsqueda anterior más corta, solo se revisan sus coincidencias
+    public ResultadoBusqueda buscarUsuarios(String texto, ResultadoBusqueda anterior) {
+        // Se compara contra la clave cacheada de cada usuario (sin mayúsculas ni tildes)
+        return repository.query(TextoBusqueda.normalizar(texto), anterior);
+    }
+
+    // Método que retorna el usuario con el ID indicado (null si no existe)
+    public Usuario getUsuario(long id) {
+        return repository.findById(id);
     }
-}
 
+    // Método para agregar un nuevo usuario; el repositorio le asigna un ID
+    // Devuelve false si ya existe un usuario con ese correo
+    public boolean addUsuario(Usuario usuario) {
+        usuario.setId(0);
+        return repository.save(usuario); // Guarda automáticamente
+    }
+
+    // Método para eliminar un usuario según su ID
+    public boolean deleteUsuario(long id) {
+        return repository.delete(id); // Guarda automáticamente
+    }
+
+    // Método para actualizar un usuario existente según su ID
+    // Devuelve false si el ID no existe o el correo pertenece a otro usuario
+    public boolean updateUsuario(long id, Usuario usuario) {
+        usuario.setId(id);
+        return repository.save(usuario); // Guarda automáticamente
+    }
+
+    // Espera a que se escriban en disco los cambios pendientes (al cerrar una ventana)
+    public boolean flush() {
+        return repository.flush();
+    }
+
+    // Escribe lo pendiente y detiene el hilo de guardado
+    public void close() {
+        repository.close();
+    }
+
+    // Estado del guardado para mostrarlo en la vista
+    public EstadoGuardado getEstadoGuardado() {
+        return repository.getEstadoGuardado();
+    }
+
+    // Descripción del último error al guardar (null si el último guardado fue correcto)
+    public String getErrorGuardado() {
+        return repository.getErrorGuardado();
+    }
+
+    // Registra un listener de cambios de estado del guardado (se invoca fuera del hilo de Swing)
+    public void addEstadoGuardadoListener(Consumer<EstadoGuardado> listener) {
+        repository.addEstadoGuardadoListener(listener);
+    }
+
+    // Elimina un listener de cambios de estado del guardado
+    public void removeEstadoGuardadoListener(Consumer<EstadoGuardado> listener) {
+        repository.removeEstadoGuardadoListener(listener);
+    }
+
+    // Suscribe un listener a las altas, ediciones y bajas de usuarios (de cualquier ventana).
+    // Se llama en el hilo que hizo el cambio: las vistas deben pasarlo al hilo de Swing
+    public void addCambioListener(Consumer<CambioRegistro> listener) {
+        repository.addCambioListener(listener);
+    }
+
+    // Deja de avisar cambios al listener (al cerrar la ventana)
+    public void removeCambioListener(Consumer<CambioRegistro> listener) {
+        repository.removeCambioListener(listener);
+    }
+
+    // Importa un CSV de usuarios (Nombre,Correo,Rol): valida por lotes y guarda todo junto al final.
+    // Tarda según el tamaño del archivo: se llama fuera del hilo de Swing
+    public ImportadorCsv.Resultado importarCsv(Path archivo, ImportadorCsv.Progreso progreso,
+                                               BooleanSupplier cancelado) throws IOException {
+        return new ImportadorCsv<>(repository, ImportadorCsv.USUARIOS).importar(archivo, progreso, cancelado);
+    }
+
+    // Exporta a CSV o JSON los usuarios que coinciden con el texto de búsqueda (todos si está vacío),
+    // leyendo el repositorio por páginas. Devuelve los registros escritos (-1 si se canceló); se llama fuera del hilo de Swing
+    public long exportar(String texto, Path archivo, ExportadorRegistros.Formato formato,
+                         ExportadorRegistros.Progreso progreso, BooleanSupplier cancelado) throws IOException {
+        return new ExportadorRegistros<>(repository, ExportadorRegistros.USUARIOS)
+                .exportar(TextoBusqueda.normalizar(texto), archivo, formato, progreso, cancelado);
+    }
+}
@@ -0,0 +1,44 @@
+// Paquete de métricas
+package vallegrande.edu.pe.metricas;
+
+
+import java.util.concurrent.atomic.LongAdder; // suma sin candados entre hilos
+
+
+// Contador acumulado (bytes escritos, errores, rechazos...): sumar no usa candados
+public final class Contador implements ContadorMXBean {
+
+    private final String nombre;
+    private final LongAdder valor = new LongAdder();
+
+
+    Contador(String nombre) {
+        this.nombre = nombre;
+    }
+
+
+    public void sumar(long cantidad) {
+        valor.add(cantidad);
+    }
+
+
+    public void incrementar() {
+        valor.increment();
+    }
+
+
+    @Override
+    public String getNombre() {
+        return nombre;
+    }
+
+    @Override
+    public long getValor() {
+        return valor.sum();
+    }
+
+    @Override
+    public void reiniciar() {
+        valor.reset();
+    }
+}
@@ -0,0 +1,12 @@
+// Paquete de métricas
+package vallegrande.edu.pe.metricas;
+
+// Vista JMX de un contador (vallegrande.edu.pe:type=Contador,name=...)
+public interface ContadorMXBean {
+
+    String getNombre();
+
+    long getValor();
+
+    void reiniciar();
+}
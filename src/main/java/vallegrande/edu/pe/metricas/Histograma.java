@@ -0,0 +1,163 @@
+// Paquete de métricas
+package vallegrande.edu.pe.metricas;
+
+
+import java.util.concurrent.atomic.AtomicLongArray;    // conteo por casilla sin candados
+import java.util.concurrent.atomic.LongAccumulator;    // máximo sin candados
+import java.util.concurrent.atomic.LongAdder;          // cantidad y suma sin candados
+
+
+// Histograma de valores enteros (tiempos en ns, bytes, filas) al estilo HDR: casillas exactas
+// hasta 63 y luego 32 casillas por cada potencia de dos, así cualquier percentil tiene un error
+// relativo menor al 3% sin guardar los valores. Registrar es un incremento atómico (sin candados
+// ni asignaciones), apto para los caminos calientes y para varios hilos a la vez.
+public final class Histograma implements HistogramaMXBean {
+
+    // Bits de subcasilla por potencia de dos (32 subcasillas)
+    private static final int BITS_SUB = 5;
+    private static final int SUBCASILLAS = 1 << BITS_SUB;
+    // Valores menores se cuentan de forma exacta (una casilla por valor)
+    private static final int EXACTOS = SUBCASILLAS * 2;
+    // Primera potencia de dos que no es exacta (2^6 = 64)
+    private static final int PRIMER_EXPONENTE = BITS_SUB + 1;
+    private static final int CASILLAS = EXACTOS + (63 - PRIMER_EXPONENTE) * SUBCASILLAS;
+
+    private final String nombre;
+    private final String unidad;
+    private final AtomicLongArray conteos = new AtomicLongArray(CASILLAS);
+    private final LongAdder cantidad = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+
+    Histograma(String nombre, String unidad) {
+        this.nombre = nombre;
+        this.unidad = unidad;
+    }
+
+
+    // Registra un valor (los negativos cuentan como 0)
+    public void registrar(long valor) {
+        long v = Math.max(0, valor);
+        conteos.incrementAndGet(casilla(v));
+        cantidad.increment();
+        suma.add(v);
+        maximo.accumulate(v);
+    }
+
+
+    // Registra el tiempo transcurrido desde "inicio" (un valor de System.nanoTime())
+    public void registrarDesde(long inicio) {
+        registrar(System.nanoTime() - inicio);
+    }
+
+
+    // Casilla de un valor: exacta si es chico; si no, exponente y los 5 bits siguientes al más alto
+    private static int casilla(long v) {
+        if (v < EXACTOS) {
+            return (int) v;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exponente - BITS_SUB)) & (SUBCASILLAS - 1);
+        return EXACTOS + (exponente - PRIMER_EXPONENTE) * SUBCASILLAS + sub;
+    }
+
+
+    // Valor representativo de una casilla (su punto medio)
+    private static long valorDe(int casilla) {
+        if (casilla < EXACTOS) {
+            return casilla;
+        }
+        int exponente = (casilla - EXACTOS) / SUBCASILLAS + PRIMER_EXPONENTE;
+        int sub = (casilla - EXACTOS) % SUBCASILLAS;
+        long ancho = 1L << (exponente - BITS_SUB);
+        long desde = (1L << exponente) + sub * ancho;
+        return desde + ancho / 2;
+    }
+
+
+    // Valor bajo el cual está la fracción "p" (0..1) de los registros; 0 si no hay registros
+    public long percentil(double p) {
+        long total = 0;
+        long[] copia = new long[CASILLAS];
+        for (int i = 0; i < CASILLAS; i++) {
+            copia[i] = conteos.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rango = Math.max(1, (long) Math.ceil(p * total));
+        long acumulado = 0;
+        for (int i = 0; i < CASILLAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= rango) {
+                return Math.min(valorDe(i), getMaximo());
+            }
+        }
+        return getMaximo();
+    }
+
+
+    @Override
+    public String getNombre() {
+        return nombre;
+    }
+
+    @Override
+    public String getUnidad() {
+        return unidad;
+    }
+
+    @Override
+    public long getCantidad() {
+        return cantidad.sum();
+    }
+
+    @Override
+    public long getSuma() {
+        return suma.sum();
+    }
+
+    @Override
+    public double getMedia() {
+        long n = cantidad.sum();
+        return n == 0 ? 0 : (double) suma.sum() / n;
+    }
+
+    @Override
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    @Override
+    public long getP50() {
+        return percentil(0.50);
+    }
+
+    @Override
+    public long getP90() {
+        return percentil(0.90);
+    }
+
+    @Override
+    public long getP99() {
+        return percentil(0.99);
+    }
+
+    @Override
+    public long getP999() {
+        return percentil(0.999);
+    }
+
+    // Vuelve a cero (operación de JMX, por ejemplo al empezar una medición)
+    @Override
+    public void reiniciar() {
+        for (int i = 0; i < CASILLAS; i++) {
+            conteos.set(i, 0);
+        }
+        cantidad.reset();
+        suma.reset();
+        maximo.reset();
+    }
+}
@@ -0,0 +1,29 @@
+// Paquete de métricas
+package vallegrande.edu.pe.metricas;
+
+// Vista JMX de un histograma (vallegrande.edu.pe:type=Histograma,name=...): los valores están en
+// la unidad indicada; los tiempos, en nanosegundos
+public interface HistogramaMXBean {
+
+    String getNombre();
+
+    String getUnidad();
+
+    long getCantidad();
+
+    long getSuma();
+
+    double getMedia();
+
+    long getMaximo();
+
+    long getP50();
+
+    long getP90();
+
+    long getP99();
+
+    long getP999();
+
+    void reiniciar();
+}
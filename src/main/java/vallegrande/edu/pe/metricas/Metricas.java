@@ -0,0 +1,136 @@
+// Paquete de métricas
+package vallegrande.edu.pe.metricas;
+
+
+import javax.management.JMException;           // errores al registrar en JMX
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory; // servidor JMX de la JVM
+import java.util.Locale;                       // formato de números
+import java.util.Map;
+import java.util.TreeMap;                      // volcado en orden alfabético
+import java.util.concurrent.ConcurrentHashMap; // registro compartido entre hilos
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;         // hilo del volcado periódico
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+
+// Registro de las métricas de la aplicación: histogramas (tiempos de guardado, carga y búsqueda,
+// filas revisadas por búsqueda, bloqueo del hilo de Swing) y contadores (bytes escritos, errores).
+// Cada métrica se crea una vez por nombre, se publica en JMX (jconsole, VisualVM) bajo
+// "vallegrande.edu.pe" y se guarda en una constante de la clase que la usa.
+//
+// Volcado periódico al log: cada 60 segundos se imprimen las métricas que cambiaron desde el
+// volcado anterior (-Dagenda.metricas.segundos=N para otro intervalo, 0 para desactivarlo).
+public final class Metricas {
+
+    // Dominio de los MBeans
+    private static final String DOMINIO = "vallegrande.edu.pe";
+
+    // Intervalo del volcado periódico en segundos (0 = sin volcado)
+    private static final long SEGUNDOS_VOLCADO = Long.getLong("agenda.metricas.segundos", 60);
+
+    private static final ConcurrentMap<String, Histograma> HISTOGRAMAS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Contador> CONTADORES = new ConcurrentHashMap<>();
+
+    // Cantidades del último volcado, para imprimir solo lo que cambió
+    private static final Map<String, Long> VOLCADAS = new ConcurrentHashMap<>();
+
+    private static ScheduledExecutorService volcador;
+
+    private Metricas() {
+    }
+
+
+    // Histograma con el nombre indicado (se crea y publica la primera vez); unidad: "ns", "bytes", "filas"...
+    public static Histograma histograma(String nombre, String unidad) {
+        return HISTOGRAMAS.computeIfAbsent(nombre, n -> publicar(new Histograma(n, unidad), "Histograma", n));
+    }
+
+
+    // Histograma de tiempos en nanosegundos
+    public static Histograma tiempo(String nombre) {
+        return histograma(nombre, "ns");
+    }
+
+
+    // Contador con el nombre indicado (se crea y publica la primera vez)
+    public static Contador contador(String nombre) {
+        return CONTADORES.computeIfAbsent(nombre, n -> publicar(new Contador(n), "Contador", n));
+    }
+
+
+    // Registra la métrica en el servidor JMX de la JVM; si no se puede, la métrica sigue funcionando
+    private static <T> T publicar(T metrica, String tipo, String nombre) {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objeto = new ObjectName(DOMINIO + ":type=" + tipo + ",name=" + nombre);
+            if (!servidor.isRegistered(objeto)) {
+                servidor.registerMBean(metrica, objeto);
+            }
+        } catch (JMException | RuntimeException e) {
+            System.err.println("No se pudo publicar la métrica " + nombre + " en JMX: " + e.getMessage());
+        }
+        return metrica;
+    }
+
+
+    // Inicia el volcado periódico al log (una sola vez; no hace nada si está desactivado)
+    public static synchronized void iniciarVolcado() {
+        if (volcador != null || SEGUNDOS_VOLCADO <= 0) {
+            return;
+        }
+        volcador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "agenda-metricas");
+            t.setDaemon(true);
+            return t;
+        });
+        volcador.scheduleAtFixedRate(Metricas::volcar, SEGUNDOS_VOLCADO, SEGUNDOS_VOLCADO, TimeUnit.SECONDS);
+    }
+
+
+    // Imprime las métricas que cambiaron desde el volcado anterior
+    public static void volcar() {
+        String texto = resumen(true);
+        if (!texto.isEmpty()) {
+            System.out.print(texto);
+        }
+    }
+
+
+    // Resumen legible de las métricas (todas, o solo las que cambiaron desde el último resumen así pedido)
+    public static String resumen(boolean soloCambios) {
+        StringBuilder sb = new StringBuilder();
+        for (Histograma h : new TreeMap<>(HISTOGRAMAS).values()) {
+            long cantidad = h.getCantidad();
+            if (soloCambios && !cambio(h.getNombre(), cantidad)) continue;
+            sb.append(String.format(Locale.ROOT, "[métricas] %s: n=%d media=%s p50=%s p90=%s p99=%s p99.9=%s máx=%s%n",
+                    h.getNombre(), cantidad, valor(h.getMedia(), h.getUnidad()), valor(h.getP50(), h.getUnidad()),
+                    valor(h.getP90(), h.getUnidad()), valor(h.getP99(), h.getUnidad()),
+                    valor(h.getP999(), h.getUnidad()), valor(h.getMaximo(), h.getUnidad())));
+        }
+        for (Contador c : new TreeMap<>(CONTADORES).values()) {
+            long valor = c.getValor();
+            if (soloCambios && !cambio(c.getNombre(), valor)) continue;
+            sb.append(String.format(Locale.ROOT, "[métricas] %s: %d%n", c.getNombre(), valor));
+        }
+        return sb.toString();
+    }
+
+
+    // Anota el valor actual y dice si es distinto al del volcado anterior
+    private static boolean cambio(String nombre, long actual) {
+        Long anterior = VOLCADAS.put(nombre, actual);
+        return anterior == null ? actual != 0 : anterior != actual;
+    }
+
+
+    // Los tiempos se muestran en ms (con µs de precisión); el resto, en su unidad
+    private static String valor(double v, String unidad) {
+        if ("ns".equals(unidad)) {
+            return String.format(Locale.ROOT, "%.3fms", v / 1e6);
+        }
+        return String.format(Locale.ROOT, "%.0f %s", v, unidad);
+    }
+}
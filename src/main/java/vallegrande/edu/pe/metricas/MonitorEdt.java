@@ -0,0 +1,261 @@
+// Paquete de métricas
+package vallegrande.edu.pe.metricas;
+
+
+import java.awt.AWTEvent;                            // eventos despachados por Swing
+import java.awt.EventQueue;                          // cola de eventos que se reemplaza
+import java.awt.Toolkit;
+import java.awt.event.ActionEvent;                   // acciones de botones y menús
+import java.io.IOException;
+import java.nio.file.Files;                          // carpeta del log
+import java.nio.file.Path;
+import java.time.LocalDateTime;                      // fecha de cada bloqueo
+import java.util.ArrayDeque;                         // eventos anidados (diálogos modales)
+import java.util.Deque;
+import java.util.concurrent.BlockingQueue;           // reportes pendientes de escribir
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.FileHandler;                // log rotativo
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+
+// Detector de bloqueos del hilo de Swing (opcional, -Dagenda.edt.umbralMs=N para activarlo).
+// Reemplaza la cola de eventos por una que mide cada evento despachado; un hilo vigía revisa el
+// evento en curso y, cuando pasa el umbral, toma la pila del hilo de Swing en ese momento (no al
+// final, cuando ya no dice nada). Al terminar el evento, el bloqueo se escribe en un log rotativo
+// (logs/edt-bloqueos.N.log) con el evento, el manejador que lo causó y la pila.
+//
+// Los diálogos modales abren un ciclo de eventos anidado: el tiempo que el evento externo pasa
+// esperando al usuario (eventos anidados y espera de la cola) no se cuenta, solo su tiempo propio.
+public final class MonitorEdt extends EventQueue {
+
+    // Umbral en milisegundos (0 = monitor desactivado)
+    private static final long UMBRAL_MS = Long.getLong("agenda.edt.umbralMs", 0);
+
+    // Log rotativo: 5 archivos de hasta 1 MB
+    private static final String PATRON_LOG = "logs/edt-bloqueos.%g.log";
+    private static final int TAMANIO_LOG = 1024 * 1024;
+    private static final int ARCHIVOS_LOG = 5;
+
+    // Marcos de pila que se escriben por bloqueo
+    private static final int MAX_MARCOS = 60;
+
+    // Paquete de la aplicación, para encontrar el manejador dentro de la pila
+    private static final String PAQUETE_APP = "vallegrande.edu.pe.";
+
+    // Tiempo propio de cada evento y cantidad de bloqueos
+    private static final Histograma TIEMPO_EVENTO = Metricas.tiempo("edt.eventos");
+    private static final Contador BLOQUEOS = Metricas.contador("edt.bloqueos");
+
+    private static MonitorEdt instalado;
+
+    // Evento en despacho: inicio, tiempo pasado en ciclos anidados y pila tomada por el vigía
+    private static final class Despacho {
+        final AWTEvent evento;
+        final Thread hilo;
+        final long inicio = System.nanoTime();
+        // Tiempo en eventos anidados y esperando a la cola (solo lo escribe el hilo de Swing)
+        volatile long anidado;
+        // Inicio de la espera actual en la cola de un ciclo anidado (0 si no está esperando)
+        volatile long esperaDesde;
+        volatile StackTraceElement[] pila;
+        volatile long pilaMs;
+
+        Despacho(AWTEvent evento, Thread hilo) {
+            this.evento = evento;
+            this.hilo = hilo;
+        }
+
+        long propioNanos(long ahora) {
+            long espera = esperaDesde;
+            return ahora - inicio - anidado - (espera == 0 ? 0 : ahora - espera);
+        }
+    }
+
+    private final long umbralNanos;
+    // Pila de despachos: solo la usa el hilo de Swing
+    private final Deque<Despacho> despachos = new ArrayDeque<>();
+    // Despacho más interno, leído por el vigía
+    private volatile Despacho actual;
+    // Reportes que el vigía escribe en el log (fuera del hilo de Swing)
+    private final BlockingQueue<String> reportes = new LinkedBlockingQueue<>();
+    private final FileHandler log;
+
+
+    private MonitorEdt(long umbralMs, FileHandler log) {
+        this.umbralNanos = TimeUnit.MILLISECONDS.toNanos(umbralMs);
+        this.log = log;
+    }
+
+
+    // Instala el monitor si se pidió con -Dagenda.edt.umbralMs (una sola vez)
+    public static synchronized void instalar() {
+        if (instalado != null || UMBRAL_MS <= 0) {
+            return;
+        }
+        FileHandler log;
+        try {
+            Files.createDirectories(Path.of(PATRON_LOG).getParent());
+            log = new FileHandler(PATRON_LOG, TAMANIO_LOG, ARCHIVOS_LOG, true);
+            log.setFormatter(new Formatter() {
+                @Override
+                public String format(LogRecord registro) {
+                    return registro.getMessage();
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("No se pudo abrir el log de bloqueos del hilo de Swing: " + e.getMessage());
+            log = null;
+        }
+        instalado = new MonitorEdt(UMBRAL_MS, log);
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(instalado);
+
+        Thread vigia = new Thread(instalado::vigilar, "agenda-monitor-edt");
+        vigia.setDaemon(true);
+        vigia.start();
+        System.out.println("Monitor del hilo de Swing activo: bloqueos de más de " + UMBRAL_MS
+                + " ms en " + PATRON_LOG.replace("%g", "N"));
+    }
+
+
+    // Mide el evento; el tiempo de los ciclos anidados (diálogos modales) se descuenta del evento externo
+    @Override
+    protected void dispatchEvent(AWTEvent evento) {
+        Despacho despacho = new Despacho(evento, Thread.currentThread());
+        despachos.push(despacho);
+        actual = despacho;
+        try {
+            super.dispatchEvent(evento);
+        } finally {
+            long ahora = System.nanoTime();
+            despachos.pop();
+            Despacho externo = despachos.peek();
+            if (externo != null) {
+                externo.anidado += ahora - despacho.inicio;
+            }
+            actual = externo;
+            terminar(despacho, ahora);
+        }
+    }
+
+
+    // Un ciclo anidado (diálogo modal) esperando el siguiente evento no bloquea: se descuenta del evento en curso
+    @Override
+    public AWTEvent getNextEvent() throws InterruptedException {
+        Despacho despacho = actual;
+        if (despacho == null) {
+            return super.getNextEvent();
+        }
+        long inicio = System.nanoTime();
+        despacho.esperaDesde = inicio;
+        try {
+            return super.getNextEvent();
+        } finally {
+            despacho.anidado += System.nanoTime() - inicio;
+            despacho.esperaDesde = 0;
+        }
+    }
+
+
+    // Registra el tiempo propio del evento y, si pasó el umbral, deja el reporte para el vigía
+    private void terminar(Despacho despacho, long ahora) {
+        long propio = despacho.propioNanos(ahora);
+        TIEMPO_EVENTO.registrar(propio);
+        if (propio < umbralNanos) {
+            return;
+        }
+        BLOQUEOS.incrementar();
+        reportes.offer(reporte(despacho, propio));
+    }
+
+
+    // Hilo vigía: toma la pila del evento en curso cuando pasa el umbral y escribe los reportes
+    private void vigilar() {
+        long periodoMs = Math.max(5, TimeUnit.NANOSECONDS.toMillis(umbralNanos) / 4);
+        while (true) {
+            try {
+                String reporte = reportes.poll(periodoMs, TimeUnit.MILLISECONDS);
+                if (reporte != null) {
+                    escribir(reporte);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            Despacho despacho = actual;
+            if (despacho != null && despacho.pila == null) {
+                long propio = despacho.propioNanos(System.nanoTime());
+                if (propio >= umbralNanos) {
+                    despacho.pilaMs = TimeUnit.NANOSECONDS.toMillis(propio);
+                    despacho.pila = despacho.hilo.getStackTrace();
+                }
+            }
+        }
+    }
+
+
+    // Texto del bloqueo: duración, evento, manejador de la aplicación y pila
+    private String reporte(Despacho despacho, long propioNanos) {
+        String fin = System.lineSeparator();
+        StringBuilder sb = new StringBuilder();
+        sb.append(LocalDateTime.now()).append(" bloqueo de ").append(TimeUnit.NANOSECONDS.toMillis(propioNanos))
+                .append(" ms (umbral ").append(TimeUnit.NANOSECONDS.toMillis(umbralNanos)).append(" ms)").append(fin);
+        sb.append("  evento: ").append(describir(despacho.evento)).append(fin);
+
+        StackTraceElement[] pila = despacho.pila;
+        if (pila == null) {
+            // El evento terminó entre dos revisiones del vigía
+            sb.append("  (sin pila: el evento terminó antes de la revisión del vigía)").append(fin).append(fin);
+            return sb.toString();
+        }
+        StackTraceElement manejador = null;
+        StackTraceElement bloqueadoEn = null;
+        for (StackTraceElement marco : pila) {
+            String clase = marco.getClassName();
+            // Se saltan el propio monitor y las clases generadas para las lambdas (el marco siguiente es la lambda)
+            if (clase.startsWith(PAQUETE_APP) && !clase.startsWith(MonitorEdt.class.getName()) && !clase.contains("$$Lambda")) {
+                if (bloqueadoEn == null) {
+                    bloqueadoEn = marco;
+                }
+                manejador = marco;
+            }
+        }
+        if (manejador != null) {
+            sb.append("  manejador: ").append(manejador).append(fin);
+            sb.append("  bloqueado en: ").append(bloqueadoEn).append(fin);
+        }
+        sb.append("  pila del hilo de Swing a los ").append(despacho.pilaMs).append(" ms:").append(fin);
+        for (int i = 0; i < pila.length && i < MAX_MARCOS; i++) {
+            sb.append("    at ").append(pila[i]).append(fin);
+        }
+        if (pila.length > MAX_MARCOS) {
+            sb.append("    ... ").append(pila.length - MAX_MARCOS).append(" más").append(fin);
+        }
+        return sb.append(fin).toString();
+    }
+
+
+    // Evento legible: tipo, comando (en acciones) y componente de origen
+    private static String describir(AWTEvent evento) {
+        StringBuilder sb = new StringBuilder(evento.getClass().getSimpleName());
+        if (evento instanceof ActionEvent accion && accion.getActionCommand() != null) {
+            sb.append(" \"").append(accion.getActionCommand()).append('"');
+        } else {
+            String parametros = evento.paramString();
+            sb.append('[').append(parametros.length() > 200 ? parametros.substring(0, 200) + "…" : parametros).append(']');
+        }
+        return sb.append(" en ").append(evento.getSource().getClass().getName()).toString();
+    }
+
+
+    // Escribe el reporte en el log rotativo (o en la consola si el log no se pudo abrir)
+    private void escribir(String reporte) {
+        if (log == null) {
+            System.err.print(reporte);
+            return;
+        }
+        log.publish(new LogRecord(Level.WARNING, reporte));
+        log.flush();
+    }
+}
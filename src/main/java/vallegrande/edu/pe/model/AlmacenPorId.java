@@ -0,0 +1,151 @@
+// Paquete donde se ubica la clase
+package vallegrande.edu.pe.model;
+
+// Importa las clases necesarias para listas y mapas
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+// Almacén en memoria indexado por ID: los registros viven en un arreglo denso
+// y un mapa ID -> posición permite buscar, reemplazar y eliminar en O(1).
+// Al eliminar, el último registro ocupa el hueco (no hay que desplazar el resto),
+// por eso el orden de las filas puede cambiar tras una baja.
+public class AlmacenPorId<T extends Identificable> {
+
+    // Registros en posiciones contiguas
+    private final List<T> filas = new ArrayList<>();
+
+    // ID -> posición dentro de "filas"
+    private final Map<Long, Integer> posiciones = new HashMap<>();
+
+    // Próximo ID a generar
+    private long siguienteId = 1;
+
+    // Cantidad de registros
+    public int size() {
+        return filas.size();
+    }
+
+    // Registro en la posición indicada
+    public T getEn(int posicion) {
+        return filas.get(posicion);
+    }
+
+    // Registro con el ID indicado (null si no existe)
+    public T get(long id) {
+        Integer pos = posiciones.get(id);
+        return pos == null ? null : filas.get(pos);
+    }
+
+    // Posición actual del registro con el ID indicado (-1 si no existe)
+    public int posicionDe(long id) {
+        Integer pos = posiciones.get(id);
+        return pos == null ? -1 : pos;
+    }
+
+    // Comprueba si existe un registro con el ID indicado
+    public boolean contiene(long id) {
+        return posiciones.containsKey(id);
+    }
+
+    // Agrega un registro; si no tiene ID se le genera uno nuevo. Devuelve el ID
+    public long agregar(T registro) {
+        long id = registro.getId();
+        if (id <= 0) {
+            id = siguienteId++;
+            registro.setId(id);
+        } else {
+            siguienteId = Math.max(siguienteId, id + 1);
+        }
+        Integer existente = posiciones.get(id);
+        if (existente != null) {
+            // Mismo ID (p. ej. al reproducir un diario): se reemplaza en su lugar
+            filas.set(existente, registro);
+        } else {
+            posiciones.put(id, filas.size());
+            filas.add(registro);
+        }
+        return id;
+    }
+
+    // Reemplaza el registro con el ID indicado y devuelve el anterior (null si no existía)
+    public T reemplazar(long id, T registro) {
+        Integer pos = posiciones.get(id);
+        if (pos == null) return null;
+        registro.setId(id);
+        return filas.set(pos, registro);
+    }
+
+    // Elimina el registro con el ID indicado moviendo el último a su lugar; devuelve el eliminado
+    public T quitar(long id) {
+        Integer pos = posiciones.remove(id);
+        if (pos == null) return null;
+        int ultima = filas.size() - 1;
+        T eliminado = filas.get(pos);
+        if (pos != ultima) {
+            T movido = filas.get(ultima);
+            filas.set(pos, movido);
+            posiciones.put(movido.getId(), pos);
+        }
+        filas.remove(ultima);
+        return eliminado;
+    }
+
+    // Posiciones de los registros que cumplen la condición; si se indican candidatos solo se revisan esos.
+    // Devuelve null si el hilo fue interrumpido (búsqueda cancelada por otra más reciente)
+    public int[] buscar(Predicate<T> condicion, int[] candidatos) {
+        return buscar(filas, condicion, candidatos);
+    }
+
+    // Igual que buscar, sobre una lista cualquiera (por ejemplo, una instantánea inmutable del almacén)
+    public static <T> int[] buscar(List<T> filas, Predicate<T> condicion, int[] candidatos) {
+        IntStream.Builder posiciones = IntStream.builder();
+        int total = candidatos == null ? filas.size() : candidatos.length;
+        for (int i = 0; i < total; i++) {
+            // Cada 4096 filas se comprueba si la búsqueda fue cancelada
+            if ((i & 0xFFF) == 0 && Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            int pos = candidatos == null ? i : candidatos[i];
+            if (pos < filas.size() && condicion.test(filas.get(pos))) {
+                posiciones.add(pos);
+            }
+        }
+        return posiciones.build().toArray();
+    }
+
+    // Posiciones (ordenadas) de los IDs candidatos que devuelve un índice, para verificarlos después
+    // con buscar sobre una instantánea (los que ya no existen se omiten). Devuelve null si el hilo fue interrumpido
+    public int[] posicionesDe(long[] ids) {
+        int[] posiciones = new int[ids.length];
+        int n = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if ((i & 0xFFF) == 0 && Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            Integer pos = this.posiciones.get(ids[i]);
+            if (pos != null) {
+                posiciones[n++] = pos;
+            }
+        }
+        // Se ordenan para que la tabla filtrada conserve el orden del almacén
+        int[] resultado = Arrays.copyOf(posiciones, n);
+        Arrays.sort(resultado);
+        return resultado;
+    }
+
+    // Vista de solo lectura de los registros (sin copiar)
+    public List<T> vista() {
+        return Collections.unmodifiableList(filas);
+    }
+
+    // Copia de los registros (para guardarla fuera del candado)
+    public List<T> copia() {
+        return new ArrayList<>(filas);
+    }
+}
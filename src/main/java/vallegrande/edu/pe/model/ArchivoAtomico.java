@@ -0,0 +1,228 @@
+// Paquete del modelo
+package vallegrande.edu.pe.model;
+
+
+import java.io.BufferedOutputStream;  // escritura con buffer
+import java.io.BufferedWriter;        // escritura de texto
+import java.io.FileOutputStream;      // para poder hacer fsync del archivo temporal
+import java.io.IOException;           // excepción IO
+import java.io.OutputStream;          // contenido binario
+import java.io.OutputStreamWriter;    // texto -> bytes UTF-8
+import java.nio.ByteBuffer;           // lectura al verificar
+import java.nio.channels.FileChannel; // lectura y fsync de la carpeta
+import java.nio.charset.StandardCharsets; // codificación
+import java.nio.file.Files;           // utilidades de ficheros
+import java.nio.file.Path;            // representación de rutas
+import java.nio.file.StandardCopyOption; // reemplazo atómico
+import java.nio.file.StandardOpenOption; // modo de apertura
+import java.util.zip.CRC32;           // suma de verificación
+import java.util.zip.CheckedOutputStream; // calcula la suma mientras se escribe
+
+
+// Escritura segura de un archivo de datos completo (CSV o snapshot binario de estudiantes o de usuarios):
+// - se escribe en "archivo.tmp", se fuerza a disco (fsync) y se renombra de forma atómica sobre el original,
+//   así un corte a mitad de escritura deja intacto el archivo anterior;
+// - opcionalmente el archivo anterior se conserva como "archivo.bak";
+// - al final se agrega una línea "#crc32=xxxxxxxx" con la suma de todo lo anterior, que se verifica al cargar.
+// La línea de la suma no contiene delimitadores, por eso los lectores de CSV la descartan como fila incompleta;
+// el lector binario conoce su largo fijo y la excluye.
+public class ArchivoAtomico {
+
+    // Prefijo de la última línea con la suma de verificación
+    public static final String PREFIJO_SUMA = "#crc32=";
+
+    // Propiedad del sistema para desactivar la copia de respaldo (-Dagenda.respaldo=false)
+    public static final boolean RESPALDO_POR_DEFECTO = !"false".equalsIgnoreCase(System.getProperty("agenda.respaldo"));
+
+    // Resultado de verificar un archivo
+    public enum Verificacion {
+        VALIDO,     // la suma coincide
+        SIN_SUMA,   // archivo de una versión anterior, sin línea de suma (se acepta)
+        DANADO      // la suma no coincide: el archivo está incompleto o corrupto
+    }
+
+    // Escribe el contenido de un archivo de texto (cada línea debe terminar en salto de línea)
+    public interface Contenido {
+        void escribir(BufferedWriter writer) throws IOException;
+    }
+
+    // Escribe el contenido de un archivo binario
+    public interface ContenidoBinario {
+        void escribir(OutputStream salida) throws IOException;
+    }
+
+    // Largo de la línea final "#crc32=xxxxxxxx\n"
+    public static final int LARGO_LINEA_SUMA = PREFIJO_SUMA.length() + 8 + 1;
+
+
+    // Archivo de datos, su temporal y su respaldo
+    private final Path destino;
+    private final Path temporal;
+    private final Path respaldo;
+    private final boolean conRespaldo;
+
+    // Si el archivo actual es válido (null = todavía no se verificó); un archivo dañado no reemplaza al respaldo
+    private Boolean destinoValido;
+
+
+    public ArchivoAtomico(Path destino, boolean conRespaldo) {
+        this.destino = destino;
+        this.temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        this.respaldo = destino.resolveSibling(destino.getFileName() + ".bak");
+        this.conRespaldo = conRespaldo;
+    }
+
+
+    // Escribe el archivo de texto completo (UTF-8) de forma atómica; si falla, el archivo anterior queda como estaba
+    public void escribir(Contenido contenido) throws IOException {
+        escribirBytes(salida -> {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+            contenido.escribir(writer);
+            writer.flush();
+        });
+    }
+
+
+    // Escribe el archivo binario completo de forma atómica; si falla, el archivo anterior queda como estaba
+    public synchronized void escribirBytes(ContenidoBinario contenido) throws IOException {
+        // Asegura que la carpeta exista
+        Path carpeta = destino.toAbsolutePath().getParent();
+        if (carpeta != null && !Files.exists(carpeta)) {
+            Files.createDirectories(carpeta);
+        }
+        CRC32 suma = new CRC32();
+        try (FileOutputStream archivo = new FileOutputStream(temporal.toFile())) {
+            BufferedOutputStream salida = new BufferedOutputStream(archivo, 64 * 1024);
+            CheckedOutputStream conSuma = new CheckedOutputStream(salida, suma);
+            contenido.escribir(conSuma);
+            conSuma.flush();
+            // La línea de la suma se escribe por fuera del CheckedOutputStream (no forma parte de la suma)
+            salida.write((PREFIJO_SUMA + String.format("%08x", suma.getValue()) + "\n").getBytes(StandardCharsets.US_ASCII));
+            salida.flush();
+            // fsync: el contenido está en disco antes de renombrar
+            archivo.getChannel().force(true);
+        } catch (IOException ex) {
+            Files.deleteIfExists(temporal);
+            throw ex;
+        }
+        // El archivo anterior pasa a ser el respaldo, salvo que esté dañado (se conserva el respaldo bueno)
+        if (conRespaldo && Files.exists(destino)) {
+            if (destinoValido == null) {
+                destinoValido = verificar(destino) != Verificacion.DANADO;
+            }
+            if (destinoValido) {
+                Files.move(destino, respaldo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        destinoValido = true;
+        sincronizarCarpeta(carpeta);
+    }
+
+
+    // Elige el archivo a cargar: el actual si su suma es correcta, si no el respaldo;
+    // si los dos están dañados se devuelve el actual para recuperar lo que se pueda.
+    // Devuelve null si no existe ninguno. Los problemas se informan en consola
+    public synchronized Path archivoParaLeer() {
+        boolean existeDestino = Files.exists(destino);
+        if (existeDestino) {
+            destinoValido = verificarConAviso(destino) != Verificacion.DANADO;
+            if (destinoValido) {
+                return destino;
+            }
+        }
+        if (Files.exists(respaldo) && verificarConAviso(respaldo) != Verificacion.DANADO) {
+            System.err.println("Se carga la copia de respaldo " + respaldo);
+            return respaldo;
+        }
+        return existeDestino ? destino : null;
+    }
+
+
+    // Fecha de modificación (ms) del archivo o de su respaldo, la más reciente; -1 si no existe ninguno.
+    // Sirve para elegir entre dos formatos del mismo dato (CSV o binario) el que se guardó último
+    public long getUltimaModificacion() {
+        long ultima = -1;
+        for (Path p : new Path[]{destino, respaldo}) {
+            try {
+                if (Files.exists(p)) {
+                    ultima = Math.max(ultima, Files.getLastModifiedTime(p).toMillis());
+                }
+            } catch (IOException ignored) {
+                // Si no se puede leer la fecha, se considera que no existe
+            }
+        }
+        return ultima;
+    }
+
+
+    // Ruta del archivo de datos
+    public Path getDestino() {
+        return destino;
+    }
+
+
+    // Verifica la suma de la última línea contra el resto del archivo
+    public static Verificacion verificar(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamanio = canal.size();
+            // La línea de la suma tiene un largo fijo y va al final del archivo
+            if (tamanio < LARGO_LINEA_SUMA) {
+                return Verificacion.SIN_SUMA;
+            }
+            ByteBuffer fin = ByteBuffer.allocate(LARGO_LINEA_SUMA);
+            canal.read(fin, tamanio - LARGO_LINEA_SUMA);
+            String texto = new String(fin.array(), 0, fin.position(), StandardCharsets.ISO_8859_1);
+            if (!texto.startsWith(PREFIJO_SUMA) || !texto.endsWith("\n")) {
+                return Verificacion.SIN_SUMA;
+            }
+            long esperada;
+            try {
+                esperada = Long.parseLong(texto.substring(PREFIJO_SUMA.length()).trim(), 16);
+            } catch (NumberFormatException ex) {
+                return Verificacion.DANADO;
+            }
+            // Suma de todos los bytes anteriores a la línea de la suma
+            long limite = tamanio - LARGO_LINEA_SUMA;
+            CRC32 suma = new CRC32();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            long posicion = 0;
+            while (posicion < limite) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), limite - posicion));
+                int leidos = canal.read(buffer, posicion);
+                if (leidos < 0) break;
+                buffer.flip();
+                suma.update(buffer);
+                posicion += leidos;
+            }
+            return suma.getValue() == esperada ? Verificacion.VALIDO : Verificacion.DANADO;
+        }
+    }
+
+
+    // Verifica e informa en consola si el archivo está dañado o no se pudo leer
+    private static Verificacion verificarConAviso(Path archivo) {
+        try {
+            Verificacion v = verificar(archivo);
+            if (v == Verificacion.DANADO) {
+                System.err.println("La suma de verificación de " + archivo + " no coincide: el archivo está dañado.");
+            }
+            return v;
+        } catch (IOException ex) {
+            System.err.println("No se pudo verificar " + archivo + ": " + ex.getMessage());
+            return Verificacion.DANADO;
+        }
+    }
+
+
+    // Fuerza a disco la entrada de la carpeta para que el renombrado sobreviva a un corte de energía
+    private static void sincronizarCarpeta(Path carpeta) {
+        if (carpeta == null) return;
+        try (FileChannel canal = FileChannel.open(carpeta, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException ex) {
+            // Algunos sistemas (Windows) no permiten abrir una carpeta: el renombrado ya es atómico
+        }
+    }
+}
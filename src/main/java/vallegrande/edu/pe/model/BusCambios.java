@@ -0,0 +1,39 @@
+// Paquete donde se ubica la clase
+package vallegrande.edu.pe.model;
+
+import java.util.List;                                  // interfaz List
+import java.util.concurrent.CopyOnWriteArrayList;       // lista segura para recorrer mientras se modifica
+import java.util.function.Consumer;                     // listeners de cambios
+
+// Bus de eventos de cambio de un repositorio: los listeners se llaman en el hilo que hizo el cambio
+// (con el candado del repositorio tomado, así los eventos llegan en el mismo orden que los cambios).
+// Por eso un listener no debe volver a llamar al repositorio: las vistas pasan el evento al hilo de Swing.
+public class BusCambios {
+
+    // Listeners suscritos (se agregan y quitan poco, se recorren en cada cambio)
+    private final List<Consumer<CambioRegistro>> listeners = new CopyOnWriteArrayList<>();
+
+    public void agregar(Consumer<CambioRegistro> listener) {
+        listeners.add(listener);
+    }
+
+    public void quitar(Consumer<CambioRegistro> listener) {
+        listeners.remove(listener);
+    }
+
+    // Comprueba si hay alguien escuchando (para no crear eventos que nadie recibe)
+    public boolean hayListeners() {
+        return !listeners.isEmpty();
+    }
+
+    // Entrega el evento a todos los listeners; un listener que falla no impide avisar a los demás
+    public void publicar(CambioRegistro cambio) {
+        for (Consumer<CambioRegistro> listener : listeners) {
+            try {
+                listener.accept(cambio);
+            } catch (RuntimeException e) {
+                System.err.println("Error en un listener de cambios: " + e.getMessage());
+            }
+        }
+    }
+}
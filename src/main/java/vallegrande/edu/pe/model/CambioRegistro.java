@@ -0,0 +1,86 @@
+// Paquete donde se ubica la clase
+package vallegrande.edu.pe.model;
+
+// Evento de cambio de un repositorio: qué registro cambió, en qué posición del orden de almacenamiento
+// y la versión de los datos después del cambio. Las vistas lo aplican sin volver a leer toda la tabla.
+// Cada evento individual aumenta la versión en uno; si una vista ve un salto de versión, perdió eventos.
+public final class CambioRegistro {
+
+    public enum Tipo {
+        // Alta: el registro ocupa "posicion" y los que estaban desde ahí se corren una posición
+        INSERTADO,
+        // Edición: el registro sigue en "posicion"
+        ACTUALIZADO,
+        // Baja: si "posicionMovida" >= 0, el registro que estaba ahí (el último) pasó a "posicion";
+        // si es -1, los registros siguientes se corren una posición hacia arriba
+        ELIMINADO,
+        // Cambio de muchos registros a la vez (lotes, importaciones): hay que volver a leer todo
+        VARIOS
+    }
+
+    private final Tipo tipo;
+    private final long id;
+    private final Registro registro;
+    private final int posicion;
+    private final int posicionMovida;
+    private final long version;
+
+    private CambioRegistro(Tipo tipo, long id, Registro registro, int posicion, int posicionMovida, long version) {
+        this.tipo = tipo;
+        this.id = id;
+        this.registro = registro;
+        this.posicion = posicion;
+        this.posicionMovida = posicionMovida;
+        this.version = version;
+    }
+
+    public static CambioRegistro insertado(Registro registro, int posicion, long version) {
+        return new CambioRegistro(Tipo.INSERTADO, registro.getId(), registro, posicion, -1, version);
+    }
+
+    public static CambioRegistro actualizado(Registro registro, int posicion, long version) {
+        return new CambioRegistro(Tipo.ACTUALIZADO, registro.getId(), registro, posicion, -1, version);
+    }
+
+    public static CambioRegistro eliminado(long id, int posicion, int posicionMovida, long version) {
+        return new CambioRegistro(Tipo.ELIMINADO, id, null, posicion, posicionMovida, version);
+    }
+
+    public static CambioRegistro varios(long version) {
+        return new CambioRegistro(Tipo.VARIOS, 0, null, -1, -1, version);
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    // ID del registro que cambió (0 en VARIOS)
+    public long getId() {
+        return id;
+    }
+
+    // Registro después del cambio (solo en INSERTADO y ACTUALIZADO): sirve para saber si entra en una búsqueda
+    public Registro getRegistro() {
+        return registro;
+    }
+
+    // Posición del registro en el orden de almacenamiento (-1 en VARIOS)
+    public int getPosicion() {
+        return posicion;
+    }
+
+    // En una baja, posición de la que se movió un registro para ocupar el hueco (-1 si no se movió ninguno)
+    public int getPosicionMovida() {
+        return posicionMovida;
+    }
+
+    // Versión de los datos después del cambio
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return tipo + "(id=" + id + ", posicion=" + posicion + ", movida=" + posicionMovida + ", version=" + version + ")";
+    }
+}
@@ -0,0 +1,10 @@
+// Paquete donde se ubica el enum
+package vallegrande.edu.pe.model;
+
+// Estado de la escritura en disco de un repositorio, para mostrarlo en la vista
+public enum EstadoGuardado {
+    GUARDADO,   // todo lo que hay en memoria está en disco
+    PENDIENTE,  // hay cambios esperando a ser escritos
+    GUARDANDO,  // se está escribiendo
+    ERROR       // la última escritura falló
+}
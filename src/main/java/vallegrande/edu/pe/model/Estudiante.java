@@ -2,28 +2,45 @@
 package vallegrande.edu.pe.model;
 
 // Clase que representa el modelo Estudiante
-public class Estudiante {
+public class Estudiante implements Registro {
 
+    private long id;
     private String nombre;
     private String correo;
     private String curso;
+    // Clave de búsqueda cacheada (nombre y correo normalizados); null = hay que recalcularla
+    private String claveBusqueda;
 
     public Estudiante(String nombre, String correo, String curso) {
         this.nombre = nombre;
         this.correo = correo;
         this.curso = curso;
     }
+    public Estudiante(long id, String nombre, String correo, String curso) {
+        this(nombre, correo, curso);
+        this.id = id;
+    }
+    @Override
+    public long getId() {
+        return id;
+    }
+    @Override
+    public void setId(long id) {
+        this.id = id;
+    }
     public String getNombre() {
         return nombre;
     }
     public void setNombre(String nombre) {
         this.nombre = nombre;
+        this.claveBusqueda = null;
     }
     public String getCorreo() {
         return correo;
     }
     public void setCorreo(String correo) {
         this.correo = correo;
+        this.claveBusqueda = null;
     }
     public String getCurso() {
         return curso;
@@ -31,4 +48,13 @@ public class Estudiante {
     public void setCurso(String curso) {
         this.curso = curso;
     }
+    // Nombre y correo en minúsculas y sin tildes; se calcula una vez y se reutiliza en cada búsqueda
+    public String getClaveBusqueda() {
+        String clave = claveBusqueda;
+        if (clave == null) {
+            clave = TextoBusqueda.clave(nombre, correo);
+            claveBusqueda = clave;
+        }
+        return clave;
+    }
 }
@@ -0,0 +1,244 @@
+// Paquete del repositorio en memoria
+package vallegrande.edu.pe.model;
+
+
+import java.io.IOException;          // excepción IO
+import java.io.UncheckedIOException; // IOException dentro de una tarea
+import java.nio.ByteBuffer;          // contenido de cada trozo
+import java.nio.channels.FileChannel; // lecturas posicionales en paralelo
+import java.nio.charset.StandardCharsets; // codificación
+import java.nio.file.Path;           // representación de rutas
+import java.nio.file.StandardOpenOption; // modo de apertura (solo lectura)
+import java.util.ArrayList;          // implementación de lista
+import java.util.List;               // interfaz List
+import java.util.concurrent.ForkJoinPool; // paralelismo del pool común
+import java.util.concurrent.RecursiveTask; // tarea por trozo
+
+
+// Cargador del CSV de estudiantes para archivos grandes.
+// Divide el archivo en trozos que empiezan y terminan en un salto de línea, lee cada trozo con
+// FileChannel.read a un buffer propio y lo procesa en paralelo en el ForkJoinPool común.
+// Los resultados se devuelven en el mismo orden que el archivo.
+// No se mapea el archivo: en Windows un mapeo vivo (hasta que lo libera el GC) impide reemplazar
+// el archivo, y el primer guardado después de cargar fallaría.
+// Como ';' y '\n' son ASCII, se pueden buscar byte a byte sin decodificar el UTF-8.
+class EstudianteCsvLoader {
+
+    // Por debajo de este tamaño no vale la pena dividir el archivo (se procesa en un solo trozo)
+    private static final long TAMANIO_MINIMO_TROZO = 1L << 20;
+
+    // Trozos por hilo disponible: varios por hilo reparten mejor el trabajo si algunos terminan antes
+    private static final int TROZOS_POR_HILO = 4;
+
+    // Delimitador de campos y prefijo de la cabecera (los mismos que usa el repositorio)
+    private static final byte DEL = ';';
+    private static final byte[] MARCA = "#seq=".getBytes(StandardCharsets.US_ASCII);
+
+
+    // Resultado de la carga: estudiantes en orden de archivo y la marca de la cabecera (0 si no había)
+    static final class Resultado {
+        final List<Estudiante> estudiantes;
+        final long marca;
+
+        Resultado(List<Estudiante> estudiantes, long marca) {
+            this.estudiantes = estudiantes;
+            this.marca = marca;
+        }
+    }
+
+
+    // Lee el archivo completo; las filas sin columna de ID quedan con ID 0
+    static Resultado cargar(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamanio = canal.size();
+            List<Trozo> trozos = new ArrayList<>();
+            for (long[] limites : dividir(canal, tamanio)) {
+                trozos.add(new Trozo(canal, limites[0], limites[1]));
+            }
+            // fork() fuera de un ForkJoinPool envía la tarea al pool común
+            for (Trozo trozo : trozos) {
+                trozo.fork();
+            }
+            // Unimos los trozos en orden de archivo (join espera a que cada uno termine)
+            List<Estudiante> estudiantes = new ArrayList<>();
+            long marca = 0;
+            for (Trozo trozo : trozos) {
+                Parcial parcial = trozo.join();
+                estudiantes.addAll(parcial.estudiantes);
+                if (marca == 0) marca = parcial.marca;
+            }
+            return new Resultado(estudiantes, marca);
+        } catch (RuntimeException ex) {
+            // Las tareas envuelven los IOException al leer: se devuelven como tales
+            for (Throwable causa = ex; causa != null; causa = causa.getCause()) {
+                if (causa instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) causa).getCause();
+                }
+            }
+            throw ex;
+        }
+    }
+
+
+    // Calcula los límites [inicio, fin) de cada trozo, ajustando cada corte al salto de línea siguiente
+    private static List<long[]> dividir(FileChannel canal, long tamanio) throws IOException {
+        List<long[]> limites = new ArrayList<>();
+        int hilos = ForkJoinPool.getCommonPoolParallelism();
+        long tamanioTrozo = Math.max(TAMANIO_MINIMO_TROZO, tamanio / ((long) hilos * TROZOS_POR_HILO) + 1);
+        // Un buffer no puede superar Integer.MAX_VALUE bytes
+        tamanioTrozo = Math.min(tamanioTrozo, Integer.MAX_VALUE - 1);
+        long inicio = 0;
+        ByteBuffer lectura = ByteBuffer.allocate(8192);
+        while (inicio < tamanio) {
+            long fin = Math.min(tamanio, inicio + tamanioTrozo);
+            // Avanza el corte hasta justo después del siguiente '\n'
+            while (fin < tamanio) {
+                lectura.clear();
+                int leidos = canal.read(lectura, fin);
+                if (leidos <= 0) {
+                    fin = tamanio;
+                    break;
+                }
+                int salto = -1;
+                for (int i = 0; i < leidos && salto < 0; i++) {
+                    if (lectura.get(i) == '\n') salto = i;
+                }
+                if (salto >= 0) {
+                    fin += salto + 1;
+                    break;
+                }
+                fin += leidos;
+            }
+            limites.add(new long[]{inicio, fin});
+            inicio = fin;
+        }
+        return limites;
+    }
+
+
+    // Estudiantes de un trozo y la marca si la cabecera estaba en él
+    private static final class Parcial {
+        final List<Estudiante> estudiantes = new ArrayList<>();
+        long marca;
+    }
+
+
+    // Tarea que lee y procesa un trozo del archivo
+    private static final class Trozo extends RecursiveTask<Parcial> {
+
+        private final FileChannel canal;
+        private final long inicio;
+        private final long fin;
+
+        Trozo(FileChannel canal, long inicio, long fin) {
+            this.canal = canal;
+            this.inicio = inicio;
+            this.fin = fin;
+        }
+
+        @Override
+        protected Parcial compute() {
+            ByteBuffer datos = ByteBuffer.allocate((int) (fin - inicio));
+            try {
+                // Lectura posicional: varios trozos pueden leer del mismo canal a la vez
+                while (datos.hasRemaining()) {
+                    if (canal.read(datos, inicio + datos.position()) < 0) break;
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            datos.flip();
+            Parcial parcial = new Parcial();
+            // Buffer reutilizado para copiar cada línea antes de crear los String
+            byte[] linea = new byte[256];
+            int limite = datos.limit();
+            int posicion = 0;
+            while (posicion < limite) {
+                // Busca el final de la línea
+                int finLinea = posicion;
+                while (finLinea < limite && datos.get(finLinea) != '\n') finLinea++;
+                int largo = finLinea - posicion;
+                // Quita el '\r' de los archivos con saltos de línea de Windows
+                if (largo > 0 && datos.get(posicion + largo - 1) == '\r') largo--;
+                if (largo > linea.length) linea = new byte[Math.max(largo, linea.length * 2)];
+                datos.get(posicion, linea, 0, largo);
+                procesarLinea(linea, largo, parcial);
+                posicion = finLinea + 1;
+            }
+            return parcial;
+        }
+    }
+
+
+    // Convierte una línea en estudiante (o lee la marca si es la cabecera)
+    private static void procesarLinea(byte[] linea, int largo, Parcial parcial) {
+        // Saltar líneas vacías
+        if (esBlanco(linea, 0, largo)) return;
+        // Cabecera con la secuencia del diario incluida en el snapshot
+        if (empiezaCon(linea, largo, MARCA)) {
+            try {
+                parcial.marca = Long.parseLong(new String(linea, MARCA.length, largo - MARCA.length, StandardCharsets.US_ASCII).trim());
+            } catch (NumberFormatException ignored) {}
+            return;
+        }
+        // Posiciones de los tres primeros delimitadores
+        int d1 = indice(linea, 0, largo);
+        int d2 = d1 < 0 ? -1 : indice(linea, d1 + 1, largo);
+        // Menos de 3 partes: la línea no es válida
+        if (d2 < 0) return;
+        int d3 = indice(linea, d2 + 1, largo);
+        String nombre = new String(linea, 0, d1, StandardCharsets.UTF_8);
+        String correo = new String(linea, d1 + 1, d2 - d1 - 1, StandardCharsets.UTF_8);
+        String curso = new String(linea, d2 + 1, (d3 < 0 ? largo : d3) - d2 - 1, StandardCharsets.UTF_8);
+        long id = 0;
+        if (d3 >= 0) {
+            int finId = indice(linea, d3 + 1, largo);
+            id = parseId(linea, d3 + 1, finId < 0 ? largo : finId);
+        }
+        Estudiante e = new Estudiante(id, nombre, correo, curso);
+        // La clave de búsqueda se calcula aquí para que la normalización también sea paralela
+        e.getClaveBusqueda();
+        parcial.estudiantes.add(e);
+    }
+
+
+    // Posición del siguiente delimitador desde "desde" (-1 si no hay)
+    private static int indice(byte[] linea, int desde, int largo) {
+        for (int i = desde; i < largo; i++) {
+            if (linea[i] == DEL) return i;
+        }
+        return -1;
+    }
+
+
+    // Convierte la columna de ID sin crear un String (vacía o inválida -> 0, es decir, sin asignar)
+    private static long parseId(byte[] linea, int desde, int hasta) {
+        while (desde < hasta && linea[desde] <= ' ') desde++;
+        while (hasta > desde && linea[hasta - 1] <= ' ') hasta--;
+        if (desde == hasta || hasta - desde > 18) return 0;
+        long id = 0;
+        for (int i = desde; i < hasta; i++) {
+            int digito = linea[i] - '0';
+            if (digito < 0 || digito > 9) return 0;
+            id = id * 10 + digito;
+        }
+        return id;
+    }
+
+
+    private static boolean esBlanco(byte[] linea, int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            if (linea[i] > ' ') return false;
+        }
+        return true;
+    }
+
+
+    private static boolean empiezaCon(byte[] linea, int largo, byte[] prefijo) {
+        if (largo < prefijo.length) return false;
+        for (int i = 0; i < prefijo.length; i++) {
+            if (linea[i] != prefijo[i]) return false;
+        }
+        return true;
+    }
+}
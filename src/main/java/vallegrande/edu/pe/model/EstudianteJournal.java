@@ -0,0 +1,335 @@
+// Paquete del repositorio en memoria
+package vallegrande.edu.pe.model;
+
+
+import java.io.IOException;          // excepción IO
+import java.nio.ByteBuffer;          // bytes de cada registro
+import java.nio.channels.FileChannel; // para agregar registros al diario y forzarlos al disco
+import java.nio.charset.StandardCharsets; // codificación
+import java.nio.file.DirectoryStream; // para listar diarios rotados
+import java.nio.file.Files;          // utilidades de ficheros
+import java.nio.file.Path;           // representación de rutas
+import java.nio.file.StandardOpenOption; // modo de apertura (append)
+import java.util.ArrayList;          // implementación de lista
+import java.util.List;               // interfaz List
+import java.util.zip.CRC32;          // suma de verificación de cada registro
+
+
+// Diario (journal) de solo-agregar con los cambios de estudiantes.
+// Cada alta, edición o baja se escribe como una línea al final de "data/estudiantes.journal"
+// en lugar de reescribir todo el CSV. Cada línea lleva un número de secuencia creciente
+// y el ID estable del estudiante afectado:
+//     secuencia;operacion;id;nombre;correo;curso;crc
+// donde crc es la suma CRC32 (8 dígitos hexadecimales, como la línea "#crc32=" de ArchivoAtomico)
+// de todo lo anterior de la línea. Un registro sin salto de línea final o cuya suma no coincide
+// (escritura interrumpida por una caída) se rechaza, y al abrir el diario para agregar se recorta
+// el archivo hasta el final del último registro completo, así lo nuevo no se pega a un registro roto.
+// El CSV guarda en su primera línea ("#seq=N") la última secuencia que ya contiene,
+// así al reproducir el diario se ignoran los registros que el snapshot ya incluye.
+// Cada registro se fuerza al disco (fsync) antes de confirmar el cambio, así un cambio confirmado
+// sobrevive también a un corte de luz o una caída del sistema operativo, no solo al cierre de la JVM.
+// Los lotes (importaciones) se agregan de una vez: todos sus registros seguidos y un solo fsync.
+class EstudianteJournal {
+
+    // Códigos de operación escritos en el diario
+    static final String ALTA = "A";
+    static final String EDICION = "U";
+    static final String BAJA = "D";
+
+    // Delimitador de campos (el mismo que usa el CSV de estudiantes)
+    private static final String DEL = ";";
+
+    // Diario activo donde se agregan los cambios nuevos
+    private final Path activo;
+
+    // Canal abierto sobre el diario activo, posicionado al final (se abre al primer cambio)
+    private FileChannel canal;
+
+    // Bytes del diario activo que contienen registros completos (-1 = todavía no se leyó)
+    private long finValido = -1;
+
+    // Última secuencia asignada
+    private long secuencia;
+
+    // Cantidad de registros escritos en el diario activo (para decidir cuándo compactar)
+    private int registrosActivos;
+
+
+    // Crea el diario junto al archivo CSV indicado ("estudiantes.csv" -> "estudiantes.journal")
+    EstudianteJournal(Path csv) {
+        String nombre = csv.getFileName().toString();
+        String base = nombre.endsWith(".csv") ? nombre.substring(0, nombre.length() - 4) : nombre;
+        this.activo = csv.resolveSibling(base + ".journal");
+    }
+
+
+    // Receptor de los registros leídos al reproducir el diario
+    interface Receptor {
+        void aplicar(String operacion, long id, Estudiante estudiante);
+    }
+
+
+    // Cambio de un lote que todavía no se escribió en el diario (estudiante null en las bajas)
+    record Cambio(String operacion, long id, Estudiante estudiante) {}
+
+
+    // Bytes de registros que se juntan antes de cada escritura de un lote
+    private static final int TAMANIO_ESCRITURA = 1 << 20;
+
+
+    // Reproduce los diarios (rotados y activo) aplicando solo los registros posteriores a la marca del snapshot
+    void reproducir(long marcaSnapshot, Receptor receptor) throws IOException {
+        secuencia = marcaSnapshot;
+        registrosActivos = 0;
+        for (Path diario : diariosRotados()) {
+            // Los diarios rotados ya cubiertos por el snapshot se pueden borrar
+            if (marcaDeRotado(diario) <= marcaSnapshot) {
+                Files.deleteIfExists(diario);
+            } else {
+                leer(diario, marcaSnapshot, receptor);
+            }
+        }
+        finValido = 0;
+        if (Files.exists(activo)) {
+            registrosActivos = leer(activo, marcaSnapshot, receptor);
+        }
+    }
+
+
+    // Lee un archivo de diario y devuelve cuántos registros válidos contenía; en el diario activo
+    // deja en finValido el byte siguiente al último registro completo. Con receptor null solo se cuenta
+    private int leer(Path diario, long marcaSnapshot, Receptor receptor) throws IOException {
+        byte[] bytes = Files.readAllBytes(diario);
+        int leidos = 0;
+        int fin = 0;
+        int inicio = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != '\n') continue;
+            String line = new String(bytes, inicio, i - inicio, StandardCharsets.UTF_8);
+            inicio = i + 1;
+            if (line.endsWith("\r")) line = line.substring(0, line.length() - 1);
+            String[] parts = validar(line);
+            // Registro dañado (la suma no coincide): se rechaza
+            if (parts == null) continue;
+            leidos++;
+            fin = inicio;
+            long seq = Long.parseLong(parts[0]);
+            secuencia = Math.max(secuencia, seq);
+            if (seq <= marcaSnapshot || receptor == null) continue;
+            long id = Long.parseLong(parts[2]);
+            receptor.aplicar(parts[1], id, new Estudiante(id, parts[3], parts[4], parts[5]));
+        }
+        // Lo que sigue al último registro completo (sin salto de línea final) es una escritura interrumpida
+        if (diario.equals(activo)) {
+            finValido = fin;
+        }
+        return leidos;
+    }
+
+
+    // Campos de un registro si tiene los 7 campos, la suma coincide y los números son válidos; null si no
+    private static String[] validar(String line) {
+        int ultimo = line.lastIndexOf(DEL);
+        if (ultimo < 0 || !line.substring(ultimo + 1).equals(suma(line.substring(0, ultimo)))) {
+            return null;
+        }
+        String[] parts = line.substring(0, ultimo).split(DEL, -1);
+        if (parts.length != 6) return null;
+        try {
+            Long.parseLong(parts[0]);
+            Long.parseLong(parts[2]);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+        return parts;
+    }
+
+
+    // Suma CRC32 del texto del registro en 8 dígitos hexadecimales
+    private static String suma(String contenido) {
+        CRC32 crc = new CRC32();
+        crc.update(contenido.getBytes(StandardCharsets.UTF_8));
+        return String.format("%08x", crc.getValue());
+    }
+
+
+    // Agrega un registro al final del diario activo y lo fuerza al disco (solo los datos, force(false))
+    void registrar(String operacion, long id, Estudiante e) throws IOException {
+        abrir();
+        long seq = secuencia + 1;
+        ByteBuffer bytes = ByteBuffer.wrap(linea(seq, operacion, id, e).getBytes(StandardCharsets.UTF_8));
+        try {
+            while (bytes.hasRemaining()) {
+                canal.write(bytes);
+            }
+            canal.force(false);
+        } catch (IOException ex) {
+            // El registro pudo quedar a medias: el próximo cambio vuelve a abrir el diario y lo recorta
+            close();
+            throw ex;
+        }
+        secuencia = seq;
+        finValido += bytes.limit();
+        registrosActivos++;
+    }
+
+
+    // Agrega los cambios de un lote al final del diario activo en escrituras de hasta 1 MB y los fuerza
+    // al disco una sola vez al terminar. Si algo falla se recorta el diario al inicio del lote
+    // (un lote no queda a medias) y se propaga el error
+    void registrarLote(List<Cambio> cambios) throws IOException {
+        if (cambios.isEmpty()) return;
+        abrir();
+        long inicio = finValido;
+        long seq = secuencia;
+        long escritos = 0;
+        StringBuilder texto = new StringBuilder();
+        try {
+            for (Cambio c : cambios) {
+                texto.append(linea(++seq, c.operacion(), c.id(), c.estudiante()));
+                if (texto.length() >= TAMANIO_ESCRITURA) {
+                    escritos += escribir(texto);
+                }
+            }
+            escritos += escribir(texto);
+            canal.force(false);
+        } catch (IOException ex) {
+            try {
+                canal.truncate(inicio);
+            } catch (IOException ignorada) {
+                // Al volver a abrir se busca el final del último registro completo
+            }
+            close();
+            throw ex;
+        }
+        secuencia = seq;
+        finValido = inicio + escritos;
+        registrosActivos += cambios.size();
+    }
+
+
+    // Escribe el texto acumulado en el canal y lo vacía; devuelve los bytes escritos
+    private long escribir(StringBuilder texto) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(texto.toString().getBytes(StandardCharsets.UTF_8));
+        texto.setLength(0);
+        while (bytes.hasRemaining()) {
+            canal.write(bytes);
+        }
+        return bytes.limit();
+    }
+
+
+    // Línea del registro con su suma al final
+    private static String linea(long seq, String operacion, long id, Estudiante e) {
+        String nombre = e == null ? "" : escape(e.getNombre());
+        String correo = e == null ? "" : escape(e.getCorreo());
+        String curso = e == null ? "" : escape(e.getCurso());
+        String contenido = seq + DEL + operacion + DEL + id + DEL + nombre + DEL + correo + DEL + curso;
+        return contenido + DEL + suma(contenido) + "\n";
+    }
+
+
+    // Abre el diario activo al final del último registro completo, recortando una escritura interrumpida
+    private void abrir() throws IOException {
+        if (canal != null) return;
+        Path parent = activo.getParent();
+        if (parent != null && !Files.exists(parent)) {
+            Files.createDirectories(parent);
+        }
+        if (finValido < 0) {
+            // No se reprodujo o se cerró (por ejemplo, tras una escritura fallida): se busca el final del último registro completo
+            finValido = 0;
+            if (Files.exists(activo)) {
+                leer(activo, Long.MAX_VALUE, null);
+            }
+        }
+        canal = FileChannel.open(activo, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (canal.size() > finValido) {
+            canal.truncate(finValido);
+            canal.force(false);
+        }
+        canal.position(finValido);
+    }
+
+
+    // Cierra el diario activo y lo renombra con la secuencia que cubre ("estudiantes.journal.N"),
+    // de modo que los cambios siguientes empiecen en un diario nuevo mientras se compacta
+    void rotar() throws IOException {
+        close();
+        if (Files.exists(activo)) {
+            Files.move(activo, activo.resolveSibling(activo.getFileName() + "." + secuencia));
+        }
+        registrosActivos = 0;
+        finValido = 0;
+    }
+
+
+    // Borra los diarios rotados cuyo contenido ya quedó incluido en un snapshot con la marca indicada
+    void descartarHasta(long marcaSnapshot) throws IOException {
+        for (Path diario : diariosRotados()) {
+            if (marcaDeRotado(diario) <= marcaSnapshot) {
+                Files.deleteIfExists(diario);
+            }
+        }
+    }
+
+
+    // Última secuencia escrita o reproducida
+    long getSecuencia() {
+        return secuencia;
+    }
+
+
+    // Registros escritos en el diario activo desde la última rotación
+    int getRegistrosActivos() {
+        return registrosActivos;
+    }
+
+
+    // Cierra el canal del diario activo si estaba abierto (al volver a abrirlo se busca de nuevo su final)
+    void close() throws IOException {
+        if (canal != null) {
+            FileChannel cerrar = canal;
+            canal = null;
+            finValido = -1;
+            cerrar.close();
+        }
+    }
+
+
+    // Lista los diarios rotados ordenados por la secuencia que cubren
+    private List<Path> diariosRotados() throws IOException {
+        List<Path> rotados = new ArrayList<>();
+        Path dir = activo.toAbsolutePath().getParent();
+        if (dir == null || !Files.isDirectory(dir)) {
+            return rotados;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, activo.getFileName() + ".*")) {
+            for (Path p : stream) {
+                if (marcaDeRotado(p) >= 0) rotados.add(p);
+            }
+        }
+        rotados.sort((a, b) -> Long.compare(marcaDeRotado(a), marcaDeRotado(b)));
+        return rotados;
+    }
+
+
+    // Extrae la secuencia del nombre de un diario rotado (-1 si el nombre no corresponde)
+    private long marcaDeRotado(Path diario) {
+        String nombre = diario.getFileName().toString();
+        String prefijo = activo.getFileName() + ".";
+        if (!nombre.startsWith(prefijo)) return -1;
+        try {
+            return Long.parseLong(nombre.substring(prefijo.length()));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+
+    // Reemplaza saltos de línea y el delimitador para que cada registro ocupe una sola línea
+    private static String escape(String s) {
+        if (s == null) return "";
+        return s.replace("\n", " ").replace("\r", " ").replace(DEL, ",");
+    }
+}
@@ -0,0 +1,12 @@
+// Paquete donde se ubica la interfaz
+package vallegrande.edu.pe.model;
+
+// Contrato de los registros que tienen un identificador estable (no depende de su posición en la tabla)
+public interface Identificable {
+
+    // Identificador del registro (0 mientras no se haya asignado)
+    long getId();
+
+    // Asigna el identificador (lo hace el almacén al agregar el registro)
+    void setId(long id);
+}
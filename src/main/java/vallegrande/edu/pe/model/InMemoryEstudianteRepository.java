@@ -2,23 +2,25 @@
 package vallegrande.edu.pe.model;
 
 
-import java.io.BufferedReader;       // para leer archivo
-import java.io.BufferedWriter;       // para escribir archivo
+import vallegrande.edu.pe.metricas.Contador;   // métricas de carga, guardado y diario
+import vallegrande.edu.pe.metricas.Histograma;
+import vallegrande.edu.pe.metricas.Metricas;
+
 import java.io.IOException;          // excepción IO
-import java.nio.charset.StandardCharsets; // codificación
-import java.nio.file.Files;          // utilidades de ficheros
+import java.nio.file.Files;          // tamaño de los snapshots escritos
 import java.nio.file.Path;           // representación de rutas
 import java.nio.file.Paths;          // creación de rutas
 import java.util.ArrayList;          // implementación de lista
+import java.util.Collection;         // lotes
 import java.util.List;               // interfaz List
+import java.util.concurrent.ExecutorService; // hilo de compactación
+import java.util.concurrent.Executors;       // fábrica de ejecutores
+import java.util.concurrent.TimeUnit;        // espera de la compactación al cerrar
 
 
-// Repositorio que guarda estudiantes en memoria y persiste en CSV sencillo
-public class InMemoryEstudianteRepository {
-
-
-    // Lista que contiene los estudiantes en memoria
-    private final List<Estudiante> estudiantes = new ArrayList<>();
+// Motor de estudiantes en memoria con persistencia en disco: snapshot completo (CSV sencillo o binario)
+// + diario de cambios de solo-agregar que se compacta en segundo plano
+public class InMemoryEstudianteRepository extends InMemoryRepository<Estudiante> {
 
 
     // Ruta al archivo donde se guardarán los datos (carpeta "data/estudiantes.csv")
@@ -29,111 +31,444 @@ public class InMemoryEstudianteRepository {
     private static final String DEL = ";";
 
 
-    // Constructor: inicializa la lista y carga datos desde disco si existen
+    // Prefijo de la línea de cabecera del CSV con la última secuencia del diario incluida
+    private static final String MARCA = "#seq=";
+
+
+    // Métricas: tiempo de carga (snapshot + diario) y estudiantes cargados; tiempo, bytes y errores
+    // de cada snapshot escrito; tiempo de cada cambio registrado en el diario (incluye el fsync)
+    private static final Histograma TIEMPO_CARGAR = Metricas.tiempo("estudiantes.cargar");
+    private static final Contador FILAS_CARGADAS = Metricas.contador("estudiantes.cargar.filas");
+    private static final Histograma TIEMPO_GUARDAR = Metricas.tiempo("estudiantes.guardar");
+    private static final Contador BYTES_ESCRITOS = Metricas.contador("estudiantes.guardar.bytes");
+    private static final Contador ERRORES_GUARDAR = Metricas.contador("estudiantes.guardar.errores");
+    private static final Histograma TIEMPO_DIARIO = Metricas.tiempo("estudiantes.diario");
+    private static final Contador ERRORES_DIARIO = Metricas.contador("estudiantes.diario.errores");
+
+
+    // Cantidad de cambios en el diario a partir de la cual se compacta en un snapshot nuevo
+    private static final int UMBRAL_COMPACTACION = 1000;
+
+
+    // Escritura atómica del CSV con suma de verificación y respaldo ("data/estudiantes.csv.bak")
+    private final ArchivoAtomico archivo = new ArchivoAtomico(filePath, ArchivoAtomico.RESPALDO_POR_DEFECTO);
+
+
+    // Snapshot binario ("data/estudiantes.bin"), alternativa al CSV
+    private final ArchivoAtomico archivoBinario = new ArchivoAtomico(Paths.get("data", "estudiantes.bin"), ArchivoAtomico.RESPALDO_POR_DEFECTO);
+
+
+    // Último error al guardar (null si el último snapshot se escribió bien), para mostrarlo en la vista
+    private volatile String errorGuardado;
+
+
+    // Diario de cambios junto al CSV ("data/estudiantes.journal")
+    private final EstudianteJournal journal = new EstudianteJournal(filePath);
+
+
+    // Hilo en segundo plano que escribe los snapshots compactados
+    private final ExecutorService compactador = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "estudiantes-compactacion");
+        t.setDaemon(true);
+        return t;
+    });
+
+
+    // Indica si hay una compactación en curso (solo se permite una a la vez)
+    private boolean compactando;
+
+
+    // Candado para serializar la escritura de snapshots y la marca del último escrito
+    private final Object snapshotLock = new Object();
+    private long marcaEscrita;
+
+
+    // Cambios del lote (importación) que se está aplicando, o null fuera de un lote:
+    // se escriben juntos en el diario al terminar, con un solo fsync
+    private List<EstudianteJournal.Cambio> lote;
+
+
+    // Formato de los snapshots que se escriben (al cargar se usa el guardado más recientemente)
+    private final boolean binario;
+
+
+    // Constructor: snapshots en CSV
     public InMemoryEstudianteRepository() {
+        this(false);
+    }
+
+
+    // Constructor: carga datos desde disco si existen; "binario" elige el formato de los snapshots nuevos
+    public InMemoryEstudianteRepository(boolean binario) {
+        this(binario, true);
+    }
+
+
+    // Constructor: carga datos desde disco; "sembrar" agrega y guarda los ejemplos si no había datos
+    private InMemoryEstudianteRepository(boolean binario, boolean sembrar) {
+        this.binario = binario;
         // Carga desde archivo al crear el repositorio
         loadFromFile();
         // Si por alguna razón la lista está vacía, agregamos ejemplos iniciales
-        if (estudiantes.isEmpty()) {
-            estudiantes.add(new Estudiante("Juan", "juan@correo.com", "Programación"));
-            estudiantes.add(new Estudiante("Ana", "ana@correo.com", "Redes"));
+        if (sembrar && count() == 0) {
+            for (Estudiante e : ejemplos()) {
+                agregarEnMemoria(e);
+            }
             // Guardamos los datos iniciales en disco
             saveToFile();
         }
     }
 
 
-    // Retorna una copia de la lista de estudiantes (para evitar modificaciones externas directas)
-    public List<Estudiante> findAll() {
-        return new ArrayList<>(estudiantes);
+    // Estudiantes de ejemplo con los que empieza un motor sin datos
+    public static List<Estudiante> ejemplos() {
+        List<Estudiante> ejemplos = new ArrayList<>();
+        ejemplos.add(new Estudiante("Juan", "juan@correo.com", "Programación"));
+        ejemplos.add(new Estudiante("Ana", "ana@correo.com", "Redes"));
+        return ejemplos;
+    }
+
+
+    // Estudiantes guardados en disco (snapshot + diario) sin agregar ejemplos ni escribir nada;
+    // lista vacía si no hay datos guardados (sirve para pasarlos a otro motor)
+    public static List<Estudiante> leerGuardados() {
+        InMemoryEstudianteRepository guardados = new InMemoryEstudianteRepository(false, false);
+        try {
+            return guardados.copia();
+        } finally {
+            guardados.close();
+        }
+    }
+
+
+    // Cada cambio se registra en el diario (se llaman con el candado del repositorio tomado)
+
+    @Override
+    protected void despuesDeAgregar(Estudiante estudiante) {
+        registrar(EstudianteJournal.ALTA, estudiante.getId(), estudiante);
+    }
+
+    @Override
+    protected void despuesDeEditar(Estudiante estudiante, Estudiante anterior) {
+        registrar(EstudianteJournal.EDICION, estudiante.getId(), estudiante);
+    }
+
+    @Override
+    protected void despuesDeEliminar(Estudiante anterior) {
+        registrar(EstudianteJournal.BAJA, anterior.getId(), null);
+    }
+
+
+    // Un lote (por ejemplo, una importación de miles de filas) no se fuerza al disco cambio por cambio:
+    // se aplica en memoria y sus cambios se agregan al diario de una vez, con un solo fsync, antes de
+    // devolver; si el diario crece demasiado se compacta en segundo plano como con cualquier cambio
+    @Override
+    public int saveAll(Collection<Estudiante> registros) {
+        candadoEscritura().lock();
+        try {
+            lote = new ArrayList<>();
+            int guardados;
+            try {
+                guardados = super.saveAll(registros);
+            } finally {
+                registrarLote();
+            }
+            return guardados;
+        } finally {
+            candadoEscritura().unlock();
+        }
+    }
+
+    @Override
+    public int deleteAll(Collection<Long> ids) {
+        candadoEscritura().lock();
+        try {
+            lote = new ArrayList<>();
+            int eliminados;
+            try {
+                eliminados = super.deleteAll(ids);
+            } finally {
+                registrarLote();
+            }
+            return eliminados;
+        } finally {
+            candadoEscritura().unlock();
+        }
+    }
+
+
+    // Espera a que termine la compactación en curso y cierra el diario (al salir de la aplicación)
+    @Override
+    public void close() {
+        compactador.shutdown();
+        try {
+            if (!compactador.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.err.println("La compactación de estudiantes no terminó a tiempo; el diario conserva los cambios");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        candadoEscritura().lock();
+        try {
+            journal.close();
+        } catch (IOException ex) {
+            System.err.println("Error cerrando el diario de estudiantes: " + ex.getMessage());
+        } finally {
+            candadoEscritura().unlock();
+        }
     }
 
 
-    // Agrega un estudiante a la lista
-    public void add(Estudiante estudiante) {
-        estudiantes.add(estudiante);
+    // Último error al guardar los cambios (null si no hubo)
+    @Override
+    public String getErrorGuardado() {
+        return errorGuardado;
     }
 
 
-    // Actualiza un estudiante en la posición indicada
-    public void update(int index, Estudiante estudiante) {
-        if (index >= 0 && index < estudiantes.size()) {
-            estudiantes.set(index, estudiante);
+    // Guarda la lista completa de estudiantes en el CSV y descarta el diario ya incluido;
+    // devuelve false si no se pudo escribir (el diario se conserva y los cambios no se pierden)
+    public boolean saveToFile() {
+        Pendiente pendiente;
+        // La copia es una instantánea inmutable: el archivo se escribe sin bloquear las ediciones
+        candadoEscritura().lock();
+        try {
+            pendiente = pendiente();
+        } finally {
+            candadoEscritura().unlock();
         }
+        return escribirSnapshot(pendiente.copia(), pendiente.marca());
     }
 
 
-    // Elimina un estudiante por índice
-    public void remove(int index) {
-        if (index >= 0 && index < estudiantes.size()) {
-            estudiantes.remove(index);
+    // Snapshot por escribir: instantánea de los estudiantes y última secuencia del diario incluida
+    private record Pendiente(List<Estudiante> copia, long marca) {}
+
+
+    // Toma la instantánea y la marca y rota el diario (se llama con el candado de escritura tomado)
+    private Pendiente pendiente() {
+        Pendiente pendiente = new Pendiente(copia(), journal.getSecuencia());
+        try {
+            journal.rotar();
+        } catch (IOException ex) {
+            System.err.println("Error rotando el diario de estudiantes: " + ex.getMessage());
+        }
+        return pendiente;
+    }
+
+
+    // Agrega un cambio al diario (o al lote en curso); si el diario creció demasiado programa una compactación
+    private void registrar(String operacion, long id, Estudiante estudiante) {
+        if (lote != null) {
+            lote.add(new EstudianteJournal.Cambio(operacion, id, estudiante));
+            return;
+        }
+        long inicio = System.nanoTime();
+        try {
+            journal.registrar(operacion, id, estudiante);
+            TIEMPO_DIARIO.registrarDesde(inicio);
+        } catch (IOException ex) {
+            ERRORES_DIARIO.incrementar();
+            System.err.println("Error escribiendo el diario de estudiantes: " + ex.getMessage());
+            errorGuardado = "No se pudo registrar el cambio: " + ex.getMessage();
+            return;
+        }
+        if (!compactando && journal.getRegistrosActivos() >= UMBRAL_COMPACTACION) {
+            compactar();
+        }
+    }
+
+
+    // Escribe en el diario los cambios del lote que termina (se llama con el candado de escritura tomado).
+    // Si el diario falla, los cambios solo están en memoria: se intenta guardarlos con un snapshot
+    // en este momento y, si tampoco se puede, el error queda en getErrorGuardado para la vista
+    private void registrarLote() {
+        List<EstudianteJournal.Cambio> cambios = lote;
+        lote = null;
+        if (cambios.isEmpty()) return;
+        long inicio = System.nanoTime();
+        try {
+            journal.registrarLote(cambios);
+            TIEMPO_DIARIO.registrarDesde(inicio);
+        } catch (IOException ex) {
+            ERRORES_DIARIO.incrementar();
+            System.err.println("Error escribiendo el lote en el diario de estudiantes: " + ex.getMessage());
+            errorGuardado = "No se pudo registrar el lote: " + ex.getMessage();
+            Pendiente pendiente = pendiente();
+            escribirSnapshot(pendiente.copia(), pendiente.marca());
+            return;
+        }
+        if (!compactando && journal.getRegistrosActivos() >= UMBRAL_COMPACTACION) {
+            compactar();
         }
     }
 
 
-    // Guarda la lista de estudiantes en un archivo CSV simple
-    public void saveToFile() {
+    // Rota el diario y escribe en segundo plano un snapshot con el estado actual
+    // (se llama con el candado de escritura tomado, así la copia y la marca son consistentes)
+    private void compactar() {
+        // Ya cerrado: los cambios quedan en el diario y se compactan en la próxima apertura
+        if (compactador.isShutdown()) return;
+        List<Estudiante> copia = copia();
+        long marca = journal.getSecuencia();
         try {
-            // Asegura que la carpeta exista
-            Path parent = filePath.getParent();
-            if (parent != null && !Files.exists(parent)) {
-                Files.createDirectories(parent);
+            journal.rotar();
+        } catch (IOException ex) {
+            System.err.println("Error rotando el diario de estudiantes: " + ex.getMessage());
+            return;
+        }
+        compactando = true;
+        compactador.execute(() -> {
+            try {
+                escribirSnapshot(copia, marca);
+            } finally {
+                candadoEscritura().lock();
+                try {
+                    compactando = false;
+                } finally {
+                    candadoEscritura().unlock();
+                }
             }
-            // Escribe el archivo usando un BufferedWriter
-            try (BufferedWriter writer = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8)) {
-                // Itera cada estudiante y escribe una línea: nombre;correo;curso
-                for (Estudiante e : estudiantes) {
-                    String line = escape(e.getNombre()) + DEL + escape(e.getCorreo()) + DEL + escape(e.getCurso());
-                    writer.write(line);
-                    writer.newLine();
+        });
+    }
+
+
+    // Escribe un snapshot (CSV o binario) con la marca indicada (temporal + fsync + renombrado atómico);
+    // después borra los diarios rotados que ya no hacen falta
+    private boolean escribirSnapshot(List<Estudiante> copia, long marca) {
+        long descartable;
+        synchronized (snapshotLock) {
+            // Nunca reemplazar un snapshot por otro más antiguo
+            if (marca < marcaEscrita) {
+                return true;
+            }
+            ArchivoAtomico destino = binario ? archivoBinario : archivo;
+            long inicio = System.nanoTime();
+            try {
+                if (binario) {
+                    SnapshotBinario.escribir(archivoBinario, SnapshotBinario.ESTUDIANTES, marca, copia);
+                } else {
+                    escribirCsv(copia, marca);
                 }
+                TIEMPO_GUARDAR.registrarDesde(inicio);
+                BYTES_ESCRITOS.sumar(Files.size(destino.getDestino()));
+            } catch (IOException ex) {
+                ERRORES_GUARDAR.incrementar();
+                // El diario rotado se conserva con los cambios registrados y se reintenta en el próximo guardado;
+                // lo que no llegó al diario (ver registrarLote) queda solo en memoria y el error lo avisa
+                System.err.println("Error guardando estudiantes: " + ex.getMessage());
+                errorGuardado = "No se pudo guardar " + destino.getDestino() + ": " + ex.getMessage();
+                return false;
             }
+            // Con respaldo se conservan los diarios posteriores a él, para poder reconstruir
+            // el estado actual desde el respaldo si el snapshot nuevo resultara dañado
+            descartable = ArchivoAtomico.RESPALDO_POR_DEFECTO ? marcaEscrita : marca;
+            marcaEscrita = marca;
+            errorGuardado = null;
+        }
+        candadoEscritura().lock();
+        try {
+            journal.descartarHasta(descartable);
         } catch (IOException ex) {
-            // Si hay error, lo imprimimos en consola (para depuración)
-            System.err.println("Error guardando estudiantes: " + ex.getMessage());
+            System.err.println("Error descartando el diario de estudiantes: " + ex.getMessage());
+        } finally {
+            candadoEscritura().unlock();
         }
+        return true;
     }
 
 
-    // Carga los estudiantes desde el archivo CSV, si existe
+    // Escribe el snapshot en CSV: cabecera con la marca y una línea nombre;correo;curso;id por estudiante
+    private void escribirCsv(List<Estudiante> copia, long marca) throws IOException {
+        archivo.escribir(writer -> {
+            // Cabecera con la última secuencia del diario incluida en este snapshot
+            writer.write(MARCA + marca);
+            writer.newLine();
+            // Itera cada estudiante y escribe una línea: nombre;correo;curso;id
+            for (Estudiante e : copia) {
+                String line = escape(e.getNombre()) + DEL + escape(e.getCorreo()) + DEL + escape(e.getCurso()) + DEL + e.getId();
+                writer.write(line);
+                writer.newLine();
+            }
+        });
+    }
+
+
+    // Carga los estudiantes desde el snapshot (CSV o binario), si existe, y reproduce el diario de cambios
     private void loadFromFile() {
-        // Si el archivo no existe, no hacemos nada
-        if (!Files.exists(filePath)) {
-            return;
-        }
-        // Intentamos leer el archivo
-        try (BufferedReader reader = Files.newBufferedReader(filePath, StandardCharsets.UTF_8)) {
-            String line; // variable para cada línea
-            while ((line = reader.readLine()) != null) {
-                // Saltar líneas vacías
-                if (line.trim().isEmpty()) continue;
-                // Partimos la línea por el delimitador
-                String[] parts = line.split(DEL, -1);
-                // Si la línea tiene al menos 3 partes, creamos el estudiante
-                if (parts.length >= 3) {
-                    String nombre = unescape(parts[0]);
-                    String correo = unescape(parts[1]);
-                    String curso = unescape(parts[2]);
-                    estudiantes.add(new Estudiante(nombre, correo, curso));
+        long inicio = System.nanoTime();
+        long marca = 0;
+        // Filas de archivos antiguos sin columna de ID: reciben uno al terminar la lectura
+        List<Estudiante> sinId = new ArrayList<>();
+        // Se carga el formato guardado más recientemente (el otro puede haber quedado desactualizado)
+        boolean leerBinario = archivoBinario.getUltimaModificacion() > archivo.getUltimaModificacion();
+        // Archivo con la suma de verificación correcta (o el respaldo); si no hay ninguno, solo queda el diario
+        Path origen = (leerBinario ? archivoBinario : archivo).archivoParaLeer();
+        if (origen != null) {
+            try {
+                List<Estudiante> leidos;
+                if (leerBinario) {
+                    // El binario se lee de una vez, sin separar líneas ni campos
+                    SnapshotBinario.Leido<Estudiante> leido = SnapshotBinario.leer(origen, SnapshotBinario.ESTUDIANTES);
+                    marca = leido.getMarca();
+                    leidos = leido.getRegistros();
+                } else {
+                    // El CSV se lee por trozos en paralelo; los estudiantes llegan en orden de archivo
+                    EstudianteCsvLoader.Resultado leido = EstudianteCsvLoader.cargar(origen);
+                    marca = leido.marca;
+                    leidos = leido.estudiantes;
                 }
+                for (Estudiante e : leidos) {
+                    if (e.getId() > 0) {
+                        agregarEnMemoria(e);
+                    } else {
+                        sinId.add(e);
+                    }
+                }
+            } catch (IOException ex) {
+                // En caso de error lo informamos en consola
+                System.err.println("Error cargando estudiantes: " + ex.getMessage());
             }
+        }
+        // Los IDs se generan después de conocer el mayor ID del archivo (orden de archivo, determinista)
+        for (Estudiante e : sinId) {
+            agregarEnMemoria(e);
+        }
+        marcaEscrita = marca;
+        // Aplicamos los cambios del diario posteriores al snapshot
+        try {
+            journal.reproducir(marca, this::aplicar);
         } catch (IOException ex) {
-            // En caso de error lo informamos en consola
-            System.err.println("Error cargando estudiantes: " + ex.getMessage());
+            System.err.println("Error reproduciendo el diario de estudiantes: " + ex.getMessage());
         }
+        TIEMPO_CARGAR.registrarDesde(inicio);
+        FILAS_CARGADAS.sumar(count());
     }
 
 
-    // Escapa secuencias simples (reemplaza saltos de línea por espacio para la exportación)
-    private String escape(String s) {
-        if (s == null) return "";
-        return s.replace("\n", " ").replace("\r", " ");
+    // Aplica un registro del diario sobre la lista en memoria (sin volver a registrarlo)
+    private void aplicar(String operacion, long id, Estudiante estudiante) {
+        switch (operacion) {
+            case EstudianteJournal.ALTA:
+                estudiante.setId(id);
+                agregarEnMemoria(estudiante);
+                break;
+            case EstudianteJournal.EDICION:
+                if (contiene(id)) reemplazarEnMemoria(id, estudiante);
+                break;
+            case EstudianteJournal.BAJA:
+                if (contiene(id)) quitarEnMemoria(id);
+                break;
+            default:
+                break;
+        }
     }
 
 
-    // Reversa de escape (por si requiere transformaciones futuras)
-    private String unescape(String s) {
-        return s == null ? "" : s;
+    // Escapa secuencias simples: saltos de línea por espacio y el delimitador por coma (como el diario),
+    // así el ID siempre queda en el cuarto campo
+    private String escape(String s) {
+        if (s == null) return "";
+        return s.replace("\n", " ").replace("\r", " ").replace(DEL, ",");
     }
 }
-
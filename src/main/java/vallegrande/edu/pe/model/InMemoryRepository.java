@@ -0,0 +1,435 @@
+// Paquete del repositorio en memoria
+package vallegrande.edu.pe.model;
+
+
+import vallegrande.edu.pe.metricas.Histograma; // métricas de búsqueda
+import vallegrande.edu.pe.metricas.Metricas;
+
+
+import java.util.ArrayList;          // páginas de registros
+import java.util.Collection;         // lotes
+import java.util.Collections;        // listas de solo lectura
+import java.util.HashMap;            // índice por correo
+import java.util.List;               // interfaz List
+import java.util.Locale;             // normalización de correos
+import java.util.Map;                // interfaz Map
+import java.util.concurrent.locks.Lock;                   // candados de lectura y escritura
+import java.util.concurrent.locks.ReentrantReadWriteLock; // muchas lecturas, una escritura
+import java.util.function.Consumer;  // listeners de cambios
+import java.util.function.Predicate; // condición de búsqueda
+
+
+// Motor de almacenamiento en memoria: base de todos los repositorios.
+// Mantiene sincronizados el almacén por ID, el índice por correo y el índice de trigramas.
+// Por sí solo no guarda nada en disco; los motores con persistencia extienden esta clase
+// y registran cada cambio en los métodos despuesDe... (que se llaman con el candado de escritura tomado).
+//
+// Concurrencia: un candado de lectura/escritura deja que la tabla, las búsquedas y los guardados lean
+// a la vez y solo las altas, ediciones y bajas esperan su turno. Los recorridos completos (búsquedas
+// cortas, guardados, exportaciones) usan una instantánea inmutable, así no retienen el candado y
+// corren en paralelo con las ediciones.
+public class InMemoryRepository<T extends Registro> implements Repository<T, Long> {
+
+
+    // Métricas de todas las búsquedas en memoria: tiempo y registros revisados (candidatos o todos)
+    private static final Histograma TIEMPO_BUSQUEDA = Metricas.tiempo("busqueda");
+    private static final Histograma FILAS_REVISADAS = Metricas.histograma("busqueda.filas", "filas");
+
+
+    // Almacén que contiene los registros en memoria, indexado por ID
+    private final AlmacenPorId<T> registros = new AlmacenPorId<>();
+
+
+    // Versión de los datos: aumenta con cada alta, edición o baja (invalida posiciones de búsquedas previas).
+    // Solo cambia con el candado de escritura; se lee sin candado
+    private volatile long version;
+
+
+    // Índice correo normalizado -> registro, para comprobar duplicados en O(1)
+    private final Map<String, T> porCorreo = new HashMap<>();
+
+
+    // Índice de trigramas sobre nombre y correo, para búsquedas "contiene" sin recorrer todo
+    private final IndiceTrigramas trigramas = new IndiceTrigramas();
+
+
+    // Listeners de cambios (las vistas abiertas) y marca de lote: dentro de saveAll/deleteAll
+    // no se avisa cada registro, sino un único cambio VARIOS al terminar
+    private final BusCambios cambios = new BusCambios();
+    private boolean enLote;
+
+
+    // Candado de lectura/escritura de todo el estado anterior
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+    private final Lock lectura = candado.readLock();
+    private final Lock escritura = candado.writeLock();
+
+
+    // Última instantánea creada (null si hubo cambios desde entonces): la comparten todos los lectores de esa versión
+    private volatile Instantanea<T> instantanea;
+
+
+    @Override
+    public T findById(Long id) {
+        if (id == null) return null;
+        lectura.lock();
+        try {
+            return registros.get(id);
+        } finally {
+            lectura.unlock();
+        }
+    }
+
+
+    @Override
+    public T findByCorreo(String correo) {
+        lectura.lock();
+        try {
+            return porCorreo.get(claveCorreo(correo));
+        } finally {
+            lectura.unlock();
+        }
+    }
+
+
+    // Comprueba si existe un registro con el correo indicado (sin distinguir mayúsculas)
+    public boolean existeCorreo(String correo) {
+        lectura.lock();
+        try {
+            return porCorreo.containsKey(claveCorreo(correo));
+        } finally {
+            lectura.unlock();
+        }
+    }
+
+
+    @Override
+    public int count() {
+        lectura.lock();
+        try {
+            return registros.size();
+        } finally {
+            lectura.unlock();
+        }
+    }
+
+
+    @Override
+    public T findAt(int posicion) {
+        lectura.lock();
+        try {
+            return registros.getEn(posicion);
+        } finally {
+            lectura.unlock();
+        }
+    }
+
+
+    @Override
+    public List<T> findAll(int offset, int limit) {
+        lectura.lock();
+        try {
+            int desde = Math.max(0, Math.min(offset, registros.size()));
+            int hasta = (int) Math.min(registros.size(), (long) desde + Math.max(0, limit));
+            return new ArrayList<>(registros.vista().subList(desde, hasta));
+        } finally {
+            lectura.unlock();
+        }
+    }
+
+
+    // Instantánea inmutable de todos los registros: se copia una vez por versión y la reusan
+    // todos los lectores hasta el próximo cambio
+    @Override
+    public Instantanea<T> instantanea() {
+        Instantanea<T> actual = instantanea;
+        if (actual != null) {
+            return actual;
+        }
+        lectura.lock();
+        try {
+            // Se publica con el candado tomado: un cambio posterior la descarta al entrar a escribir
+            actual = new Instantanea<>(Collections.unmodifiableList(registros.copia()), version);
+            instantanea = actual;
+            return actual;
+        } finally {
+            lectura.unlock();
+        }
+    }
+
+
+    // Busca los registros cuyo nombre o correo contienen el texto.
+    // Si "anterior" corresponde a la versión actual, solo se revisan sus posiciones (búsqueda que se estrecha);
+    // si no, con 3 o más caracteres se usa el índice de trigramas y con menos se recorre todo.
+    // Los recorridos se hacen sobre una instantánea, sin retener el candado
+    @Override
+    public ResultadoBusqueda query(String texto, ResultadoBusqueda anterior) {
+        long inicio = System.nanoTime();
+        Predicate<T> coincide = r -> r.getClaveBusqueda().contains(texto);
+        int[] posiciones = null;
+        long versionResultado = -1;
+        int revisadas = -1;
+        if (anterior != null && anterior.getVersion() == version) {
+            Instantanea<T> datos = instantanea();
+            if (datos.getVersion() == anterior.getVersion()) {
+                revisadas = anterior.getPosiciones().length;
+                posiciones = AlmacenPorId.buscar(datos.getRegistros(), coincide, anterior.getPosiciones());
+                versionResultado = datos.getVersion();
+            }
+        }
+        if (revisadas < 0) {
+            // Con el candado de lectura solo se consulta el índice, se pasan los IDs a posiciones y se toma
+            // la instantánea de esa misma versión; los candidatos se verifican después, sin el candado
+            int[] candidatos = null;
+            Instantanea<T> datos = null;
+            lectura.lock();
+            try {
+                long[] ids = trigramas.candidatos(texto);
+                if (ids != null) {
+                    candidatos = registros.posicionesDe(ids);
+                    datos = instantanea();
+                }
+            } finally {
+                lectura.unlock();
+            }
+            if (datos != null) {
+                revisadas = candidatos == null ? 0 : candidatos.length;
+                posiciones = candidatos == null ? null : AlmacenPorId.buscar(datos.getRegistros(), coincide, candidatos);
+                versionResultado = datos.getVersion();
+            }
+        }
+        if (revisadas < 0) {
+            Instantanea<T> datos = instantanea();
+            revisadas = datos.getRegistros().size();
+            posiciones = AlmacenPorId.buscar(datos.getRegistros(), coincide, null);
+            versionResultado = datos.getVersion();
+        }
+        // null = búsqueda interrumpida (no se mide)
+        if (posiciones == null) {
+            return null;
+        }
+        TIEMPO_BUSQUEDA.registrarDesde(inicio);
+        FILAS_REVISADAS.registrar(revisadas);
+        return new ResultadoBusqueda(posiciones, versionResultado);
+    }
+
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+
+    @Override
+    public boolean save(T registro) {
+        escritura.lock();
+        try {
+            long id = registro.getId();
+            T existente = porCorreo.get(claveCorreo(registro.getCorreo()));
+            if (id <= 0) {
+                // Alta: el correo no puede estar en uso; el almacén le asigna un ID nuevo
+                if (existente != null) {
+                    return false;
+                }
+                agregarEnMemoria(registro);
+                despuesDeAgregar(registro);
+                avisar(CambioRegistro.insertado(registro, registros.size() - 1, version));
+            } else {
+                // Edición: el ID debe existir y el correo no puede pertenecer a otro registro
+                if (!registros.contiene(id) || (existente != null && existente.getId() != id)) {
+                    return false;
+                }
+                T anterior = reemplazarEnMemoria(id, registro);
+                despuesDeEditar(registro, anterior);
+                avisar(CambioRegistro.actualizado(registro, registros.posicionDe(id), version));
+            }
+            return true;
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+
+    @Override
+    public boolean delete(Long id) {
+        escritura.lock();
+        try {
+            if (id == null || !registros.contiene(id)) {
+                return false;
+            }
+            // Al quitar, el último registro ocupa el hueco (si no era el mismo)
+            int posicion = registros.posicionDe(id);
+            int ultima = registros.size() - 1;
+            T anterior = quitarEnMemoria(id);
+            despuesDeEliminar(anterior);
+            avisar(CambioRegistro.eliminado(id, posicion, posicion == ultima ? -1 : ultima, version));
+            return true;
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+
+    @Override
+    public int saveAll(Collection<T> lote) {
+        escritura.lock();
+        try {
+            int guardados = 0;
+            enLote = true;
+            try {
+                for (T registro : lote) {
+                    if (save(registro)) guardados++;
+                }
+            } finally {
+                enLote = false;
+            }
+            if (guardados > 0) avisar(CambioRegistro.varios(version));
+            return guardados;
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+
+    @Override
+    public int deleteAll(Collection<Long> ids) {
+        escritura.lock();
+        try {
+            int eliminados = 0;
+            enLote = true;
+            try {
+                for (Long id : ids) {
+                    if (delete(id)) eliminados++;
+                }
+            } finally {
+                enLote = false;
+            }
+            if (eliminados > 0) avisar(CambioRegistro.varios(version));
+            return eliminados;
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+
+    @Override
+    public void addCambioListener(Consumer<CambioRegistro> listener) {
+        cambios.agregar(listener);
+    }
+
+
+    @Override
+    public void removeCambioListener(Consumer<CambioRegistro> listener) {
+        cambios.quitar(listener);
+    }
+
+
+    // Avisa un cambio a los listeners (fuera de un lote); se llama con el candado de escritura tomado
+    private void avisar(CambioRegistro cambio) {
+        if (!enLote) {
+            cambios.publicar(cambio);
+        }
+    }
+
+
+    // Ganchos para los motores con persistencia (se llaman con el candado de escritura tomado)
+
+    protected void despuesDeAgregar(T registro) {
+    }
+
+    protected void despuesDeEditar(T registro, T anterior) {
+    }
+
+    protected void despuesDeEliminar(T anterior) {
+    }
+
+
+    // Candado de escritura, para que los motores agrupen varias operaciones (un lote y su guardado,
+    // o copiar los datos y rotar el diario) sin que otro hilo escriba en medio. Es reentrante
+    protected final Lock candadoEscritura() {
+        return escritura;
+    }
+
+
+    // Todos los registros en orden de almacenamiento (para escribir snapshots): lista inmutable,
+    // se puede recorrer fuera del candado mientras otros hilos siguen editando
+    protected List<T> copia() {
+        return instantanea().getRegistros();
+    }
+
+
+    // Comprueba si existe un registro con el ID indicado
+    protected boolean contiene(long id) {
+        lectura.lock();
+        try {
+            return registros.contiene(id);
+        } finally {
+            lectura.unlock();
+        }
+    }
+
+
+    // Las tres operaciones siguientes mantienen el almacén, el índice por correo y los trigramas sincronizados.
+    // Los motores las usan al cargar datos (sin volver a registrar los cambios)
+
+    // Agrega un registro; si no tiene ID se le asigna uno y si el ID ya existe lo reemplaza
+    protected void agregarEnMemoria(T registro) {
+        escritura.lock();
+        try {
+            cambiar();
+            T anterior = registros.get(registro.getId());
+            if (anterior != null) {
+                porCorreo.remove(claveCorreo(anterior.getCorreo()), anterior);
+                trigramas.quitar(anterior.getId(), anterior.getClaveBusqueda());
+            }
+            registros.agregar(registro);
+            porCorreo.putIfAbsent(claveCorreo(registro.getCorreo()), registro);
+            trigramas.agregar(registro.getId(), registro.getClaveBusqueda());
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    // Reemplaza el registro con el ID indicado (que debe existir) y devuelve el anterior
+    protected T reemplazarEnMemoria(long id, T registro) {
+        escritura.lock();
+        try {
+            cambiar();
+            T anterior = registros.reemplazar(id, registro);
+            porCorreo.remove(claveCorreo(anterior.getCorreo()), anterior);
+            porCorreo.putIfAbsent(claveCorreo(registro.getCorreo()), registro);
+            trigramas.quitar(id, anterior.getClaveBusqueda());
+            trigramas.agregar(id, registro.getClaveBusqueda());
+            return anterior;
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    // Quita el registro con el ID indicado (que debe existir) y lo devuelve
+    protected T quitarEnMemoria(long id) {
+        escritura.lock();
+        try {
+            cambiar();
+            T anterior = registros.quitar(id);
+            porCorreo.remove(claveCorreo(anterior.getCorreo()), anterior);
+            trigramas.quitar(id, anterior.getClaveBusqueda());
+            return anterior;
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+
+    // Nueva versión de los datos: la instantánea anterior sigue sirviendo a quien ya la tiene, pero no se reusa
+    private void cambiar() {
+        version++;
+        instantanea = null;
+    }
+
+
+    // Clave del índice: correo sin espacios alrededor y en minúsculas
+    private static String claveCorreo(String correo) {
+        return correo == null ? "" : correo.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,169 @@
+// Paquete donde se ubica la clase
+package vallegrande.edu.pe.model;
+
+// Importa las clases necesarias para mapas y ordenamiento
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Índice invertido de trigramas sobre las claves de búsqueda (TextoBusqueda).
+// Cada trigrama (3 caracteres seguidos) apunta al conjunto de IDs cuyas claves lo contienen.
+// Una búsqueda "contiene" de 3 o más caracteres se resuelve intersecando los conjuntos de
+// los trigramas del texto, y luego se verifican los candidatos con contains() porque
+// tener todos los trigramas no garantiza que aparezcan seguidos.
+public class IndiceTrigramas {
+
+    // Trigrama (3 caracteres de 16 bits empaquetados en un long) -> IDs que lo contienen
+    private final Map<Long, ConjuntoIds> postings = new HashMap<>();
+
+    // Registra los trigramas de la clave del registro indicado
+    public void agregar(long id, String clave) {
+        for (long trigrama : trigramas(clave)) {
+            postings.computeIfAbsent(trigrama, t -> new ConjuntoIds()).agregar(id);
+        }
+    }
+
+    // Quita el registro de los conjuntos de los trigramas de su clave
+    public void quitar(long id, String clave) {
+        for (long trigrama : trigramas(clave)) {
+            ConjuntoIds ids = postings.get(trigrama);
+            if (ids != null && ids.quitar(id) && ids.size() == 0) {
+                postings.remove(trigrama);
+            }
+        }
+    }
+
+    // IDs candidatos para un texto ya normalizado, sin verificar.
+    // Devuelve null si el texto tiene menos de 3 caracteres (el índice no sirve y hay que recorrer todo)
+    public long[] candidatos(String texto) {
+        long[] trigramasTexto = trigramas(texto);
+        if (trigramasTexto.length == 0) {
+            return null;
+        }
+        // Se empieza por el conjunto más pequeño y se descarta lo que falte en los demás
+        List<ConjuntoIds> conjuntos = new ArrayList<>(trigramasTexto.length);
+        for (long trigrama : trigramasTexto) {
+            ConjuntoIds ids = postings.get(trigrama);
+            if (ids == null) {
+                return new long[0];
+            }
+            conjuntos.add(ids);
+        }
+        conjuntos.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        ConjuntoIds menor = conjuntos.get(0);
+        long[] resultado = new long[menor.size()];
+        int n = 0;
+        for (long id : menor.tabla) {
+            if (id == ConjuntoIds.VACIO) continue;
+            boolean enTodos = true;
+            for (int i = 1; i < conjuntos.size() && enTodos; i++) {
+                enTodos = conjuntos.get(i).contiene(id);
+            }
+            if (enTodos) resultado[n++] = id;
+        }
+        return n == resultado.length ? resultado : Arrays.copyOf(resultado, n);
+    }
+
+    // Trigramas distintos de un texto (se ignoran los que cruzan el separador entre campos)
+    private static long[] trigramas(String texto) {
+        int total = texto.length() - 2;
+        if (total <= 0) {
+            return new long[0];
+        }
+        long[] resultado = new long[total];
+        int n = 0;
+        for (int i = 0; i < total; i++) {
+            char a = texto.charAt(i), b = texto.charAt(i + 1), c = texto.charAt(i + 2);
+            if (a == TextoBusqueda.SEPARADOR || b == TextoBusqueda.SEPARADOR || c == TextoBusqueda.SEPARADOR) {
+                continue;
+            }
+            long trigrama = ((long) a << 32) | ((long) b << 16) | c;
+            // Las claves son cortas: una búsqueda lineal para evitar duplicados es suficiente
+            boolean repetido = false;
+            for (int j = 0; j < n && !repetido; j++) {
+                repetido = resultado[j] == trigrama;
+            }
+            if (!repetido) resultado[n++] = trigrama;
+        }
+        return n == resultado.length ? resultado : Arrays.copyOf(resultado, n);
+    }
+
+    // Conjunto de IDs (long > 0) con direccionamiento abierto: evita un objeto Long por entrada
+    private static final class ConjuntoIds {
+
+        // Los IDs válidos son positivos, 0 marca una celda libre
+        static final long VACIO = 0;
+
+        long[] tabla = new long[4];
+        int tamanio;
+
+        int size() {
+            return tamanio;
+        }
+
+        boolean contiene(long id) {
+            int mascara = tabla.length - 1;
+            for (int i = indice(id, mascara); ; i = (i + 1) & mascara) {
+                long actual = tabla[i];
+                if (actual == id) return true;
+                if (actual == VACIO) return false;
+            }
+        }
+
+        void agregar(long id) {
+            // Se mantiene la ocupación por debajo del 75%
+            if ((tamanio + 1) * 4 > tabla.length * 3) {
+                redimensionar(tabla.length * 2);
+            }
+            int mascara = tabla.length - 1;
+            for (int i = indice(id, mascara); ; i = (i + 1) & mascara) {
+                long actual = tabla[i];
+                if (actual == id) return;
+                if (actual == VACIO) {
+                    tabla[i] = id;
+                    tamanio++;
+                    return;
+                }
+            }
+        }
+
+        boolean quitar(long id) {
+            int mascara = tabla.length - 1;
+            int i = indice(id, mascara);
+            while (tabla[i] != id) {
+                if (tabla[i] == VACIO) return false;
+                i = (i + 1) & mascara;
+            }
+            // Borrado con desplazamiento hacia atrás: reacomoda los siguientes para no dejar huecos en la secuencia
+            int hueco = i;
+            for (int j = (hueco + 1) & mascara; tabla[j] != VACIO; j = (j + 1) & mascara) {
+                int ideal = indice(tabla[j], mascara);
+                // Se mueve si su posición ideal no está entre el hueco (exclusivo) y j (inclusivo)
+                boolean mover = hueco <= j ? (ideal <= hueco || ideal > j) : (ideal <= hueco && ideal > j);
+                if (mover) {
+                    tabla[hueco] = tabla[j];
+                    hueco = j;
+                }
+            }
+            tabla[hueco] = VACIO;
+            tamanio--;
+            return true;
+        }
+
+        private void redimensionar(int capacidad) {
+            long[] anterior = tabla;
+            tabla = new long[capacidad];
+            tamanio = 0;
+            for (long id : anterior) {
+                if (id != VACIO) agregar(id);
+            }
+        }
+
+        private static int indice(long id, int mascara) {
+            long h = id * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mascara;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+// Paquete donde se ubica la clase
+package vallegrande.edu.pe.model;
+
+import java.util.List; // registros de la instantánea
+
+// Vista inmutable y consistente de todos los registros de un repositorio en una versión de los datos.
+// Se puede recorrer desde cualquier hilo sin candados mientras otros hilos siguen editando:
+// los cambios posteriores crean una instantánea nueva y no tocan esta.
+// Las posiciones de una búsqueda de la misma versión son índices válidos de getRegistros().
+public final class Instantanea<T> {
+
+    private final List<T> registros;
+    private final long version;
+
+    public Instantanea(List<T> registros, long version) {
+        this.registros = registros;
+        this.version = version;
+    }
+
+    // Registros en orden de almacenamiento (lista de solo lectura)
+    public List<T> getRegistros() {
+        return registros;
+    }
+
+    // Versión de los datos que refleja
+    public long getVersion() {
+        return version;
+    }
+}
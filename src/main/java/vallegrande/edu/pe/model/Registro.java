@@ -0,0 +1,16 @@
+// Paquete donde se ubica la interfaz
+package vallegrande.edu.pe.model;
+
+// Registro con nombre y correo (Estudiante, Usuario): lo que necesitan los repositorios
+// para validar correos únicos y para la búsqueda por texto
+public interface Registro extends Identificable {
+
+    // Nombre completo
+    String getNombre();
+
+    // Correo electrónico (único dentro de cada repositorio, sin distinguir mayúsculas)
+    String getCorreo();
+
+    // Nombre y correo normalizados (sin mayúsculas ni tildes) para buscar con contains()
+    String getClaveBusqueda();
+}
@@ -0,0 +1,88 @@
+// Paquete donde se ubica la interfaz
+package vallegrande.edu.pe.model;
+
+import java.util.Collection;        // lotes de IDs
+import java.util.List;              // páginas de registros
+import java.util.function.Consumer; // listeners del estado de guardado
+
+// Repositorio genérico de registros con ID estable.
+// Los controladores solo dependen de esta interfaz, así se puede cambiar el motor de almacenamiento
+// (memoria, CSV con diario, snapshot binario...) según el tamaño de los datos sin tocar las vistas.
+// Las posiciones (findAt, query) se refieren al orden de almacenamiento del motor y solo son válidas
+// mientras no cambie getVersion().
+public interface Repository<T extends Registro, ID> {
+
+    // Registro con el ID indicado (null si no existe)
+    T findById(ID id);
+
+    // Registro con el correo indicado, sin distinguir mayúsculas (null si no existe)
+    T findByCorreo(String correo);
+
+    // Cantidad total de registros
+    int count();
+
+    // Registro en una posición del orden de almacenamiento (para leer la tabla sin copiar)
+    T findAt(int posicion);
+
+    // Página de registros: desde "offset", como máximo "limit"
+    List<T> findAll(int offset, int limit);
+
+    // Posiciones de los registros cuya clave de búsqueda contiene el texto (ya normalizado con TextoBusqueda).
+    // Si "anterior" es de la versión actual, solo se revisan sus posiciones. Devuelve null si se canceló
+    ResultadoBusqueda query(String texto, ResultadoBusqueda anterior);
+
+    // Versión de los datos: cambia con cada alta, edición o baja
+    long getVersion();
+
+    // Guarda un registro: con ID 0 es un alta (se le asigna un ID), si no una edición.
+    // Devuelve false si el correo ya pertenece a otro registro o si el ID a editar no existe
+    boolean save(T registro);
+
+    // Instantánea inmutable de todos los registros, para recorrerlos sin bloquear las ediciones;
+    // null si el motor no guarda los registros en memoria (se leen por páginas con findAll)
+    default Instantanea<T> instantanea() {
+        return null;
+    }
+
+    // Elimina el registro con el ID indicado; false si no existía
+    boolean delete(ID id);
+
+    // Guarda varios registros en una sola operación; devuelve cuántos se guardaron
+    int saveAll(Collection<T> registros);
+
+    // Elimina varios registros en una sola operación; devuelve cuántos se eliminaron
+    int deleteAll(Collection<ID> ids);
+
+    // Espera a que los cambios pendientes estén en disco; false si no se pudieron escribir
+    default boolean flush() {
+        return true;
+    }
+
+    // Escribe lo pendiente y libera los recursos del motor
+    default void close() {
+    }
+
+    // Descripción del último error al guardar (null si no hubo)
+    default String getErrorGuardado() {
+        return null;
+    }
+
+    // Estado del guardado en disco
+    default EstadoGuardado getEstadoGuardado() {
+        return getErrorGuardado() == null ? EstadoGuardado.GUARDADO : EstadoGuardado.ERROR;
+    }
+
+    // Listeners de cambios del estado de guardado (solo los motores que guardan en segundo plano avisan)
+    default void addEstadoGuardadoListener(Consumer<EstadoGuardado> listener) {
+    }
+
+    default void removeEstadoGuardadoListener(Consumer<EstadoGuardado> listener) {
+    }
+
+    // Listeners de altas, ediciones y bajas (se llaman con el candado del motor tomado, en el orden de los cambios)
+    default void addCambioListener(Consumer<CambioRegistro> listener) {
+    }
+
+    default void removeCambioListener(Consumer<CambioRegistro> listener) {
+    }
+}
@@ -0,0 +1,25 @@
+// Paquete donde se ubica la clase
+package vallegrande.edu.pe.model;
+
+// Resultado de una búsqueda: posiciones que coinciden dentro del almacén
+// y la versión de los datos en la que esas posiciones son válidas
+public final class ResultadoBusqueda {
+
+    private final int[] posiciones;
+    private final long version;
+
+    public ResultadoBusqueda(int[] posiciones, long version) {
+        this.posiciones = posiciones;
+        this.version = version;
+    }
+
+    // Posiciones de los registros que coinciden
+    public int[] getPosiciones() {
+        return posiciones;
+    }
+
+    // Versión de los datos cuando se hizo la búsqueda (cambia con cada alta, edición o baja)
+    public long getVersion() {
+        return version;
+    }
+}
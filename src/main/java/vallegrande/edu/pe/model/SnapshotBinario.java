@@ -0,0 +1,228 @@
+// Paquete del modelo
+package vallegrande.edu.pe.model;
+
+
+import java.io.DataOutputStream;      // escritura de números en binario
+import java.io.IOException;           // excepción IO
+import java.nio.BufferUnderflowException; // archivo más corto de lo que indica su contenido
+import java.nio.ByteBuffer;           // lectura sin separar líneas
+import java.nio.charset.StandardCharsets; // codificación de los textos
+import java.nio.file.Files;           // lectura del archivo completo
+import java.nio.file.Path;            // representación de rutas
+import java.util.ArrayList;           // implementación de lista
+import java.util.HashMap;             // tabla de textos repetidos
+import java.util.List;                // interfaz List
+import java.util.Map;                 // interfaz Map
+
+
+// Snapshot binario de estudiantes o usuarios: alternativa al CSV que se lee sin separar líneas ni campos.
+// Estructura (números enteros en big-endian, largos y contadores como varint sin signo):
+//     "AGSB"                       magia (4 bytes)
+//     versión                      2 bytes
+//     tipo                         1 byte (1 = estudiantes, 2 = usuarios)
+//     marca                        8 bytes (secuencia del diario incluida, 0 si no se usa diario)
+//     cantidad de textos, textos   tabla de valores repetidos (curso o rol), cada uno como largo + UTF-8
+//     cantidad de registros        y por cada registro:
+//         id                       8 bytes
+//         nombre, correo           largo + UTF-8
+//         categoría                índice en la tabla de textos (curso o rol)
+//     "#crc32=xxxxxxxx\n"          suma de verificación (la agrega ArchivoAtomico)
+public final class SnapshotBinario {
+
+    // "AGSB" en ASCII
+    private static final int MAGIA = 0x41475342;
+
+    // Versión del formato que escribe esta clase (se leen las versiones menores o iguales)
+    public static final int VERSION = 1;
+
+    // Cómo leer y crear un tipo de registro con nombre, correo y una categoría repetida
+    public interface Formato<T extends Identificable> {
+        int tipo();
+        String nombre(T registro);
+        String correo(T registro);
+        String categoria(T registro);
+        T crear(long id, String nombre, String correo, String categoria);
+    }
+
+    // Formato de los estudiantes (la categoría es el curso)
+    public static final Formato<Estudiante> ESTUDIANTES = new Formato<>() {
+        public int tipo() { return 1; }
+        public String nombre(Estudiante e) { return e.getNombre(); }
+        public String correo(Estudiante e) { return e.getCorreo(); }
+        public String categoria(Estudiante e) { return e.getCurso(); }
+        public Estudiante crear(long id, String nombre, String correo, String curso) {
+            return new Estudiante(id, nombre, correo, curso);
+        }
+    };
+
+    // Formato de los usuarios (la categoría es el rol)
+    public static final Formato<Usuario> USUARIOS = new Formato<>() {
+        public int tipo() { return 2; }
+        public String nombre(Usuario u) { return u.getNombre(); }
+        public String correo(Usuario u) { return u.getCorreo(); }
+        public String categoria(Usuario u) { return u.getRol(); }
+        public Usuario crear(long id, String nombre, String correo, String rol) {
+            return new Usuario(id, nombre, correo, rol);
+        }
+    };
+
+    // Registros leídos en el orden del archivo y la marca del diario
+    public static final class Leido<T> {
+        private final List<T> registros;
+        private final long marca;
+
+        Leido(List<T> registros, long marca) {
+            this.registros = registros;
+            this.marca = marca;
+        }
+
+        public List<T> getRegistros() {
+            return registros;
+        }
+
+        public long getMarca() {
+            return marca;
+        }
+    }
+
+    private SnapshotBinario() {
+    }
+
+
+    // Escribe los registros en el archivo de forma atómica (temporal + fsync + renombrado + suma)
+    public static <T extends Identificable> void escribir(ArchivoAtomico archivo, Formato<T> formato,
+                                                          long marca, List<T> registros) throws IOException {
+        // Tabla de textos repetidos: cada curso o rol distinto se guarda una sola vez
+        Map<String, Integer> indices = new HashMap<>();
+        List<String> textos = new ArrayList<>();
+        int[] categorias = new int[registros.size()];
+        for (int i = 0; i < registros.size(); i++) {
+            String categoria = texto(formato.categoria(registros.get(i)));
+            Integer indice = indices.get(categoria);
+            if (indice == null) {
+                indice = textos.size();
+                indices.put(categoria, indice);
+                textos.add(categoria);
+            }
+            categorias[i] = indice;
+        }
+        archivo.escribirBytes(salida -> {
+            DataOutputStream datos = new DataOutputStream(salida);
+            datos.writeInt(MAGIA);
+            datos.writeShort(VERSION);
+            datos.writeByte(formato.tipo());
+            datos.writeLong(marca);
+            escribirVarint(datos, textos.size());
+            for (String texto : textos) {
+                escribirTexto(datos, texto);
+            }
+            escribirVarint(datos, registros.size());
+            for (int i = 0; i < registros.size(); i++) {
+                T registro = registros.get(i);
+                datos.writeLong(registro.getId());
+                escribirTexto(datos, formato.nombre(registro));
+                escribirTexto(datos, formato.correo(registro));
+                escribirVarint(datos, categorias[i]);
+            }
+            datos.flush();
+        });
+    }
+
+
+    // Lee el archivo completo a memoria; lanza IOException si no es un snapshot válido del tipo indicado.
+    // No se mapea: en Windows un mapeo vivo (hasta que lo libera el GC) impide que escribir() reemplace el archivo
+    public static <T extends Identificable> Leido<T> leer(Path archivo, Formato<T> formato) throws IOException {
+        return leer(ByteBuffer.wrap(Files.readAllBytes(archivo)), formato, archivo);
+    }
+
+
+    private static <T extends Identificable> Leido<T> leer(ByteBuffer datos, Formato<T> formato, Path archivo) throws IOException {
+        try {
+            if (datos.getInt() != MAGIA) {
+                throw new IOException(archivo + " no es un snapshot binario");
+            }
+            int version = datos.getShort() & 0xFFFF;
+            if (version > VERSION) {
+                throw new IOException(archivo + " usa la versión " + version + " del formato, se admite hasta la " + VERSION);
+            }
+            int tipo = datos.get();
+            if (tipo != formato.tipo()) {
+                throw new IOException(archivo + " contiene otro tipo de registros (" + tipo + ")");
+            }
+            long marca = datos.getLong();
+            LectorTextos lector = new LectorTextos(datos);
+            int cantidadTextos = leerVarint(datos);
+            String[] textos = new String[cantidadTextos];
+            for (int i = 0; i < cantidadTextos; i++) {
+                textos[i] = lector.leer();
+            }
+            int cantidad = leerVarint(datos);
+            List<T> registros = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                long id = datos.getLong();
+                String nombre = lector.leer();
+                String correo = lector.leer();
+                int categoria = leerVarint(datos);
+                if (categoria >= cantidadTextos) {
+                    throw new IOException(archivo + " tiene un índice de texto inválido");
+                }
+                registros.add(formato.crear(id, nombre, correo, textos[categoria]));
+            }
+            return new Leido<>(registros, marca);
+        } catch (BufferUnderflowException | IllegalArgumentException ex) {
+            throw new IOException(archivo + " está incompleto", ex);
+        }
+    }
+
+
+    // Lee textos (largo + UTF-8) copiando los bytes a un buffer reutilizado antes de decodificarlos
+    private static final class LectorTextos {
+        private final ByteBuffer datos;
+        private byte[] bytes = new byte[256];
+
+        LectorTextos(ByteBuffer datos) {
+            this.datos = datos;
+        }
+
+        String leer() {
+            int largo = leerVarint(datos);
+            if (largo > bytes.length) {
+                bytes = new byte[Math.max(largo, bytes.length * 2)];
+            }
+            datos.get(bytes, 0, largo);
+            return new String(bytes, 0, largo, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void escribirTexto(DataOutputStream datos, String texto) throws IOException {
+        byte[] bytes = texto(texto).getBytes(StandardCharsets.UTF_8);
+        escribirVarint(datos, bytes.length);
+        datos.write(bytes);
+    }
+
+    // Entero sin signo en 7 bits por byte: los valores pequeños (lo habitual) ocupan un solo byte
+    private static void escribirVarint(DataOutputStream datos, int valor) throws IOException {
+        while ((valor & ~0x7F) != 0) {
+            datos.writeByte((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        datos.writeByte(valor);
+    }
+
+    private static int leerVarint(ByteBuffer datos) {
+        int valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 32; desplazamiento += 7) {
+            byte b = datos.get();
+            valor |= (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                if (valor < 0) throw new IllegalArgumentException("varint negativo");
+                return valor;
+            }
+        }
+        throw new IllegalArgumentException("varint demasiado largo");
+    }
+
+    private static String texto(String s) {
+        return s == null ? "" : s;
+    }
+}
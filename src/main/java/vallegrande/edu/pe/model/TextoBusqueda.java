@@ -0,0 +1,44 @@
+// Paquete donde se ubica la clase
+package vallegrande.edu.pe.model;
+
+// Importa la normalización Unicode para separar letras y tildes
+import java.text.Normalizer;
+import java.util.Locale;
+
+// Normaliza textos para la búsqueda: minúsculas y sin tildes ("Pérez" -> "perez"),
+// así "Perez" también encuentra "Pérez"
+public final class TextoBusqueda {
+
+    // Separador entre campos dentro de una clave (no puede aparecer en lo que se escribe en el buscador)
+    static final char SEPARADOR = '\n';
+
+    private TextoBusqueda() {
+    }
+
+    // Devuelve el texto en minúsculas, sin espacios alrededor y sin marcas diacríticas
+    public static String normalizar(String texto) {
+        if (texto == null) return "";
+        String minusculas = texto.trim().toLowerCase(Locale.ROOT);
+        // Atajo: los textos ASCII no tienen tildes que quitar
+        boolean ascii = true;
+        for (int i = 0; i < minusculas.length() && ascii; i++) {
+            ascii = minusculas.charAt(i) < 0x80;
+        }
+        if (ascii) return minusculas;
+        // NFD separa "é" en "e" + tilde combinante; luego se descartan las marcas combinantes
+        String descompuesto = Normalizer.normalize(minusculas, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(descompuesto.length());
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char c = descompuesto.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    // Clave de búsqueda de un registro a partir de su nombre y correo
+    static String clave(String nombre, String correo) {
+        return normalizar(nombre) + SEPARADOR + normalizar(correo);
+    }
+}
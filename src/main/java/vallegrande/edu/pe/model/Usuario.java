@@ -2,7 +2,10 @@
 package vallegrande.edu.pe.model;
 
 // Definición de la clase Usuario que representa a un usuario del sistema
-public class Usuario {
+public class Usuario implements Registro {
+
+    // Identificador estable del usuario (lo genera el almacén al agregarlo)
+    private long id;
 
     // Atributo que almacena el nombre completo del usuario
     private String nombre;
@@ -13,6 +16,9 @@ public class Usuario {
     // Atributo que almacena el rol del usuario (Administrador, Docente, Estudiante, etc.)
     private String rol;
 
+    // Clave de búsqueda cacheada (nombre y correo normalizados); null = hay que recalcularla
+    private String claveBusqueda;
+
     // Constructor de la clase Usuario que inicializa todos los atributos
     public Usuario(String nombre, String correo, String rol) {
         this.nombre = nombre;  // Asigna el nombre recibido al atributo
@@ -20,10 +26,28 @@ public class Usuario {
         this.rol = rol;        // Asigna el rol recibido al atributo
     }
 
+    // Constructor que además recibe el identificador (al cargar desde archivo)
+    public Usuario(long id, String nombre, String correo, String rol) {
+        this(nombre, correo, rol);
+        this.id = id;
+    }
+
     // ===========================
     // Getters y Setters
     // ===========================
 
+    // Retorna el identificador del usuario
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    // Establece el identificador del usuario
+    @Override
+    public void setId(long id) {
+        this.id = id;
+    }
+
     // Retorna el nombre del usuario
     public String getNombre() {
         return nombre;
@@ -32,6 +56,7 @@ public class Usuario {
     // Establece un nuevo nombre para el usuario
     public void setNombre(String nombre) {
         this.nombre = nombre;
+        this.claveBusqueda = null; // Invalida la clave de búsqueda
     }
 
     // Retorna el correo del usuario
@@ -42,6 +67,7 @@ public class Usuario {
     // Establece un nuevo correo para el usuario
     public void setCorreo(String correo) {
         this.correo = correo;
+        this.claveBusqueda = null; // Invalida la clave de búsqueda
     }
 
     // Retorna el rol del usuario
@@ -53,5 +79,15 @@ public class Usuario {
     public void setRol(String rol) {
         this.rol = rol;
     }
+
+    // Retorna el nombre y el correo en minúsculas y sin tildes (se calcula una vez y se reutiliza)
+    public String getClaveBusqueda() {
+        String clave = claveBusqueda;
+        if (clave == null) {
+            clave = TextoBusqueda.clave(nombre, correo);
+            claveBusqueda = clave;
+        }
+        return clave;
+    }
 }
 
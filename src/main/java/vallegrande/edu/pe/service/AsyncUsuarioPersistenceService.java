@@ -0,0 +1,235 @@
+package vallegrande.edu.pe.service;
+
+import vallegrande.edu.pe.model.EstadoGuardado;
+import vallegrande.edu.pe.model.Usuario;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Guarda usuarios en segundo plano con un único hilo escritor.
+ * Las solicitudes de guardado que llegan dentro de la ventana de agrupamiento
+ * se combinan en una sola escritura del archivo, así una ráfaga de cambios
+ * produce un único acceso a disco y el hilo de Swing nunca espera al archivo.
+ * Si una escritura falla, los cambios siguen pendientes: se reintenta con una espera
+ * creciente (o enseguida con flush/close) hasta que el archivo se escriba.
+ */
+public class AsyncUsuarioPersistenceService implements AutoCloseable {
+
+    private static final long ESPERA_POR_DEFECTO_MS = 300;
+
+    /** Espera antes del primer reintento tras un error; se duplica en cada fallo hasta el máximo */
+    private static final long REINTENTO_INICIAL_MS = 1000;
+    private static final long REINTENTO_MAXIMO_MS = 30_000;
+
+    private final UsuarioPersistenceService persistenceService;
+    private final Supplier<List<Usuario>> fuente;
+    private final long esperaMs;
+    private final Thread escritor;
+    private final Thread ganchoApagado;
+    private final List<Consumer<EstadoGuardado>> listeners = new CopyOnWriteArrayList<>();
+
+    // Estado compartido con el hilo escritor (protegido por "lock")
+    private final Object lock = new Object();
+    private long solicitadas;
+    private long guardadas;
+    private boolean urgente;
+    private boolean cerrado;
+    private boolean ultimoGuardadoCorrecto = true;
+    // Escrituras fallidas seguidas (0 si la última salió bien) y total, para que flush sepa si su intento falló
+    private int fallosSeguidos;
+    private long fallos;
+
+    private volatile EstadoGuardado estado = EstadoGuardado.GUARDADO;
+
+    /**
+     * Crea el servicio con la ventana de agrupamiento por defecto
+     * @param persistenceService Servicio que escribe el archivo CSV
+     * @param fuente Proveedor de una copia consistente de los usuarios a guardar
+     */
+    public AsyncUsuarioPersistenceService(UsuarioPersistenceService persistenceService, Supplier<List<Usuario>> fuente) {
+        this(persistenceService, fuente, ESPERA_POR_DEFECTO_MS);
+    }
+
+    /**
+     * Crea el servicio e inicia el hilo escritor
+     * @param persistenceService Servicio que escribe el archivo CSV
+     * @param fuente Proveedor de una copia consistente de los usuarios a guardar
+     * @param esperaMs Milisegundos que se esperan para agrupar cambios antes de escribir
+     */
+    public AsyncUsuarioPersistenceService(UsuarioPersistenceService persistenceService, Supplier<List<Usuario>> fuente, long esperaMs) {
+        this.persistenceService = persistenceService;
+        this.fuente = fuente;
+        this.esperaMs = esperaMs;
+        this.escritor = new Thread(this::bucleEscritor, "usuarios-guardado");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+        // Al apagar la JVM se escriben los cambios que aún estén pendientes
+        this.ganchoApagado = new Thread(this::close, "usuarios-guardado-apagado");
+        Runtime.getRuntime().addShutdownHook(ganchoApagado);
+    }
+
+    /**
+     * Marca los datos como modificados; el hilo escritor los guardará en la próxima escritura
+     */
+    public void solicitarGuardado() {
+        synchronized (lock) {
+            if (cerrado) return;
+            solicitadas++;
+            cambiarEstado(EstadoGuardado.PENDIENTE);
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Espera a que se escriban todos los cambios solicitados hasta ahora; si hay un error
+     * pendiente se reintenta enseguida (sin esperar el próximo reintento)
+     * @return true si los cambios quedaron escritos; false si la escritura falló (siguen pendientes)
+     */
+    public boolean flush() {
+        synchronized (lock) {
+            long objetivo = solicitadas;
+            long fallosAntes = fallos;
+            if (guardadas < objetivo) {
+                // Interrumpe la ventana de agrupamiento (o la espera del reintento) para escribir de inmediato
+                urgente = true;
+                lock.notifyAll();
+            }
+            try {
+                while (guardadas < objetivo && fallos == fallosAntes && escritor.isAlive()) {
+                    lock.wait(100);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return guardadas >= objetivo && ultimoGuardadoCorrecto;
+        }
+    }
+
+    /**
+     * Escribe lo pendiente y detiene el hilo escritor. Si la escritura final falla se avisa
+     * en la consola: los cambios sin guardar se pierden al salir
+     */
+    @Override
+    public void close() {
+        flush();
+        synchronized (lock) {
+            if (cerrado) return;
+            cerrado = true;
+            lock.notifyAll();
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            if (guardadas < solicitadas) {
+                System.err.println("No se pudieron guardar los últimos cambios de usuarios: "
+                        + persistenceService.getUltimoError());
+            }
+        }
+        // Si se cierra explícitamente ya no hace falta el gancho de apagado
+        if (Thread.currentThread() != ganchoApagado) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(ganchoApagado);
+            } catch (IllegalStateException ignored) {
+                // La JVM ya se está apagando
+            }
+        }
+    }
+
+    /**
+     * @return Estado actual del guardado
+     */
+    public EstadoGuardado getEstado() {
+        return estado;
+    }
+
+    /**
+     * Registra un listener que se invoca (desde el hilo escritor) cada vez que cambia el estado
+     * @param listener Listener a registrar
+     */
+    public void addEstadoListener(Consumer<EstadoGuardado> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Elimina un listener registrado previamente
+     * @param listener Listener a eliminar
+     */
+    public void removeEstadoListener(Consumer<EstadoGuardado> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Bucle del hilo escritor: espera solicitudes, agrupa las que llegan durante la ventana y escribe una vez
+     */
+    private void bucleEscritor() {
+        while (true) {
+            long objetivo;
+            synchronized (lock) {
+                try {
+                    while (!cerrado && solicitadas == guardadas) {
+                        lock.wait();
+                    }
+                    if (solicitadas == guardadas) {
+                        return; // cerrado y sin nada pendiente
+                    }
+                    // Ventana de agrupamiento: los cambios que lleguen mientras tanto viajan en la misma escritura;
+                    // después de un error, espera creciente antes de reintentar
+                    long limite = System.currentTimeMillis() + (fallosSeguidos == 0 ? esperaMs
+                            : Math.min(REINTENTO_MAXIMO_MS, REINTENTO_INICIAL_MS << Math.min(fallosSeguidos - 1, 5)));
+                    long restante;
+                    while (!urgente && !cerrado && (restante = limite - System.currentTimeMillis()) > 0) {
+                        lock.wait(restante);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                urgente = false;
+                objetivo = solicitadas;
+                cambiarEstado(EstadoGuardado.GUARDANDO);
+            }
+
+            boolean ok;
+            try {
+                ok = persistenceService.guardarUsuarios(fuente.get());
+            } catch (RuntimeException e) {
+                System.err.println("Error al guardar usuarios: " + e.getMessage());
+                ok = false;
+            }
+
+            synchronized (lock) {
+                ultimoGuardadoCorrecto = ok;
+                if (!ok) {
+                    // Lo solicitado sigue pendiente y se vuelve a intentar; al cerrar se intenta una sola vez
+                    fallosSeguidos++;
+                    fallos++;
+                    cambiarEstado(EstadoGuardado.ERROR);
+                    lock.notifyAll();
+                    if (cerrado) return;
+                    continue;
+                }
+                fallosSeguidos = 0;
+                guardadas = objetivo;
+                cambiarEstado(solicitadas != guardadas ? EstadoGuardado.PENDIENTE : EstadoGuardado.GUARDADO);
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Actualiza el estado y avisa a los listeners (se llama con "lock" tomado para que el orden sea consistente)
+     */
+    private void cambiarEstado(EstadoGuardado nuevo) {
+        if (estado == nuevo) return;
+        estado = nuevo;
+        for (Consumer<EstadoGuardado> listener : listeners) {
+            listener.accept(nuevo);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package vallegrande.edu.pe.service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool pequeño de conexiones a la base embebida. Cada conexión pertenece a un hilo
+ * del pool y guarda sus sentencias preparadas por texto SQL, así cada consulta se
+ * prepara una sola vez por conexión y luego solo se le cambian los parámetros.
+ * <p>
+ * Las operaciones se ejecutan en los hilos del pool y no en el hilo que las pide:
+ * la base escribe y lee su archivo con un FileChannel, que se cierra si el hilo
+ * que lo usa es interrumpido (por ejemplo, al cancelar una búsqueda). Si el hilo
+ * que espera es interrumpido, la operación solo se marca como cancelada.
+ * <p>
+ * Varios repositorios pueden compartir el pool: cada uno lo retiene al crearse y lo
+ * libera al cerrarse, y el pool se cierra cuando lo libera el último.
+ */
+public class ConexionesSql implements AutoCloseable {
+
+    private final String url;
+    private final ExecutorService hilos;
+    private final List<Conexion> todas = new ArrayList<>();
+    private final ThreadLocal<Conexion> conexionDelHilo = new ThreadLocal<>();
+    private volatile boolean cerrado;
+    private int referencias;
+
+    /**
+     * Operación que usa una conexión del pool
+     * @param <R> Tipo del resultado
+     */
+    public interface Operacion<R> {
+        R ejecutar(Conexion conexion) throws SQLException;
+    }
+
+    /**
+     * Conexión de un hilo del pool con su caché de sentencias preparadas
+     */
+    public static final class Conexion {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> sentencias = new HashMap<>();
+        private Tarea<?> tarea;
+
+        private Conexion(Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * @param sql Texto SQL con parámetros "?"
+         * @return Sentencia preparada reutilizada (se prepara la primera vez)
+         */
+        public PreparedStatement sentencia(String sql) throws SQLException {
+            PreparedStatement sentencia = sentencias.get(sql);
+            if (sentencia == null) {
+                sentencia = connection.prepareStatement(sql);
+                sentencias.put(sql, sentencia);
+            }
+            return sentencia;
+        }
+
+        /**
+         * @return Conexión JDBC (para sentencias que no se repiten, como crear tablas)
+         */
+        public Connection getConnection() {
+            return connection;
+        }
+
+        /**
+         * @return true si quien pidió la operación en curso ya no espera el resultado
+         * (las operaciones largas de solo lectura pueden terminar antes)
+         */
+        public boolean isCancelada() {
+            return tarea != null && tarea.cancelada;
+        }
+
+        private void cerrar() {
+            try {
+                connection.close(); // también cierra sus sentencias
+            } catch (SQLException e) {
+                System.err.println("Error al cerrar una conexión: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Operación enviada a un hilo del pool
+     */
+    private final class Tarea<R> implements Callable<R> {
+        private final Operacion<R> operacion;
+        private volatile boolean cancelada;
+
+        Tarea(Operacion<R> operacion) {
+            this.operacion = operacion;
+        }
+
+        @Override
+        public R call() throws SQLException {
+            Conexion conexion = conexionDelHilo();
+            conexion.tarea = this;
+            try {
+                return operacion.ejecutar(conexion);
+            } finally {
+                conexion.tarea = null;
+            }
+        }
+    }
+
+    /**
+     * @param url URL JDBC de la base (por ejemplo "jdbc:h2:./data/agenda")
+     * @param tamanio Cantidad de hilos, cada uno con su conexión
+     */
+    public ConexionesSql(String url, int tamanio) {
+        this.url = url;
+        AtomicInteger numero = new AtomicInteger();
+        this.hilos = Executors.newFixedThreadPool(tamanio, r -> {
+            Thread t = new Thread(r, "agenda-sql-" + numero.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Ejecuta la operación con una conexión del pool (en modo autocommit) y espera el resultado.
+     * Si el hilo que espera es interrumpido, la operación se marca como cancelada, se sigue
+     * esperando a que termine y el hilo queda con la marca de interrupción
+     * @return Resultado de la operación
+     * @throws SQLException Si falla la conexión o la operación
+     */
+    public <R> R usar(Operacion<R> operacion) throws SQLException {
+        if (cerrado) {
+            throw new SQLException("El pool de conexiones está cerrado");
+        }
+        Tarea<R> tarea = new Tarea<>(operacion);
+        Future<R> resultado;
+        try {
+            resultado = hilos.submit(tarea);
+        } catch (RejectedExecutionException e) {
+            throw new SQLException("El pool de conexiones está cerrado", e);
+        }
+        boolean interrumpido = false;
+        try {
+            while (true) {
+                try {
+                    return resultado.get();
+                } catch (InterruptedException e) {
+                    interrumpido = true;
+                    tarea.cancelada = true;
+                } catch (ExecutionException e) {
+                    Throwable causa = e.getCause();
+                    if (causa instanceof SQLException) throw (SQLException) causa;
+                    if (causa instanceof RuntimeException) throw (RuntimeException) causa;
+                    if (causa instanceof Error) throw (Error) causa;
+                    throw new SQLException(causa);
+                }
+            }
+        } finally {
+            if (interrumpido) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Ejecuta la operación en una transacción: se confirma al terminar o se deshace si lanza una excepción
+     * @return Resultado de la operación
+     * @throws SQLException Si falla la conexión o la operación (ya deshecha)
+     */
+    public <R> R transaccion(Operacion<R> operacion) throws SQLException {
+        return usar(conexion -> {
+            Connection connection = conexion.getConnection();
+            connection.setAutoCommit(false);
+            try {
+                R resultado = operacion.ejecutar(conexion);
+                connection.commit();
+                return resultado;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        });
+    }
+
+    /**
+     * Anota un usuario más del pool (un repositorio que lo comparte)
+     * @throws SQLException Si el pool ya está cerrado
+     */
+    public synchronized void retener() throws SQLException {
+        if (cerrado) {
+            throw new SQLException("El pool de conexiones está cerrado");
+        }
+        referencias++;
+    }
+
+    /**
+     * Quita un usuario del pool; al liberarlo el último, el pool se cierra
+     */
+    public synchronized void liberar() {
+        if (referencias > 0 && --referencias == 0) {
+            close();
+        }
+    }
+
+    /**
+     * @return true si el pool ya se cerró (no acepta más operaciones)
+     */
+    public boolean isCerrado() {
+        return cerrado;
+    }
+
+    /**
+     * Espera a que terminen las operaciones en curso y cierra todas las conexiones
+     */
+    @Override
+    public void close() {
+        cerrado = true;
+        hilos.shutdown();
+        try {
+            hilos.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (todas) {
+            for (Conexion conexion : todas) {
+                conexion.cerrar();
+            }
+            todas.clear();
+        }
+    }
+
+    /**
+     * Conexión del hilo actual del pool (se abre la primera vez)
+     */
+    private Conexion conexionDelHilo() throws SQLException {
+        Conexion conexion = conexionDelHilo.get();
+        if (conexion == null) {
+            conexion = new Conexion(DriverManager.getConnection(url));
+            conexionDelHilo.set(conexion);
+            synchronized (todas) {
+                todas.add(conexion);
+            }
+        }
+        return conexion;
+    }
+}
@@ -0,0 +1,379 @@
+package vallegrande.edu.pe.service;
+
+import vallegrande.edu.pe.model.AlmacenPorId;
+import vallegrande.edu.pe.model.Estudiante;
+import vallegrande.edu.pe.model.Instantanea;
+import vallegrande.edu.pe.model.Registro;
+import vallegrande.edu.pe.model.Repository;
+import vallegrande.edu.pe.model.ResultadoBusqueda;
+import vallegrande.edu.pe.model.Usuario;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Exportación en streaming de los registros de un repositorio (todos o los de una búsqueda)
+ * a CSV o JSON. Los registros se leen por páginas de {@link #TAMANIO_PAGINA} en el orden del
+ * repositorio y se escriben enseguida a un buffer de bytes que se vuelca con un FileChannel,
+ * así la memoria usada no depende de la cantidad de registros (no se arma una lista completa).
+ * El CSV usa el formato y el orden de columnas de {@link ImportadorCsv} para cada entidad
+ * (estudiantes: "nombre;correo;curso", usuarios: "Nombre,Correo,Rol"), así se puede volver a importar.
+ * <p>
+ * Con los motores en memoria se recorre una {@link Instantanea} de los datos: la exportación
+ * refleja un único momento y las ediciones pueden seguir mientras tanto. Con los demás, si los
+ * datos cambian durante la exportación las posiciones de la búsqueda dejan de ser válidas:
+ * se detiene con un error y se borra el archivo incompleto.
+ *
+ * @param <T> Tipo de registro exportado
+ */
+public class ExportadorRegistros<T extends Registro> {
+
+    /** Registros que se leen del repositorio en cada página */
+    public static final int TAMANIO_PAGINA = 1000;
+
+    /** Tamaño del buffer de bytes que se vuelca al archivo */
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+
+    /**
+     * Formatos de archivo admitidos
+     */
+    public enum Formato {
+        CSV("csv"),
+        JSON("json");
+
+        private final String extension;
+
+        Formato(String extension) {
+            this.extension = extension;
+        }
+
+        /** @return Extensión del archivo sin punto */
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Recibe el avance de la exportación
+     */
+    public interface Progreso {
+        /**
+         * @param escritos Registros escritos hasta ahora
+         * @param total Registros a escribir
+         */
+        void avanzar(long escritos, long total);
+    }
+
+    /**
+     * Columnas de una entidad: encabezado y separador del CSV (los que lee ImportadorCsv)
+     * y la tercera columna, la categoría de cada registro
+     *
+     * @param <T> Tipo de registro
+     */
+    public static final class Columnas<T> {
+        private final String encabezado;
+        private final char separador;
+        private final String nombreCategoria;
+        private final Function<T, String> categoria;
+
+        /**
+         * @param encabezado Primera línea del CSV
+         * @param separador ',' (campos entre comillas RFC 4180 si hace falta) o ';' (sin comillas)
+         * @param nombreCategoria Nombre de la tercera columna en JSON ("curso" o "rol")
+         * @param categoria Valor de la tercera columna de cada registro
+         */
+        public Columnas(String encabezado, char separador, String nombreCategoria, Function<T, String> categoria) {
+            this.encabezado = encabezado;
+            this.separador = separador;
+            this.nombreCategoria = nombreCategoria;
+            this.categoria = categoria;
+        }
+    }
+
+    /** Estudiantes: nombre;correo;curso (el formato de ImportadorCsv.ESTUDIANTES) */
+    public static final Columnas<Estudiante> ESTUDIANTES =
+            new Columnas<>("nombre;correo;curso", ';', "curso", Estudiante::getCurso);
+
+    /** Usuarios: Nombre,Correo,Rol con encabezado (el formato de ImportadorCsv.USUARIOS) */
+    public static final Columnas<Usuario> USUARIOS =
+            new Columnas<>("Nombre,Correo,Rol", ',', "rol", Usuario::getRol);
+
+    private final Repository<T, Long> repository;
+    private final Columnas<T> columnas;
+
+    /**
+     * @param repository Repositorio del que se leen los registros
+     * @param columnas Columnas de la entidad (ESTUDIANTES o USUARIOS)
+     */
+    public ExportadorRegistros(Repository<T, Long> repository, Columnas<T> columnas) {
+        this.repository = repository;
+        this.columnas = columnas;
+    }
+
+    /**
+     * Exporta los registros cuya clave de búsqueda contiene el texto (todos si está vacío)
+     * @param texto Texto ya normalizado con TextoBusqueda (vacío = todos)
+     * @param archivo Archivo de destino (se reemplaza si existe)
+     * @param formato CSV o JSON
+     * @param progreso Recibe el avance (puede ser null)
+     * @param cancelado Se consulta entre páginas; si devuelve true se detiene y borra el archivo
+     * @return Cantidad de registros escritos, o -1 si se canceló
+     * @throws IOException Si no se puede escribir el archivo o los datos cambiaron durante la exportación
+     */
+    public long exportar(String texto, Path archivo, Formato formato, Progreso progreso,
+                         BooleanSupplier cancelado) throws IOException {
+        // Instantánea de los datos (null si el motor no la ofrece) y posiciones a exportar:
+        // las de la búsqueda o null para todas
+        Instantanea<T> datos = repository.instantanea();
+        long version = datos != null ? datos.getVersion() : repository.getVersion();
+        int[] posiciones = null;
+        if (texto != null && !texto.isEmpty()) {
+            ResultadoBusqueda busqueda = repository.query(texto, null);
+            if (busqueda == null) {
+                return -1; // búsqueda cancelada
+            }
+            if (datos != null && busqueda.getVersion() != version) {
+                // Otro hilo editó entre la instantánea y la búsqueda: se filtra la propia instantánea
+                posiciones = AlmacenPorId.buscar(datos.getRegistros(),
+                        registro -> registro.getClaveBusqueda().contains(texto), null);
+            } else {
+                posiciones = busqueda.getPosiciones();
+                version = busqueda.getVersion();
+            }
+        }
+        List<T> registros = datos != null ? datos.getRegistros() : null;
+        long escritos;
+        boolean completo = false;
+        try (Escritor escritor = new Escritor(archivo)) {
+            escritos = formato == Formato.JSON
+                    ? escribirJson(escritor, registros, posiciones, version, progreso, cancelado)
+                    : escribirCsv(escritor, registros, posiciones, version, progreso, cancelado);
+            completo = escritos >= 0;
+        } finally {
+            if (!completo) {
+                Files.deleteIfExists(archivo);
+            }
+        }
+        return escritos;
+    }
+
+    private long escribirCsv(Escritor escritor, List<T> registros, int[] posiciones, long version, Progreso progreso,
+                             BooleanSupplier cancelado) throws IOException {
+        char separador = columnas.separador;
+        String sep = String.valueOf(separador);
+        escritor.escribir(columnas.encabezado).escribir("\n");
+        // Sin ID: al importar cada registro recibe uno nuevo
+        return recorrer(registros, posiciones, version, progreso, cancelado, (registro, indice) -> {
+            escritor.escribirCsv(registro.getNombre(), separador).escribir(sep);
+            escritor.escribirCsv(registro.getCorreo(), separador).escribir(sep);
+            escritor.escribirCsv(columnas.categoria.apply(registro), separador).escribir("\n");
+        });
+    }
+
+    private long escribirJson(Escritor escritor, List<T> registros, int[] posiciones, long version, Progreso progreso,
+                              BooleanSupplier cancelado) throws IOException {
+        escritor.escribir("[");
+        long escritos = recorrer(registros, posiciones, version, progreso, cancelado, (registro, indice) -> {
+            escritor.escribir(indice == 0 ? "\n" : ",\n");
+            escritor.escribir("  {\"id\": ").escribir(Long.toString(registro.getId()));
+            escritor.escribir(", \"nombre\": ").escribirJson(registro.getNombre());
+            escritor.escribir(", \"correo\": ").escribirJson(registro.getCorreo());
+            escritor.escribir(", \"").escribir(columnas.nombreCategoria).escribir("\": ")
+                    .escribirJson(columnas.categoria.apply(registro));
+            escritor.escribir("}");
+        });
+        escritor.escribir(escritos > 0 ? "\n]\n" : "]\n");
+        return escritos;
+    }
+
+    /**
+     * Escribe un registro; "indice" es su número dentro de la exportación (0 el primero)
+     */
+    private interface Salida<T> {
+        void escribir(T registro, long indice) throws IOException;
+    }
+
+    /**
+     * Recorre los registros de la instantánea, o si no hay, lee el repositorio página por página
+     * en orden de posición, y pasa a la salida los de las posiciones indicadas (o todos si son null).
+     * Las páginas se piden consecutivas, así los motores que continúan desde la página anterior
+     * no saltan filas
+     * @return Registros escritos, o -1 si se canceló
+     */
+    private long recorrer(List<T> registros, int[] posiciones, long version, Progreso progreso,
+                          BooleanSupplier cancelado, Salida<T> salida) throws IOException {
+        if (registros != null) {
+            return recorrerInstantanea(registros, posiciones, progreso, cancelado, salida);
+        }
+        long total = posiciones != null ? posiciones.length : repository.count();
+        // Con búsqueda no hace falta leer más allá de la última coincidencia
+        long limite = posiciones != null
+                ? (posiciones.length == 0 ? 0 : posiciones[posiciones.length - 1] + 1L)
+                : total;
+        long escritos = 0;
+        int siguiente = 0; // índice de la próxima posición buscada
+        for (long desde = 0; desde < limite; desde += TAMANIO_PAGINA) {
+            if (cancelado != null && cancelado.getAsBoolean()) {
+                return -1;
+            }
+            List<T> pagina = repository.findAll((int) desde, TAMANIO_PAGINA);
+            if (repository.getVersion() != version) {
+                throw new IOException("Los datos cambiaron durante la exportación; vuelva a intentarlo.");
+            }
+            if (pagina.isEmpty()) {
+                break;
+            }
+            if (posiciones == null) {
+                for (T registro : pagina) {
+                    salida.escribir(registro, escritos++);
+                }
+            } else {
+                long hasta = desde + pagina.size();
+                while (siguiente < posiciones.length && posiciones[siguiente] < hasta) {
+                    salida.escribir(pagina.get((int) (posiciones[siguiente] - desde)), escritos++);
+                    siguiente++;
+                }
+            }
+            if (progreso != null) {
+                progreso.avanzar(escritos, total);
+            }
+        }
+        return escritos;
+    }
+
+    /**
+     * Pasa a la salida los registros de la instantánea (o los de las posiciones indicadas).
+     * La lista no cambia, así que no hace falta comprobar la versión
+     * @return Registros escritos, o -1 si se canceló
+     */
+    private long recorrerInstantanea(List<T> registros, int[] posiciones, Progreso progreso,
+                                     BooleanSupplier cancelado, Salida<T> salida) throws IOException {
+        long total = posiciones != null ? posiciones.length : registros.size();
+        for (long escritos = 0; escritos < total; escritos++) {
+            if (escritos % TAMANIO_PAGINA == 0) {
+                if (cancelado != null && cancelado.getAsBoolean()) {
+                    return -1;
+                }
+                if (progreso != null && escritos > 0) {
+                    progreso.avanzar(escritos, total);
+                }
+            }
+            int posicion = posiciones != null ? posiciones[(int) escritos] : (int) escritos;
+            salida.escribir(registros.get(posicion), escritos);
+        }
+        if (progreso != null) {
+            progreso.avanzar(total, total);
+        }
+        return total;
+    }
+
+    /**
+     * Codifica texto a UTF-8 en un buffer directo y lo vuelca al canal cuando se llena
+     */
+    private static final class Escritor implements AutoCloseable {
+        private final FileChannel canal;
+        private final ByteBuffer bytes = ByteBuffer.allocateDirect(TAMANIO_BUFFER);
+        private final CharsetEncoder codificador = StandardCharsets.UTF_8.newEncoder();
+        private final StringBuilder escape = new StringBuilder();
+
+        Escritor(Path archivo) throws IOException {
+            canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        Escritor escribir(CharSequence texto) throws IOException {
+            CharBuffer caracteres = CharBuffer.wrap(texto);
+            while (true) {
+                CoderResult resultado = codificador.encode(caracteres, bytes, false);
+                if (resultado.isOverflow()) {
+                    volcar();
+                } else if (resultado.isUnderflow()) {
+                    return this;
+                } else {
+                    resultado.throwException(); // texto con caracteres sueltos inválidos
+                }
+            }
+        }
+
+        /**
+         * Campo CSV. Con ',' va entre comillas solo si contiene coma, comillas o saltos de línea (RFC 4180);
+         * con ';' no hay comillas (el lector de estudiantes no las entiende): como en los snapshots,
+         * el ';' pasa a ',' y los saltos de línea a espacios
+         */
+        Escritor escribirCsv(String valor, char separador) throws IOException {
+            if (valor == null) {
+                return this;
+            }
+            if (separador != ',') {
+                return escribir(valor.replace('\n', ' ').replace('\r', ' ').replace(separador, ','));
+            }
+            if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+                return escribir(valor);
+            }
+            escape.setLength(0);
+            escape.append('"');
+            for (int i = 0; i < valor.length(); i++) {
+                char c = valor.charAt(i);
+                if (c == '"') escape.append('"');
+                escape.append(c);
+            }
+            escape.append('"');
+            return escribir(escape);
+        }
+
+        /** Texto JSON entre comillas con los caracteres de control escapados */
+        Escritor escribirJson(String valor) throws IOException {
+            if (valor == null) {
+                return escribir("null");
+            }
+            escape.setLength(0);
+            escape.append('"');
+            for (int i = 0; i < valor.length(); i++) {
+                char c = valor.charAt(i);
+                switch (c) {
+                    case '"': escape.append("\\\""); break;
+                    case '\\': escape.append("\\\\"); break;
+                    case '\n': escape.append("\\n"); break;
+                    case '\r': escape.append("\\r"); break;
+                    case '\t': escape.append("\\t"); break;
+                    default:
+                        if (c < 0x20) {
+                            escape.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            escape.append(c);
+                        }
+                }
+            }
+            escape.append('"');
+            return escribir(escape);
+        }
+
+        private void volcar() throws IOException {
+            bytes.flip();
+            while (bytes.hasRemaining()) {
+                canal.write(bytes);
+            }
+            bytes.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                volcar();
+            } finally {
+                canal.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package vallegrande.edu.pe.service;
+
+import vallegrande.edu.pe.model.EstadoGuardado;
+import vallegrande.edu.pe.model.InMemoryRepository;
+import vallegrande.edu.pe.model.Usuario;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Motor de usuarios en memoria que guarda el archivo completo (CSV o snapshot binario)
+ * después de cada cambio. En modo asíncrono las escrituras se agrupan en un hilo de fondo.
+ */
+public class FileUsuarioRepository extends InMemoryRepository<Usuario> {
+
+    private final UsuarioPersistenceService persistenceService;
+
+    // Guardado en segundo plano (null cuando se guarda de forma síncrona)
+    private final AsyncUsuarioPersistenceService guardadoAsincrono;
+
+    // Indica si se está aplicando un lote: el archivo se guarda una sola vez al terminar
+    private boolean enLote;
+
+    /**
+     * Carga los usuarios del archivo; si no hay ninguno agrega datos de ejemplo
+     * @param binario true para guardar en el snapshot binario en lugar del CSV
+     * @param asincrono true para agrupar las escrituras en un hilo de fondo
+     */
+    public FileUsuarioRepository(boolean binario, boolean asincrono) {
+        persistenceService = new UsuarioPersistenceService(binario);
+
+        // Intenta cargar usuarios desde archivo (los que no traen ID reciben uno nuevo)
+        for (Usuario u : persistenceService.cargarUsuarios()) {
+            agregarEnMemoria(u);
+        }
+
+        // Si no hay usuarios cargados, agrega datos de ejemplo
+        if (count() == 0) {
+            for (Usuario u : ejemplos()) {
+                agregarEnMemoria(u);
+            }
+            // Guarda los datos de ejemplo
+            persistenceService.guardarUsuarios(copia());
+        }
+
+        // El hilo escritor toma la instantánea inmutable de la lista (no bloquea las ediciones)
+        guardadoAsincrono = asincrono
+                ? new AsyncUsuarioPersistenceService(persistenceService, this::copia)
+                : null;
+    }
+
+    /**
+     * @return Usuarios de ejemplo con los que empieza un motor sin datos
+     */
+    public static List<Usuario> ejemplos() {
+        List<Usuario> ejemplos = new ArrayList<>();
+        ejemplos.add(new Usuario("Valery Chumpitaz", "valery@correo.com", "Administrador"));
+        ejemplos.add(new Usuario("Juan Pérez", "juan@correo.com", "Docente"));
+        ejemplos.add(new Usuario("María López", "maria@correo.com", "Estudiante"));
+        return ejemplos;
+    }
+
+    @Override
+    protected void despuesDeAgregar(Usuario usuario) {
+        guardar();
+    }
+
+    @Override
+    protected void despuesDeEditar(Usuario usuario, Usuario anterior) {
+        guardar();
+    }
+
+    @Override
+    protected void despuesDeEliminar(Usuario anterior) {
+        guardar();
+    }
+
+    /**
+     * Guarda varios usuarios y escribe el archivo una sola vez al final
+     */
+    @Override
+    public int saveAll(Collection<Usuario> lote) {
+        candadoEscritura().lock();
+        try {
+            enLote = true;
+            int guardados;
+            try {
+                guardados = super.saveAll(lote);
+            } finally {
+                enLote = false;
+            }
+            if (guardados > 0) guardar();
+            return guardados;
+        } finally {
+            candadoEscritura().unlock();
+        }
+    }
+
+    /**
+     * Elimina varios usuarios y escribe el archivo una sola vez al final
+     */
+    @Override
+    public int deleteAll(Collection<Long> ids) {
+        candadoEscritura().lock();
+        try {
+            enLote = true;
+            int eliminados;
+            try {
+                eliminados = super.deleteAll(ids);
+            } finally {
+                enLote = false;
+            }
+            if (eliminados > 0) guardar();
+            return eliminados;
+        } finally {
+            candadoEscritura().unlock();
+        }
+    }
+
+    @Override
+    public boolean flush() {
+        return guardadoAsincrono == null || guardadoAsincrono.flush();
+    }
+
+    @Override
+    public void close() {
+        if (guardadoAsincrono != null) {
+            guardadoAsincrono.close();
+        }
+    }
+
+    @Override
+    public String getErrorGuardado() {
+        return persistenceService.getUltimoError();
+    }
+
+    @Override
+    public EstadoGuardado getEstadoGuardado() {
+        return guardadoAsincrono == null ? super.getEstadoGuardado() : guardadoAsincrono.getEstado();
+    }
+
+    @Override
+    public void addEstadoGuardadoListener(Consumer<EstadoGuardado> listener) {
+        if (guardadoAsincrono != null) {
+            guardadoAsincrono.addEstadoListener(listener);
+        }
+    }
+
+    @Override
+    public void removeEstadoGuardadoListener(Consumer<EstadoGuardado> listener) {
+        if (guardadoAsincrono != null) {
+            guardadoAsincrono.removeEstadoListener(listener);
+        }
+    }
+
+    /**
+     * Guarda los cambios: en segundo plano (agrupados) o de inmediato según el modo.
+     * Dentro de un lote no hace nada (se guarda al terminarlo).
+     * Se llama con el candado de escritura del repositorio tomado
+     */
+    private void guardar() {
+        if (enLote) {
+            return;
+        }
+        if (guardadoAsincrono != null) {
+            guardadoAsincrono.solicitarGuardado();
+        } else {
+            persistenceService.guardarUsuarios(copia());
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package vallegrande.edu.pe.service;
+
+import vallegrande.edu.pe.model.Estudiante;
+import vallegrande.edu.pe.model.Registro;
+import vallegrande.edu.pe.model.Repository;
+import vallegrande.edu.pe.model.Usuario;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * Importación masiva de un archivo CSV en el formato de cada entidad
+ * (estudiantes: "nombre;correo;curso", usuarios: "Nombre,Correo,Rol" con encabezado).
+ * <ol>
+ *   <li>El archivo se lee en streaming, en lotes de {@link #TAMANIO_LOTE} filas.</li>
+ *   <li>Cada lote se valida en paralelo: campos obligatorios, formato del correo y rol permitido.</li>
+ *   <li>Al terminar de leer, las filas válidas se guardan con un único saveAll; el índice único
+ *       del repositorio descarta en el mismo guardado los correos ya registrados y los repetidos
+ *       dentro del archivo (sin una consulta por fila). Las filas descartadas se clasifican
+ *       después según si su correo apareció antes en el archivo.</li>
+ * </ol>
+ * Si se cancela antes de guardar, no se importa nada. Las filas rechazadas se escriben con su
+ * número de línea y el motivo en "archivo.rechazos.txt".
+ *
+ * @param <T> Tipo de registro importado
+ */
+public class ImportadorCsv<T extends Registro> {
+
+    /** Filas que se leen y validan juntas */
+    public static final int TAMANIO_LOTE = 10_000;
+
+    /** Rechazos que se guardan en memoria para mostrarlos (el reporte en disco tiene todos) */
+    public static final int MAX_RECHAZOS_EN_MEMORIA = 1000;
+
+    /** Roles permitidos para los usuarios (sin distinguir mayúsculas) */
+    private static final List<String> ROLES = Arrays.asList("administrador", "docente", "estudiante");
+
+    /**
+     * Cómo leer, validar y crear un tipo de registro
+     */
+    public interface Formato<T> {
+        /** Abre el lector de filas del archivo */
+        LectorFilas abrir(InputStream entrada) throws IOException;
+
+        /** @return Motivo del rechazo o null si los campos son válidos (se llama en paralelo) */
+        String validar(String[] campos, int cantidad);
+
+        /** Crea el registro con campos ya validados */
+        T crear(String[] campos);
+    }
+
+    /**
+     * Fuente de filas de un archivo CSV
+     */
+    public interface LectorFilas extends Closeable {
+        /**
+         * @param destino Arreglo donde se copian los campos
+         * @return Cantidad de campos de la fila o -1 al final del archivo
+         */
+        int siguiente(String[] destino) throws IOException;
+
+        /** @return Línea (desde 1) donde empieza la última fila leída */
+        int getLinea();
+    }
+
+    /**
+     * Avance de la importación (se llama desde el hilo que importa)
+     */
+    public interface Progreso {
+        /**
+         * @param porcentaje Porcentaje del archivo leído (0 a 100)
+         * @param filas Filas leídas hasta ahora
+         * @param etapa Descripción de lo que se está haciendo
+         */
+        void avanzar(int porcentaje, long filas, String etapa);
+    }
+
+    /**
+     * Resultado de una importación
+     */
+    public static final class Resultado {
+        private long leidas;
+        private int importados;
+        private long rechazados;
+        private boolean cancelada;
+        private Path reporte;
+        private String errorGuardado;
+        private final List<String> detalleRechazos = new ArrayList<>();
+
+        /** @return Filas de datos leídas del archivo */
+        public long getLeidas() {
+            return leidas;
+        }
+
+        /** @return Registros agregados al repositorio */
+        public int getImportados() {
+            return importados;
+        }
+
+        /** @return Filas rechazadas */
+        public long getRechazados() {
+            return rechazados;
+        }
+
+        /** @return true si se canceló (en ese caso no se importó nada) */
+        public boolean isCancelada() {
+            return cancelada;
+        }
+
+        /** @return Archivo con todas las filas rechazadas (null si no hubo) */
+        public Path getReporte() {
+            return reporte;
+        }
+
+        /** @return Error del repositorio al guardar (los registros importados pueden no estar en disco), o null */
+        public String getErrorGuardado() {
+            return errorGuardado;
+        }
+
+        /** @return Primeros rechazos ("línea N: motivo") */
+        public List<String> getDetalleRechazos() {
+            return detalleRechazos;
+        }
+    }
+
+    /** Formato del CSV de estudiantes: nombre;correo;curso[;id] */
+    public static final Formato<Estudiante> ESTUDIANTES = new Formato<>() {
+        @Override
+        public LectorFilas abrir(InputStream entrada) {
+            return new LectorPuntoYComa(entrada);
+        }
+
+        @Override
+        public String validar(String[] campos, int cantidad) {
+            if (cantidad < 3) return "faltan campos (se esperan nombre;correo;curso)";
+            if (campos[0].isEmpty()) return "el nombre está vacío";
+            if (campos[2].isEmpty()) return "el curso está vacío";
+            return validarCorreo(campos[1]);
+        }
+
+        @Override
+        public Estudiante crear(String[] campos) {
+            return new Estudiante(campos[0], campos[1], campos[2]);
+        }
+    };
+
+    /** Formato del CSV de usuarios: Nombre,Correo,Rol[,Id] con comillas RFC 4180 */
+    public static final Formato<Usuario> USUARIOS = new Formato<>() {
+        @Override
+        public LectorFilas abrir(InputStream entrada) {
+            UsuarioCsvReader lector = new UsuarioCsvReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+            return new LectorFilas() {
+                @Override
+                public int siguiente(String[] destino) throws IOException {
+                    return lector.siguienteFila(destino);
+                }
+
+                @Override
+                public int getLinea() {
+                    return lector.getLinea();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    lector.close();
+                }
+            };
+        }
+
+        @Override
+        public String validar(String[] campos, int cantidad) {
+            if (cantidad < 3) return "faltan campos (se esperan Nombre,Correo,Rol)";
+            if (campos[0].isEmpty()) return "el nombre está vacío";
+            String error = validarCorreo(campos[1]);
+            if (error != null) return error;
+            if (!ROLES.contains(campos[2].toLowerCase(Locale.ROOT))) {
+                return "el rol debe ser Administrador, Docente o Estudiante";
+            }
+            return null;
+        }
+
+        @Override
+        public Usuario crear(String[] campos) {
+            return new Usuario(campos[0], campos[1], campos[2]);
+        }
+    };
+
+    private final Repository<T, Long> repository;
+    private final Formato<T> formato;
+
+    /**
+     * @param repository Repositorio donde se guardan las filas válidas
+     * @param formato Formato del archivo
+     */
+    public ImportadorCsv(Repository<T, Long> repository, Formato<T> formato) {
+        this.repository = repository;
+        this.formato = formato;
+    }
+
+    /**
+     * Importa el archivo
+     * @param archivo CSV a importar (UTF-8)
+     * @param progreso Recibe el avance (puede ser null)
+     * @param cancelado Se consulta entre lotes; si devuelve true se detiene sin guardar nada
+     * @return Resumen de la importación
+     * @throws IOException Si no se puede leer el archivo o escribir el reporte
+     */
+    public Resultado importar(Path archivo, Progreso progreso, BooleanSupplier cancelado) throws IOException {
+        Resultado resultado = new Resultado();
+        long tamanio = Math.max(1, Files.size(archivo));
+        List<T> validos = new ArrayList<>();
+        int[] lineasValidos = new int[1024];
+        Path rutaReporte = archivo.resolveSibling(archivo.getFileName() + ".rechazos.txt");
+        Files.deleteIfExists(rutaReporte);
+
+        Reporte reporte = new Reporte(rutaReporte, resultado);
+        try (reporte;
+             EntradaContada entrada = new EntradaContada(Files.newInputStream(archivo));
+             LectorFilas lector = formato.abrir(entrada)) {
+
+            // Lote actual: campos y línea de cada fila
+            String[][] filas = new String[TAMANIO_LOTE][4];
+            int[] cantidades = new int[TAMANIO_LOTE];
+            int[] lineas = new int[TAMANIO_LOTE];
+            String[] errores = new String[TAMANIO_LOTE];
+            boolean fin = false;
+            boolean primera = true;
+
+            while (!fin) {
+                if (cancelado.getAsBoolean()) {
+                    resultado.cancelada = true;
+                    break;
+                }
+                // Lectura secuencial del lote
+                int n = 0;
+                while (n < TAMANIO_LOTE) {
+                    String[] campos = filas[n];
+                    Arrays.fill(campos, "");
+                    int cantidad = lector.siguiente(campos);
+                    if (cantidad < 0) {
+                        fin = true;
+                        break;
+                    }
+                    // Encabezado y líneas de metadatos de los archivos guardados por la aplicación
+                    if (primera && esEncabezado(campos)) {
+                        primera = false;
+                        continue;
+                    }
+                    primera = false;
+                    if (campos[0].startsWith("#seq=") || campos[0].startsWith("#crc32=")) {
+                        continue;
+                    }
+                    cantidades[n] = cantidad;
+                    lineas[n] = lector.getLinea();
+                    n++;
+                }
+
+                // Validación en paralelo (los correos repetidos los descarta el guardado)
+                int cantidadLote = n;
+                IntStream.range(0, cantidadLote).parallel().forEach(i -> errores[i] = formato.validar(filas[i], cantidades[i]));
+
+                // Se separan válidos y rechazados en el orden del archivo
+                for (int i = 0; i < cantidadLote; i++) {
+                    if (errores[i] == null) {
+                        if (validos.size() == lineasValidos.length) {
+                            lineasValidos = Arrays.copyOf(lineasValidos, lineasValidos.length * 2);
+                        }
+                        lineasValidos[validos.size()] = lineas[i];
+                        validos.add(formato.crear(filas[i]));
+                    } else {
+                        reporte.rechazar(lineas[i], errores[i], filas[i], cantidades[i]);
+                    }
+                }
+                resultado.leidas += cantidadLote;
+                if (progreso != null) {
+                    progreso.avanzar((int) Math.min(100, entrada.getLeidos() * 100 / tamanio), resultado.leidas, "Validando");
+                }
+            }
+
+            if (resultado.cancelada || cancelado.getAsBoolean()) {
+                resultado.cancelada = true;
+                return resultado;
+            }
+
+            // Un único guardado con todas las filas válidas
+            if (progreso != null) {
+                progreso.avanzar(100, resultado.leidas, "Guardando " + validos.size() + " registros");
+            }
+            resultado.importados = repository.saveAll(validos);
+            resultado.errorGuardado = repository.getErrorGuardado();
+
+            // El guardado falló entero (la base deshizo la transacción): no son correos repetidos
+            if (resultado.importados == 0 && resultado.errorGuardado != null) {
+                for (int i = 0; i < validos.size(); i++) {
+                    T registro = validos.get(i);
+                    reporte.rechazar(lineasValidos[i], "no se pudo guardar",
+                            new String[]{registro.getNombre(), registro.getCorreo()}, 2);
+                }
+            } else if (resultado.importados < validos.size()) {
+                // Los que quedaron sin ID repetían un correo: de una fila anterior del archivo o ya registrado
+                Set<String> vistos = new HashSet<>();
+                for (int i = 0; i < validos.size(); i++) {
+                    T registro = validos.get(i);
+                    boolean repetido = !vistos.add(registro.getCorreo().trim().toLowerCase(Locale.ROOT));
+                    if (registro.getId() <= 0) {
+                        reporte.rechazar(lineasValidos[i],
+                                repetido ? "el correo se repite en el archivo" : "el correo ya está registrado",
+                                new String[]{registro.getNombre(), registro.getCorreo()}, 2);
+                    }
+                }
+            }
+        } finally {
+            // Si se canceló no se importó nada: el reporte parcial no sirve
+            if (resultado.cancelada) {
+                Files.deleteIfExists(rutaReporte);
+            }
+        }
+        if (resultado.rechazados > 0) {
+            resultado.reporte = rutaReporte;
+        }
+        return resultado;
+    }
+
+    /**
+     * Valida el formato básico del correo (las mismas reglas que el formulario de usuarios)
+     * @return Motivo del rechazo o null si es válido
+     */
+    public static String validarCorreo(String correo) {
+        if (correo == null || correo.isEmpty()) {
+            return "el correo está vacío";
+        }
+        int arroba = correo.indexOf('@');
+        int ultimoPunto = correo.lastIndexOf('.');
+        if (arroba <= 0 || arroba == correo.length() - 1 || ultimoPunto <= arroba + 1
+                || ultimoPunto == correo.length() - 1) {
+            return "el correo no tiene un formato válido";
+        }
+        return null;
+    }
+
+    private static boolean esEncabezado(String[] campos) {
+        return campos[0].equalsIgnoreCase("nombre") && campos[1].equalsIgnoreCase("correo");
+    }
+
+    /**
+     * Reporte de filas rechazadas: se escriben todas en disco y las primeras se guardan en memoria
+     */
+    private static final class Reporte implements Closeable {
+        private final Path ruta;
+        private final Resultado resultado;
+        private BufferedWriter writer;
+
+        Reporte(Path ruta, Resultado resultado) {
+            this.ruta = ruta;
+            this.resultado = resultado;
+        }
+
+        void rechazar(int linea, String motivo, String[] campos, int cantidad) throws IOException {
+            String detalle = "línea " + linea + ": " + motivo;
+            resultado.rechazados++;
+            if (resultado.detalleRechazos.size() < MAX_RECHAZOS_EN_MEMORIA) {
+                resultado.detalleRechazos.add(detalle);
+            }
+            if (writer == null) {
+                writer = Files.newBufferedWriter(ruta, StandardCharsets.UTF_8);
+            }
+            writer.write(detalle);
+            writer.write(" | ");
+            writer.write(String.join(" | ", Arrays.copyOf(campos, Math.min(cantidad, campos.length))));
+            writer.newLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Filas del CSV de estudiantes: una por línea, campos separados por ';'
+     */
+    private static final class LectorPuntoYComa implements LectorFilas {
+        private final BufferedReader reader;
+        private int linea;
+
+        LectorPuntoYComa(InputStream entrada) {
+            this.reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8), 64 * 1024);
+        }
+
+        @Override
+        public int siguiente(String[] destino) throws IOException {
+            String texto;
+            while ((texto = reader.readLine()) != null) {
+                linea++;
+                if (linea == 1 && !texto.isEmpty() && texto.charAt(0) == '\uFEFF') {
+                    texto = texto.substring(1);
+                }
+                if (texto.isBlank()) {
+                    continue;
+                }
+                int cantidad = 0;
+                int inicio = 0;
+                while (true) {
+                    int fin = texto.indexOf(';', inicio);
+                    String campo = (fin < 0 ? texto.substring(inicio) : texto.substring(inicio, fin)).trim();
+                    if (cantidad < destino.length) {
+                        destino[cantidad] = campo;
+                    }
+                    cantidad++;
+                    if (fin < 0) break;
+                    inicio = fin + 1;
+                }
+                return cantidad;
+            }
+            return -1;
+        }
+
+        @Override
+        public int getLinea() {
+            return linea;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * Cuenta los bytes leídos del archivo para calcular el porcentaje de avance
+     */
+    private static final class EntradaContada extends FilterInputStream {
+        private volatile long leidos;
+
+        EntradaContada(InputStream entrada) {
+            super(entrada);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) leidos++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) leidos += n;
+            return n;
+        }
+
+        long getLeidos() {
+            return leidos;
+        }
+    }
+}
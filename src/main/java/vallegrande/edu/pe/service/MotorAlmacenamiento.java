@@ -0,0 +1,144 @@
+package vallegrande.edu.pe.service;
+
+import vallegrande.edu.pe.model.Estudiante;
+import vallegrande.edu.pe.model.InMemoryEstudianteRepository;
+import vallegrande.edu.pe.model.InMemoryRepository;
+import vallegrande.edu.pe.model.InMemoryUsuarioRepository;
+import vallegrande.edu.pe.model.Registro;
+import vallegrande.edu.pe.model.Repository;
+import vallegrande.edu.pe.model.SnapshotBinario;
+import vallegrande.edu.pe.model.Usuario;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Motores de almacenamiento disponibles para los repositorios.
+ * Se elige con la propiedad del sistema "agenda.motor" (para ambos) o
+ * "agenda.motor.estudiantes" / "agenda.motor.usuarios" (para cada uno), por ejemplo
+ * -Dagenda.motor.estudiantes=binario. Sin propiedad se usa CSV.
+ * El motor SQL usa la base embebida "data/agenda" (otra con -Dagenda.sql.url); la primera vez que
+ * se abre copia los datos guardados en CSV/binario (o los de ejemplo), una sola vez.
+ * Si la base no se puede abrir, la carga falla con el error (no se cambia de motor en silencio).
+ */
+public enum MotorAlmacenamiento {
+
+    /** Solo memoria: no lee ni escribe archivos; empieza con los registros de ejemplo */
+    MEMORIA,
+    /** CSV (estudiantes con diario de cambios, usuarios reescribiendo el archivo en segundo plano) */
+    CSV,
+    /** Igual que CSV pero los snapshots se guardan en formato binario */
+    BINARIO,
+    /** Base de datos embebida en un archivo: los registros no se cargan en memoria */
+    SQL;
+
+    private static final String URL_POR_DEFECTO = "jdbc:h2:./data/agenda";
+
+    // Pool compartido por las tablas de estudiantes y usuarios (se abre con el primer repositorio SQL)
+    private static ConexionesSql conexiones;
+
+    /**
+     * Motor configurado para una entidad
+     * @param entidad "estudiantes" o "usuarios"
+     * @return Motor de la propiedad específica, o el general, o CSV
+     */
+    public static MotorAlmacenamiento configurado(String entidad) {
+        String valor = System.getProperty("agenda.motor." + entidad, System.getProperty("agenda.motor"));
+        if (valor == null || valor.isBlank()) {
+            return CSV;
+        }
+        try {
+            return valueOf(valor.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Motor de almacenamiento desconocido '" + valor + "' para " + entidad + ", se usa CSV");
+            return CSV;
+        }
+    }
+
+    /**
+     * @return Repositorio de estudiantes con este motor
+     */
+    public Repository<Estudiante, Long> crearEstudiantes() {
+        switch (this) {
+            case MEMORIA:
+                // Como el de usuarios, empieza con los ejemplos (no hay archivo del que leer)
+                InMemoryRepository<Estudiante> memoria = new InMemoryRepository<>();
+                memoria.saveAll(InMemoryEstudianteRepository.ejemplos());
+                return memoria;
+            case BINARIO:
+                return new InMemoryEstudianteRepository(true);
+            case SQL:
+                try {
+                    SqlRepository<Estudiante> sql = new SqlRepository<>(conexiones(), "estudiantes", "curso", SnapshotBinario.ESTUDIANTES);
+                    // La primera vez se pasan a la base los datos guardados (o los de ejemplo), sin escribir archivos
+                    migrar(sql, () -> {
+                        List<Estudiante> guardados = InMemoryEstudianteRepository.leerGuardados();
+                        return guardados.isEmpty() ? InMemoryEstudianteRepository.ejemplos() : guardados;
+                    });
+                    return sql;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("No se pudo abrir la base de datos de estudiantes: " + e.getMessage(), e);
+                }
+            default:
+                return new InMemoryEstudianteRepository(false);
+        }
+    }
+
+    /**
+     * @return Repositorio de usuarios con este motor (los que usan archivo guardan en segundo plano)
+     */
+    public Repository<Usuario, Long> crearUsuarios() {
+        switch (this) {
+            case MEMORIA:
+                return new InMemoryUsuarioRepository();
+            case BINARIO:
+                return new FileUsuarioRepository(true, true);
+            case SQL:
+                try {
+                    SqlRepository<Usuario> sql = new SqlRepository<>(conexiones(), "usuarios", "rol", SnapshotBinario.USUARIOS);
+                    // La primera vez se pasan a la base los datos guardados (o los de ejemplo), sin escribir archivos
+                    migrar(sql, () -> {
+                        List<Usuario> guardados = new UsuarioPersistenceService().cargarUsuarios();
+                        return guardados.isEmpty() ? FileUsuarioRepository.ejemplos() : guardados;
+                    });
+                    return sql;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("No se pudo abrir la base de datos de usuarios: " + e.getMessage(), e);
+                }
+            default:
+                return new FileUsuarioRepository(false, true);
+        }
+    }
+
+    /**
+     * @return Pool de conexiones a la base embebida (se crea la primera vez, o de nuevo si ya se cerró)
+     */
+    private static synchronized ConexionesSql conexiones() {
+        if (conexiones == null || conexiones.isCerrado()) {
+            conexiones = new ConexionesSql(System.getProperty("agenda.sql.url", URL_POR_DEFECTO),
+                    Math.max(2, Runtime.getRuntime().availableProcessors()));
+        }
+        return conexiones;
+    }
+
+    /**
+     * Copia a la base los registros del motor anterior conservando sus IDs, si no se hizo antes.
+     * Si la base se abre bien pero la copia falla, el repositorio se cierra y se lanza el error
+     */
+    private static <T extends Registro> void migrar(SqlRepository<T> destino, Supplier<Collection<T>> origen)
+            throws SQLException {
+        int copiados;
+        try {
+            copiados = destino.migrarUnaVez(origen);
+        } catch (SQLException | RuntimeException e) {
+            destino.close();
+            throw e;
+        }
+        if (copiados >= 0) {
+            System.err.println("Registros pasados a la base de datos: " + copiados);
+        }
+    }
+}
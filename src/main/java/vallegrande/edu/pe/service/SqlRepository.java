@@ -0,0 +1,742 @@
+package vallegrande.edu.pe.service;
+
+import vallegrande.edu.pe.model.BusCambios;
+import vallegrande.edu.pe.model.CambioRegistro;
+import vallegrande.edu.pe.model.Registro;
+import vallegrande.edu.pe.model.Repository;
+import vallegrande.edu.pe.model.ResultadoBusqueda;
+import vallegrande.edu.pe.model.SnapshotBinario;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Motor de almacenamiento en una base de datos embebida (archivo local, sin servidor).
+ * Los registros no se cargan en memoria: cada consulta va a la base, que tiene un índice
+ * único sobre el correo normalizado y ordena por la clave primaria (el ID).
+ * Las posiciones de la interfaz Repository son el orden por ID: las páginas se leen con
+ * ORDER BY id (continuando desde el ID del borde cuando son contiguas) y la cantidad se
+ * vuelve a contar en la base en cada escritura, así que la memoria no crece con la tabla.
+ * Las escrituras se serializan en este objeto; las lecturas usan cualquier conexión libre del pool.
+ *
+ * @param <T> Tipo de registro (estudiante o usuario)
+ */
+public class SqlRepository<T extends Registro> implements Repository<T, Long> {
+
+    /** Registros por lote al guardar o eliminar varios */
+    private static final int TAMANIO_LOTE = 1000;
+
+    /** Registros que se leen juntos para atender findAt (la tabla pide filas consecutivas) */
+    private static final int TAMANIO_VENTANA = 256;
+
+    /** Filas que trae la base de una vez al recorrer la tabla en una búsqueda */
+    private static final int FILAS_POR_VIAJE = 4096;
+
+    /** Veces que se repite una búsqueda si los datos cambiaron mientras se hacía */
+    private static final int INTENTOS_BUSQUEDA = 3;
+
+    /** Tabla con una fila por tabla de datos a la que ya se pasaron los registros del motor anterior */
+    private static final String TABLA_MIGRACIONES = "agenda_migraciones";
+
+    private final ConexionesSql conexiones;
+    private final SnapshotBinario.Formato<T> formato;
+    private final String tabla;
+
+    // Sentencias de esta tabla (el pool las prepara una vez por conexión)
+    private final String sqlPorId;
+    private final String sqlPorCorreo;
+    private final String sqlPagina;
+    private final String sqlSiguientes;
+    private final String sqlAnteriores;
+    private final String sqlBuscar;
+    private final String sqlContar;
+    private final String sqlInsertar;
+    private final String sqlActualizar;
+    private final String sqlEliminar;
+
+    // Cantidad de registros (contada en la base) y último ID asignado (solo cambian con el candado de escritura)
+    private volatile int cantidad;
+    private long ultimoId;
+
+    // Versión de los datos: aumenta con cada escritura que cambia algo
+    private volatile long version;
+
+    // Últimos registros leídos por posición
+    private volatile Ventana<T> ventana;
+
+    // Posición e IDs de los bordes de la última página leída
+    private volatile Borde ultimaPagina;
+
+    // Último error de escritura (las lecturas fallidas no cuentan como error de guardado)
+    private volatile String ultimoError;
+
+    // Si ya se liberó el pool de conexiones
+    private boolean cerrado;
+
+    // Listeners de cambios (las vistas abiertas)
+    private final BusCambios cambios = new BusCambios();
+
+    /**
+     * Registros consecutivos leídos para una versión de los datos
+     */
+    private static final class Ventana<T> {
+        final long version;
+        final int desde;
+        final List<T> registros;
+
+        Ventana(long version, int desde, List<T> registros) {
+            this.version = version;
+            this.desde = desde;
+            this.registros = registros;
+        }
+    }
+
+    /**
+     * Posición e IDs del primer y último registro de una página, para una versión de los datos
+     */
+    private static final class Borde {
+        final long version;
+        final int desde;
+        final int cantidad;
+        final long primerId;
+        final long ultimoId;
+
+        Borde(long version, int desde, int cantidad, long primerId, long ultimoId) {
+            this.version = version;
+            this.desde = desde;
+            this.cantidad = cantidad;
+            this.primerId = primerId;
+            this.ultimoId = ultimoId;
+        }
+    }
+
+    /**
+     * Crea la tabla y su índice si no existen y lee la cantidad de registros
+     * @param conexiones Pool de conexiones a la base
+     * @param tabla Nombre de la tabla
+     * @param columnaCategoria Nombre de la columna de la categoría (curso o rol)
+     * @param formato Cómo leer y crear los registros
+     * @throws SQLException Si no se puede abrir la base
+     */
+    public SqlRepository(ConexionesSql conexiones, String tabla, String columnaCategoria,
+                         SnapshotBinario.Formato<T> formato) throws SQLException {
+        conexiones.retener();
+        this.conexiones = conexiones;
+        this.formato = formato;
+        this.tabla = tabla;
+        String columnas = "id, nombre, correo, " + columnaCategoria;
+        sqlPorId = "SELECT " + columnas + " FROM " + tabla + " WHERE id = ?";
+        sqlPorCorreo = "SELECT " + columnas + " FROM " + tabla + " WHERE correo_clave = ?";
+        sqlPagina = "SELECT " + columnas + " FROM " + tabla + " ORDER BY id LIMIT ? OFFSET ?";
+        // Continuación por clave: la página contigua a una ya leída se busca en el índice sin contar filas
+        sqlSiguientes = "SELECT " + columnas + " FROM " + tabla + " WHERE id > ? ORDER BY id LIMIT ?";
+        sqlAnteriores = "SELECT " + columnas + " FROM " + tabla + " WHERE id < ? ORDER BY id DESC LIMIT ?";
+        // Una sola pasada en orden de ID: la base compara el texto y cada fila trae solo si coincide,
+        // así la posición es el número de fila y no hace falta tener los IDs en memoria
+        sqlBuscar = "SELECT LOCATE(?, clave) > 0 FROM " + tabla + " ORDER BY id";
+        sqlContar = "SELECT COUNT(*) FROM " + tabla;
+        // Los NOT EXISTS evitan la excepción del índice único: la fila simplemente no se inserta
+        sqlInsertar = "INSERT INTO " + tabla + " (" + columnas + ", correo_clave, clave)"
+                + " SELECT CAST(? AS BIGINT), CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS VARCHAR),"
+                + " CAST(? AS VARCHAR), CAST(? AS VARCHAR)"
+                + " WHERE NOT EXISTS (SELECT 1 FROM " + tabla + " WHERE correo_clave = ?)"
+                + " AND NOT EXISTS (SELECT 1 FROM " + tabla + " WHERE id = ?)";
+        sqlActualizar = "UPDATE " + tabla + " SET nombre = ?, correo = ?, " + columnaCategoria + " = ?,"
+                + " correo_clave = ?, clave = ? WHERE id = ?"
+                + " AND NOT EXISTS (SELECT 1 FROM " + tabla + " o WHERE o.correo_clave = ? AND o.id <> ?)";
+        sqlEliminar = "DELETE FROM " + tabla + " WHERE id = ?";
+
+        try {
+            crearTabla(tabla, columnaCategoria);
+        } catch (SQLException | RuntimeException e) {
+            conexiones.liberar();
+            throw e;
+        }
+    }
+
+    /**
+     * Crea la tabla y sus índices si no existen y lee la cantidad de registros y el mayor ID
+     */
+    private void crearTabla(String tabla, String columnaCategoria) throws SQLException {
+        conexiones.usar(conexion -> {
+            try (Statement st = conexion.getConnection().createStatement()) {
+                st.execute("CREATE TABLE IF NOT EXISTS " + tabla + " ("
+                        + "id BIGINT PRIMARY KEY, "
+                        + "nombre VARCHAR NOT NULL, "
+                        + "correo VARCHAR NOT NULL, "
+                        + columnaCategoria + " VARCHAR NOT NULL, "
+                        + "correo_clave VARCHAR NOT NULL, "
+                        + "clave VARCHAR NOT NULL)");
+                st.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + tabla + "_correo ON " + tabla + " (correo_clave)");
+                // La clave primaria solo se recorre hacia adelante: este índice sirve para leer páginas hacia atrás
+                st.execute("CREATE INDEX IF NOT EXISTS " + tabla + "_id_desc ON " + tabla + " (id DESC)");
+                st.execute("CREATE TABLE IF NOT EXISTS " + TABLA_MIGRACIONES + " ("
+                        + "tabla VARCHAR PRIMARY KEY, "
+                        + "fecha TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL)");
+                try (ResultSet rs = st.executeQuery("SELECT COUNT(*), COALESCE(MAX(id), 0) FROM " + tabla)) {
+                    rs.next();
+                    cantidad = rs.getInt(1);
+                    ultimoId = rs.getLong(2);
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public T findById(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return uno(sqlPorId, st -> st.setLong(1, id));
+    }
+
+    @Override
+    public T findByCorreo(String correo) {
+        return uno(sqlPorCorreo, st -> st.setString(1, claveCorreo(correo)));
+    }
+
+    @Override
+    public int count() {
+        return cantidad;
+    }
+
+    /**
+     * Lee el registro de la ventana de posiciones que lo contiene; la tabla pide filas
+     * consecutivas, así que casi siempre se responde sin ir a la base
+     */
+    @Override
+    public T findAt(int posicion) {
+        Ventana<T> actual = ventana;
+        long versionActual = version;
+        if (actual == null || actual.version != versionActual
+                || posicion < actual.desde || posicion >= actual.desde + actual.registros.size()) {
+            int desde = posicion - posicion % TAMANIO_VENTANA;
+            actual = new Ventana<>(versionActual, desde, findAll(desde, TAMANIO_VENTANA));
+            ventana = actual;
+        }
+        int indice = posicion - actual.desde;
+        return indice >= 0 && indice < actual.registros.size() ? actual.registros.get(indice) : null;
+    }
+
+    /**
+     * Página en orden de ID. Si es contigua a la última página leída (la tabla se desplaza
+     * hacia abajo o hacia arriba) se continúa desde el ID del borde en el índice, en lugar
+     * de saltar "offset" filas con OFFSET
+     */
+    @Override
+    public List<T> findAll(int offset, int limit) {
+        int desde = Math.max(0, offset);
+        int cuantos = Math.max(0, Math.min(limit, cantidad - desde));
+        if (cuantos == 0) {
+            return new ArrayList<>();
+        }
+        Borde previa = ultimaPagina;
+        long versionActual = version;
+        boolean vigente = previa != null && previa.version == versionActual;
+        try {
+            List<T> registros;
+            if (vigente && desde == previa.desde + previa.cantidad) {
+                registros = pagina(sqlSiguientes, previa.ultimoId, cuantos);
+            } else if (vigente && desde + cuantos == previa.desde) {
+                registros = pagina(sqlAnteriores, previa.primerId, cuantos);
+                Collections.reverse(registros);
+            } else {
+                registros = conexiones.usar(conexion -> {
+                    PreparedStatement st = conexion.sentencia(sqlPagina);
+                    st.setInt(1, cuantos);
+                    st.setInt(2, desde);
+                    return leer(st, cuantos);
+                });
+            }
+            if (!registros.isEmpty()) {
+                ultimaPagina = new Borde(versionActual, desde, registros.size(),
+                        registros.get(0).getId(), registros.get(registros.size() - 1).getId());
+            }
+            return registros;
+        } catch (SQLException e) {
+            avisarErrorLectura("leer", e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Registros a continuación (o antes) del ID indicado
+     */
+    private List<T> pagina(String sql, long idBorde, int cuantos) throws SQLException {
+        return conexiones.usar(conexion -> {
+            PreparedStatement st = conexion.sentencia(sql);
+            st.setLong(1, idBorde);
+            st.setInt(2, cuantos);
+            return leer(st, cuantos);
+        });
+    }
+
+    /**
+     * Recorre la tabla en orden de ID en una sola consulta: la base evalúa el texto en cada fila
+     * y solo devuelve si coincide, así que la posición es el número de fila. "anterior" no se usa:
+     * sin los IDs en memoria no se puede pasar de sus posiciones a filas sin otra consulta.
+     * Cada 4096 filas se comprueba si la búsqueda fue cancelada (el hilo que espera fue interrumpido)
+     */
+    @Override
+    public ResultadoBusqueda query(String texto, ResultadoBusqueda anterior) {
+        try {
+            for (int intento = 1; ; intento++) {
+                long versionAntes = version;
+                int[] posiciones = buscarPosiciones(texto);
+                if (posiciones == null) {
+                    return null;
+                }
+                // Si los datos cambiaron durante la búsqueda se repite, para que las posiciones sean de una sola versión
+                if (version == versionAntes || intento == INTENTOS_BUSQUEDA) {
+                    return new ResultadoBusqueda(posiciones, versionAntes);
+                }
+            }
+        } catch (SQLException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            avisarErrorLectura("buscar", e);
+            return new ResultadoBusqueda(new int[0], version);
+        }
+    }
+
+    /**
+     * Posiciones (en orden ascendente) de los registros cuya clave contiene el texto
+     * @return null si la búsqueda fue cancelada
+     */
+    private int[] buscarPosiciones(String texto) throws SQLException {
+        return conexiones.usar(conexion -> {
+            PreparedStatement st = conexion.sentencia(sqlBuscar);
+            st.setString(1, texto);
+            st.setFetchSize(FILAS_POR_VIAJE);
+            int[] posiciones = new int[64];
+            int n = 0;
+            int fila = 0;
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    if ((fila & 0xFFF) == 0 && conexion.isCancelada()) {
+                        return null;
+                    }
+                    if (rs.getBoolean(1)) {
+                        if (n == posiciones.length) {
+                            posiciones = Arrays.copyOf(posiciones, n * 2);
+                        }
+                        posiciones[n++] = fila;
+                    }
+                    fila++;
+                }
+            }
+            return Arrays.copyOf(posiciones, n);
+        });
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Guarda un registro y avisa el alta (al final del orden por ID, porque el ID nuevo es el mayor)
+     * o la edición con su posición si está en las filas leídas
+     */
+    @Override
+    public synchronized boolean save(T registro) {
+        boolean alta = registro.getId() <= 0;
+        // Una edición no cambia el orden: la posición de antes sigue valiendo
+        int anterior = alta ? -1 : posicionLeida(registro.getId());
+        if (guardar(Collections.singletonList(registro), false) != 1) {
+            return false;
+        }
+        if (cambios.hayListeners()) {
+            int posicion = alta ? cantidad - 1 : anterior;
+            if (posicion < 0) {
+                cambios.publicar(CambioRegistro.varios(version)); // sin la posición se vuelve a leer todo
+            } else {
+                cambios.publicar(alta
+                        ? CambioRegistro.insertado(registro, posicion, version)
+                        : CambioRegistro.actualizado(registro, posicion, version));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Elimina un registro y avisa la baja: los registros siguientes en el orden por ID se corren una posición
+     */
+    @Override
+    public synchronized boolean delete(Long id) {
+        if (id == null) {
+            return false;
+        }
+        int posicion = posicionLeida(id);
+        if (eliminar(Collections.singletonList(id)) != 1) {
+            return false;
+        }
+        if (cambios.hayListeners()) {
+            // Sin la posición las vistas tienen que volver a leer todo
+            cambios.publicar(posicion >= 0
+                    ? CambioRegistro.eliminado(id, posicion, -1, version)
+                    : CambioRegistro.varios(version));
+        }
+        return true;
+    }
+
+    /**
+     * Guarda en una sola transacción, en lotes: los registros sin ID se insertan con uno nuevo
+     * y los que tienen ID se actualizan. Los que repiten un correo se descartan
+     */
+    @Override
+    public synchronized int saveAll(Collection<T> registros) {
+        return avisarVarios(guardar(registros, false));
+    }
+
+    /**
+     * Inserta registros conservando su ID (por ejemplo, al pasar los datos de otro motor a la base).
+     * Los que no tienen ID reciben uno nuevo; los que repiten un ID o un correo se descartan
+     * @return Cantidad de registros insertados
+     */
+    public synchronized int importar(Collection<T> registros) {
+        return avisarVarios(guardar(registros, true));
+    }
+
+    /**
+     * Pasa a la base los registros de otro motor solo la primera vez que se abre la tabla.
+     * Al terminar se anota la tabla en agenda_migraciones: aunque después se borren todos los
+     * registros, no se vuelven a copiar. Una tabla con datos pero sin anotar (bases anteriores
+     * a la marca, o una caída entre la copia y la anotación) se da por migrada
+     * @param origen Registros del motor anterior (solo se piden si hay que migrar)
+     * @return Registros copiados, o -1 si la tabla ya estaba migrada
+     * @throws SQLException Si no se pudo leer o escribir la base (la copia se deshace entera)
+     */
+    public synchronized int migrarUnaVez(Supplier<Collection<T>> origen) throws SQLException {
+        boolean migrada = conexiones.usar(conexion -> {
+            PreparedStatement st = conexion.sentencia("SELECT 1 FROM " + TABLA_MIGRACIONES + " WHERE tabla = ?");
+            st.setString(1, tabla);
+            try (ResultSet rs = st.executeQuery()) {
+                return rs.next();
+            }
+        });
+        if (migrada) {
+            return -1;
+        }
+        int copiados = 0;
+        if (cantidad == 0) {
+            copiados = importar(origen.get());
+            if (ultimoError != null) {
+                throw new SQLException(ultimoError);
+            }
+        }
+        conexiones.usar(conexion -> {
+            PreparedStatement st = conexion.sentencia("MERGE INTO " + TABLA_MIGRACIONES + " (tabla) KEY (tabla) VALUES (?)");
+            st.setString(1, tabla);
+            return st.executeUpdate();
+        });
+        return copiados;
+    }
+
+    @Override
+    public synchronized int deleteAll(Collection<Long> ids) {
+        return avisarVarios(eliminar(ids));
+    }
+
+    @Override
+    public void addCambioListener(Consumer<CambioRegistro> listener) {
+        cambios.agregar(listener);
+    }
+
+    @Override
+    public void removeCambioListener(Consumer<CambioRegistro> listener) {
+        cambios.quitar(listener);
+    }
+
+    /**
+     * Avisa un cambio de muchos registros si se guardó o eliminó alguno
+     * @return La cantidad recibida
+     */
+    private int avisarVarios(int afectados) {
+        if (afectados > 0) {
+            cambios.publicar(CambioRegistro.varios(version));
+        }
+        return afectados;
+    }
+
+    /**
+     * Posición del registro si está entre las últimas filas leídas de la versión actual
+     * (las que muestra la tabla, que es lo que se suele editar o eliminar); -1 si no,
+     * y entonces se avisa un cambio de varios registros en lugar de contar filas en la base
+     */
+    private int posicionLeida(long id) {
+        Ventana<T> actual = ventana;
+        if (actual == null || actual.version != version) {
+            return -1;
+        }
+        for (int i = 0; i < actual.registros.size(); i++) {
+            if (actual.registros.get(i).getId() == id) {
+                return actual.desde + i;
+            }
+        }
+        return -1;
+    }
+
+    private synchronized int eliminar(Collection<Long> ids) {
+        try {
+            long[] resultado = conexiones.transaccion(conexion -> {
+                PreparedStatement st = conexion.sentencia(sqlEliminar);
+                int total = 0;
+                int enLote = 0;
+                for (Long id : ids) {
+                    if (id == null) continue;
+                    st.setLong(1, id);
+                    st.addBatch();
+                    if (++enLote == TAMANIO_LOTE) {
+                        total += sumar(st.executeBatch());
+                        enLote = 0;
+                    }
+                }
+                if (enLote > 0) {
+                    total += sumar(st.executeBatch());
+                }
+                return new long[]{total, contar(conexion)};
+            });
+            cambiaron((int) resultado[1], (int) resultado[0]);
+            return (int) resultado[0];
+        } catch (SQLException e) {
+            registrarError("eliminar", e);
+            return 0;
+        }
+    }
+
+    @Override
+    public String getErrorGuardado() {
+        return ultimoError;
+    }
+
+    /**
+     * Libera el pool de conexiones (se cierra, con sus sentencias, cuando lo libera el último repositorio)
+     */
+    @Override
+    public synchronized void close() {
+        if (!cerrado) {
+            cerrado = true;
+            conexiones.liberar();
+        }
+    }
+
+    private synchronized int guardar(Collection<T> registros, boolean conservarIds) {
+        List<T> insertados = new ArrayList<>();
+        List<T> asignados = new ArrayList<>();
+        try {
+            long[] resultado = conexiones.transaccion(conexion -> {
+                PreparedStatement insertar = conexion.sentencia(sqlInsertar);
+                PreparedStatement actualizar = conexion.sentencia(sqlActualizar);
+                Lote<T> lote = new Lote<>();
+                long actualizados = 0;
+                long id = ultimoId;
+                for (T registro : registros) {
+                    if (registro.getId() <= 0 || conservarIds) {
+                        long nuevoId = registro.getId() > 0 ? registro.getId() : ++id;
+                        id = Math.max(id, nuevoId);
+                        agregarInsercion(insertar, nuevoId, registro);
+                        lote.agregar(registro, registro.getId());
+                        if (registro.getId() != nuevoId) {
+                            registro.setId(nuevoId);
+                            asignados.add(registro);
+                        }
+                    } else {
+                        agregarActualizacion(actualizar, registro);
+                        lote.actualizaciones++;
+                    }
+                    if (lote.tamanio() == TAMANIO_LOTE) {
+                        actualizados += ejecutarLote(insertar, actualizar, lote, insertados);
+                    }
+                }
+                if (lote.tamanio() > 0) {
+                    actualizados += ejecutarLote(insertar, actualizar, lote, insertados);
+                }
+                return new long[]{actualizados, id, contar(conexion)};
+            });
+            ultimoId = resultado[1];
+            int guardados = insertados.size() + (int) resultado[0];
+            cambiaron((int) resultado[2], guardados);
+            return guardados;
+        } catch (SQLException e) {
+            // La transacción se deshizo: los registros que recibieron un ID vuelven a quedar sin él
+            for (T registro : asignados) {
+                registro.setId(0);
+            }
+            registrarError("guardar", e);
+            return 0;
+        }
+    }
+
+    /**
+     * Inserciones y actualizaciones acumuladas en las sentencias hasta ejecutar el lote
+     */
+    private static final class Lote<T> {
+        final List<T> inserciones = new ArrayList<>();
+        long[] idsAnteriores = new long[16];
+        int actualizaciones;
+
+        void agregar(T registro, long idAnterior) {
+            if (inserciones.size() == idsAnteriores.length) {
+                idsAnteriores = Arrays.copyOf(idsAnteriores, idsAnteriores.length * 2);
+            }
+            idsAnteriores[inserciones.size()] = idAnterior;
+            inserciones.add(registro);
+        }
+
+        int tamanio() {
+            return inserciones.size() + actualizaciones;
+        }
+    }
+
+    /**
+     * Ejecuta las actualizaciones y luego las inserciones acumuladas en el lote.
+     * Las inserciones descartadas (correo o ID repetido) recuperan el ID que tenían
+     * @return Cantidad de registros actualizados
+     */
+    private int ejecutarLote(PreparedStatement insertar, PreparedStatement actualizar,
+                             Lote<T> lote, List<T> insertados) throws SQLException {
+        int actualizados = lote.actualizaciones > 0 ? sumar(actualizar.executeBatch()) : 0;
+        if (!lote.inserciones.isEmpty()) {
+            int[] filas = insertar.executeBatch();
+            for (int i = 0; i < filas.length; i++) {
+                T registro = lote.inserciones.get(i);
+                if (filas[i] > 0) {
+                    insertados.add(registro);
+                } else {
+                    registro.setId(lote.idsAnteriores[i]);
+                }
+            }
+        }
+        lote.inserciones.clear();
+        lote.actualizaciones = 0;
+        return actualizados;
+    }
+
+    private void agregarInsercion(PreparedStatement st, long id, T registro) throws SQLException {
+        String correoClave = claveCorreo(formato.correo(registro));
+        st.setLong(1, id);
+        st.setString(2, texto(formato.nombre(registro)));
+        st.setString(3, texto(formato.correo(registro)));
+        st.setString(4, texto(formato.categoria(registro)));
+        st.setString(5, correoClave);
+        st.setString(6, registro.getClaveBusqueda());
+        st.setString(7, correoClave);
+        st.setLong(8, id);
+        st.addBatch();
+    }
+
+    private void agregarActualizacion(PreparedStatement st, T registro) throws SQLException {
+        String correoClave = claveCorreo(formato.correo(registro));
+        st.setString(1, texto(formato.nombre(registro)));
+        st.setString(2, texto(formato.correo(registro)));
+        st.setString(3, texto(formato.categoria(registro)));
+        st.setString(4, correoClave);
+        st.setString(5, registro.getClaveBusqueda());
+        st.setLong(6, registro.getId());
+        st.setString(7, correoClave);
+        st.setLong(8, registro.getId());
+        st.addBatch();
+    }
+
+    /**
+     * Cantidad de registros según la base, dentro de la transacción de una escritura
+     * (la base guarda el total de la tabla: no recorre filas)
+     */
+    private int contar(ConexionesSql.Conexion conexion) throws SQLException {
+        try (ResultSet rs = conexion.sentencia(sqlContar).executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Registra el resultado de una escritura confirmada
+     * @param total Cantidad de registros contada en la base al confirmar
+     * @param afectados Filas insertadas, actualizadas o eliminadas
+     */
+    private void cambiaron(int total, int afectados) {
+        if (afectados > 0) {
+            cantidad = total;
+            version++;
+        }
+        ultimoError = null;
+    }
+
+    /**
+     * Consulta que devuelve como máximo un registro
+     */
+    private T uno(String sql, Parametros parametros) {
+        try {
+            List<T> encontrados = conexiones.usar(conexion -> {
+                PreparedStatement st = conexion.sentencia(sql);
+                parametros.asignar(st);
+                return leer(st, 1);
+            });
+            return encontrados.isEmpty() ? null : encontrados.get(0);
+        } catch (SQLException e) {
+            avisarErrorLectura("leer", e);
+            return null;
+        }
+    }
+
+    private interface Parametros {
+        void asignar(PreparedStatement st) throws SQLException;
+    }
+
+    private List<T> leer(PreparedStatement st, int capacidad) throws SQLException {
+        List<T> registros = new ArrayList<>(capacidad);
+        try (ResultSet rs = st.executeQuery()) {
+            while (rs.next()) {
+                registros.add(formato.crear(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4)));
+            }
+        }
+        return registros;
+    }
+
+    private static int sumar(int[] filas) {
+        int total = 0;
+        for (int f : filas) {
+            if (f > 0) total += f;
+        }
+        return total;
+    }
+
+    /**
+     * Anota el error de una escritura: queda como error de guardado hasta la siguiente escritura confirmada
+     */
+    private void registrarError(String operacion, SQLException e) {
+        ultimoError = "No se pudo " + operacion + " en la base de datos: " + e.getMessage();
+        System.err.println(ultimoError);
+    }
+
+    /**
+     * Avisa el error de una lectura o búsqueda; no toca el estado de guardado (los datos guardados siguen ahí)
+     */
+    private void avisarErrorLectura(String operacion, SQLException e) {
+        System.err.println("No se pudo " + operacion + " en la base de datos: " + e.getMessage());
+    }
+
+    /**
+     * Clave del índice único: correo sin espacios alrededor y en minúsculas
+     */
+    private static String claveCorreo(String correo) {
+        return correo == null ? "" : correo.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String texto(String s) {
+        return s == null ? "" : s;
+    }
+}
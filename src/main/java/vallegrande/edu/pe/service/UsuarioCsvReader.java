@@ -0,0 +1,200 @@
+package vallegrande.edu.pe.service;
+
+import vallegrande.edu.pe.model.Usuario;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Lector CSV (RFC 4180) en streaming para el archivo de usuarios.
+ * Recorre un único buffer de caracteres reutilizable y arma cada campo en un
+ * StringBuilder que también se reutiliza, así que por línea solo se crean los
+ * String de los campos y el Usuario. Soporta comillas dobles escapadas ("")
+ * y campos entre comillas que contienen comas o saltos de línea.
+ */
+public class UsuarioCsvReader implements Closeable {
+
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+    private static final int MAX_CAMPOS = 4;
+
+    private final Reader reader;
+    private final char[] buffer = new char[TAMANIO_BUFFER];
+    private int posicion;
+    private int limite;
+    private boolean inicio = true;
+
+    // Línea física actual y línea donde empezó el último registro leído (un registro puede abarcar varias)
+    private int lineaActual = 1;
+    private int lineaRegistro;
+
+    // Estructuras reutilizadas entre registros
+    private final StringBuilder campo = new StringBuilder(64);
+    private final String[] campos = new String[MAX_CAMPOS];
+    private int cantidadCampos;
+
+    /**
+     * @param reader Origen de caracteres (ya decodificado, p. ej. UTF-8)
+     */
+    public UsuarioCsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Lee el siguiente registro y lo convierte en Usuario.
+     * Las líneas vacías y los registros con menos de 3 campos se saltan.
+     * Los archivos sin columna Id devuelven usuarios con ID 0 (sin asignar).
+     * @return Siguiente usuario o null al llegar al final del archivo
+     * @throws IOException Si falla la lectura o la decodificación
+     */
+    public Usuario siguiente() throws IOException {
+        while (leerRegistro()) {
+            if (cantidadCampos >= 3) {
+                long id = cantidadCampos >= 4 ? parsearId(campos[3]) : 0;
+                return new Usuario(id, campos[0], campos[1], campos[2]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lee el siguiente registro sin convertirlo (por ejemplo, para validarlo antes de importarlo).
+     * Las líneas vacías se saltan
+     * @param destino Arreglo donde se copian los campos (los que no entran se descartan)
+     * @return Cantidad de campos del registro, o -1 al llegar al final del archivo
+     * @throws IOException Si falla la lectura o la decodificación
+     */
+    public int siguienteFila(String[] destino) throws IOException {
+        while (leerRegistro()) {
+            if (cantidadCampos == 1 && campos[0].isEmpty()) {
+                continue;
+            }
+            System.arraycopy(campos, 0, destino, 0, Math.min(destino.length, Math.min(cantidadCampos, MAX_CAMPOS)));
+            return cantidadCampos;
+        }
+        return -1;
+    }
+
+    /**
+     * @return Número de línea (desde 1) donde empieza el último registro leído
+     */
+    public int getLinea() {
+        return lineaRegistro;
+    }
+
+    /**
+     * Salta el registro de encabezado (Nombre,Correo,Rol,Id)
+     * @throws IOException Si falla la lectura
+     */
+    public void saltarEncabezado() throws IOException {
+        leerRegistro();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Lee un registro completo en "campos"; un campo entre comillas puede abarcar varias líneas
+     * @return false si no quedan registros
+     */
+    private boolean leerRegistro() throws IOException {
+        cantidadCampos = 0;
+        campo.setLength(0);
+        boolean dentroComillas = false;
+        boolean huboDatos = false;
+        lineaRegistro = lineaActual;
+        int c;
+        while ((c = leer()) >= 0) {
+            huboDatos = true;
+            if (c == '\n' || (c == '\r' && mirar() != '\n')) {
+                lineaActual++;
+            }
+            if (dentroComillas) {
+                if (c == '"') {
+                    if (mirar() == '"') {
+                        posicion++; // comilla escapada
+                        campo.append('"');
+                    } else {
+                        dentroComillas = false;
+                    }
+                } else {
+                    campo.append((char) c);
+                }
+            } else if (c == '"') {
+                dentroComillas = true;
+            } else if (c == ',') {
+                terminarCampo();
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && mirar() == '\n') {
+                    posicion++;
+                }
+                terminarCampo();
+                return true;
+            } else {
+                campo.append((char) c);
+            }
+        }
+        if (huboDatos) {
+            terminarCampo();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Guarda el campo actual sin espacios alrededor (una sola copia a String)
+     */
+    private void terminarCampo() {
+        int inicioCampo = 0;
+        int finCampo = campo.length();
+        while (inicioCampo < finCampo && campo.charAt(inicioCampo) <= ' ') inicioCampo++;
+        while (finCampo > inicioCampo && campo.charAt(finCampo - 1) <= ' ') finCampo--;
+        if (cantidadCampos < MAX_CAMPOS) {
+            campos[cantidadCampos] = campo.substring(inicioCampo, finCampo);
+        }
+        cantidadCampos++;
+        campo.setLength(0);
+    }
+
+    private int leer() throws IOException {
+        if (posicion >= limite && !llenar()) {
+            return -1;
+        }
+        return buffer[posicion++];
+    }
+
+    private int mirar() throws IOException {
+        if (posicion >= limite && !llenar()) {
+            return -1;
+        }
+        return buffer[posicion];
+    }
+
+    private boolean llenar() throws IOException {
+        int leidos;
+        do {
+            leidos = reader.read(buffer, 0, buffer.length);
+        } while (leidos == 0);
+        if (leidos < 0) {
+            return false;
+        }
+        posicion = 0;
+        limite = leidos;
+        // Marca de orden de bytes (BOM) que agregan algunos editores al inicio de un UTF-8
+        if (inicio) {
+            inicio = false;
+            if (buffer[0] == '\uFEFF') posicion = 1;
+        }
+        return true;
+    }
+
+    private static long parsearId(String texto) {
+        try {
+            return Long.parseLong(texto);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
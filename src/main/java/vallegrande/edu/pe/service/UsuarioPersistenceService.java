@@ -1,9 +1,20 @@
 package vallegrande.edu.pe.service;
 
+import vallegrande.edu.pe.metricas.Contador;
+import vallegrande.edu.pe.metricas.Histograma;
+import vallegrande.edu.pe.metricas.Metricas;
+import vallegrande.edu.pe.model.ArchivoAtomico;
+import vallegrande.edu.pe.model.SnapshotBinario;
 import vallegrande.edu.pe.model.Usuario;
 
 import java.io.*;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,74 +25,188 @@ import java.util.List;
 public class UsuarioPersistenceService {
     
     private static final String ARCHIVO_USUARIOS = "usuarios.csv";
+    private static final String ARCHIVO_BINARIO = "usuarios.bin";
     private static final String SEPARADOR = ",";
-    private static final String HEADER = "Nombre,Correo,Rol";
+    private static final String HEADER = "Nombre,Correo,Rol,Id";
+    // Codificación con la que se guardaba el archivo antes de usar UTF-8 (la predeterminada en Windows)
+    private static final String CODIFICACION_ANTERIOR = "windows-1252";
+    
+    /** Tiempo de cada guardado completo (escritura + fsync + renombrado) */
+    private static final Histograma TIEMPO_GUARDAR = Metricas.tiempo("usuarios.guardar");
+    /** Bytes escritos por los guardados y guardados fallidos */
+    private static final Contador BYTES_ESCRITOS = Metricas.contador("usuarios.guardar.bytes");
+    private static final Contador ERRORES_GUARDAR = Metricas.contador("usuarios.guardar.errores");
+    /** Tiempo de cada carga y usuarios leídos */
+    private static final Histograma TIEMPO_CARGAR = Metricas.tiempo("usuarios.cargar");
+    private static final Contador FILAS_CARGADAS = Metricas.contador("usuarios.cargar.filas");
+
+    // Escritura atómica con suma de verificación y respaldo ("usuarios.csv.bak")
+    private final ArchivoAtomico archivo = new ArchivoAtomico(Paths.get(ARCHIVO_USUARIOS), ArchivoAtomico.RESPALDO_POR_DEFECTO);
+    // Snapshot binario, alternativa al CSV
+    private final ArchivoAtomico archivoBinario = new ArchivoAtomico(Paths.get(ARCHIVO_BINARIO), ArchivoAtomico.RESPALDO_POR_DEFECTO);
+    private volatile String ultimoError;
+    // Formato en el que se guarda (al cargar se usa el guardado más recientemente)
+    private final boolean binario;
+    
+    /**
+     * Crea el servicio guardando en CSV
+     */
+    public UsuarioPersistenceService() {
+        this(false);
+    }
+    
+    /**
+     * @param binario true para guardar en el snapshot binario en lugar del CSV
+     */
+    public UsuarioPersistenceService(boolean binario) {
+        this.binario = binario;
+    }
+    
+    /**
+     * Guarda la lista de usuarios en un archivo CSV (o en el snapshot binario si está activado).
+     * Se escribe en un temporal que se fuerza a disco y se renombra de forma atómica,
+     * así un corte a mitad de escritura no destruye el archivo anterior.
+     * @param usuarios Lista de usuarios a guardar
+     * @return true si el archivo se escribió correctamente
+     */
+    public boolean guardarUsuarios(List<Usuario> usuarios) {
+        ArchivoAtomico destino = binario ? archivoBinario : archivo;
+        long inicio = System.nanoTime();
+        try {
+            if (binario) {
+                SnapshotBinario.escribir(archivoBinario, SnapshotBinario.USUARIOS, 0, usuarios);
+            } else {
+                escribirCsv(usuarios);
+            }
+            TIEMPO_GUARDAR.registrarDesde(inicio);
+            BYTES_ESCRITOS.sumar(Files.size(destino.getDestino()));
+            
+            ultimoError = null;
+            System.out.println("Usuarios guardados exitosamente en " + destino.getDestino());
+            return true;
+            
+        } catch (IOException e) {
+            ERRORES_GUARDAR.incrementar();
+            ultimoError = "No se pudo guardar " + destino.getDestino() + ": " + e.getMessage();
+            System.err.println("Error al guardar usuarios: " + e.getMessage());
+            return false;
+        }
+    }
     
     /**
-     * Guarda la lista de usuarios en un archivo CSV
+     * Escribe el CSV con encabezado y una línea por usuario
      * @param usuarios Lista de usuarios a guardar
+     * @throws IOException Si no se pudo escribir el archivo
      */
-    public void guardarUsuarios(List<Usuario> usuarios) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(ARCHIVO_USUARIOS))) {
+    private void escribirCsv(List<Usuario> usuarios) throws IOException {
+        archivo.escribir(writer -> {
             // Escribir encabezado
-            writer.println(HEADER);
+            writer.write(HEADER);
+            writer.newLine();
             
             // Escribir cada usuario
             for (Usuario usuario : usuarios) {
                 String linea = escaparCSV(usuario.getNombre()) + SEPARADOR +
                               escaparCSV(usuario.getCorreo()) + SEPARADOR +
-                              escaparCSV(usuario.getRol());
-                writer.println(linea);
+                              escaparCSV(usuario.getRol()) + SEPARADOR +
+                              usuario.getId();
+                writer.write(linea);
+                writer.newLine();
             }
-            
-            System.out.println("Usuarios guardados exitosamente en " + ARCHIVO_USUARIOS);
-            
-        } catch (IOException e) {
-            System.err.println("Error al guardar usuarios: " + e.getMessage());
-        }
+        });
+    }
+    
+    /**
+     * @return Descripción del último error al guardar, o null si el último guardado fue correcto
+     */
+    public String getUltimoError() {
+        return ultimoError;
     }
     
     /**
-     * Carga la lista de usuarios desde un archivo CSV
+     * Carga la lista de usuarios desde el archivo CSV o el snapshot binario (el guardado más recientemente).
+     * Los archivos antiguos sin columna Id devuelven usuarios con ID 0 (sin asignar).
+     * El archivo se lee como UTF-8; si no es UTF-8 válido (archivos guardados con la
+     * codificación del sistema en versiones anteriores) se vuelve a leer como windows-1252.
      * @return Lista de usuarios cargados desde el archivo
      */
     public List<Usuario> cargarUsuarios() {
-        List<Usuario> usuarios = new ArrayList<>();
+        // Se carga el formato guardado más recientemente (el otro puede haber quedado desactualizado)
+        boolean leerBinario = archivoBinario.getUltimaModificacion() > archivo.getUltimaModificacion();
+        // Archivo con la suma de verificación correcta (o su respaldo)
+        Path origen = (leerBinario ? archivoBinario : archivo).archivoParaLeer();
         
         // Verificar si el archivo existe
-        if (!Files.exists(Paths.get(ARCHIVO_USUARIOS))) {
+        if (origen == null) {
             System.out.println("Archivo " + ARCHIVO_USUARIOS + " no existe. Iniciando con datos por defecto.");
-            return usuarios; // Retorna lista vacía
+            return new ArrayList<>(); // Retorna lista vacía
         }
         
-        try (BufferedReader reader = new BufferedReader(new FileReader(ARCHIVO_USUARIOS))) {
-            String linea;
-            boolean primeraLinea = true;
-            
-            while ((linea = reader.readLine()) != null) {
-                // Saltar el encabezado
-                if (primeraLinea) {
-                    primeraLinea = false;
-                    continue;
-                }
-                
-                // Procesar línea de datos
-                String[] campos = parsearLineaCSV(linea);
-                if (campos.length >= 3) {
-                    String nombre = campos[0].trim();
-                    String correo = campos[1].trim();
-                    String rol = campos[2].trim();
-                    
-                    usuarios.add(new Usuario(nombre, correo, rol));
-                }
+        long inicio = System.nanoTime();
+        try {
+            List<Usuario> usuarios;
+            if (leerBinario) {
+                // El binario se lee de una vez, sin separar líneas ni campos
+                usuarios = SnapshotBinario.leer(origen, SnapshotBinario.USUARIOS).getRegistros();
+            } else {
+                usuarios = leerCsv(origen);
             }
-            
-            System.out.println("Usuarios cargados exitosamente desde " + ARCHIVO_USUARIOS + ". Total: " + usuarios.size());
-            
+            TIEMPO_CARGAR.registrarDesde(inicio);
+            FILAS_CARGADAS.sumar(usuarios.size());
+            System.out.println("Usuarios cargados exitosamente desde " + origen + ". Total: " + usuarios.size());
+            return usuarios;
         } catch (IOException e) {
             System.err.println("Error al cargar usuarios: " + e.getMessage());
+            return new ArrayList<>();
         }
-        
+    }
+    
+    /**
+     * Lee el CSV como UTF-8 y, si no lo es, con la codificación anterior
+     * @param archivo Ruta del CSV
+     * @return Usuarios leídos, los que no tienen ID al final
+     * @throws IOException Si falla la lectura
+     */
+    private List<Usuario> leerCsv(Path archivo) throws IOException {
+        try {
+            return leerUsuarios(archivo, StandardCharsets.UTF_8);
+        } catch (CharacterCodingException e) {
+            System.out.println(ARCHIVO_USUARIOS + " no está en UTF-8; se lee como " + CODIFICACION_ANTERIOR
+                    + " y se guardará en UTF-8 en el próximo cambio.");
+            return leerUsuarios(archivo, Charset.forName(CODIFICACION_ANTERIOR));
+        }
+    }
+    
+    /**
+     * Lee el archivo con la codificación indicada; un byte inválido lanza
+     * CharacterCodingException en lugar de reemplazarse en silencio
+     * @param archivo Ruta del CSV
+     * @param charset Codificación a usar
+     * @return Usuarios leídos, los que no tienen ID al final
+     * @throws IOException Si falla la lectura o la decodificación
+     */
+    private List<Usuario> leerUsuarios(Path archivo, Charset charset) throws IOException {
+        List<Usuario> usuarios = new ArrayList<>();
+        List<Usuario> sinId = new ArrayList<>();
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        try (UsuarioCsvReader reader = new UsuarioCsvReader(
+                new InputStreamReader(Files.newInputStream(archivo), decoder))) {
+            // Saltar el encabezado
+            reader.saltarEncabezado();
+            
+            Usuario usuario;
+            while ((usuario = reader.siguiente()) != null) {
+                if (usuario.getId() > 0) {
+                    usuarios.add(usuario);
+                } else {
+                    sinId.add(usuario);
+                }
+            }
+        }
+        // Los usuarios sin ID van al final para que los IDs nuevos no choquen con los existentes
+        usuarios.addAll(sinId);
         return usuarios;
     }
     
@@ -94,7 +219,7 @@ public class UsuarioPersistenceService {
         if (texto == null) return "";
         
         // Si contiene coma, comilla o salto de línea, envolver en comillas
-        if (texto.contains(",") || texto.contains("\"") || texto.contains("\n")) {
+        if (texto.contains(",") || texto.contains("\"") || texto.contains("\n") || texto.contains("\r")) {
             // Escapar comillas duplicándolas
             texto = texto.replace("\"", "\"\"");
             return "\"" + texto + "\"";
@@ -102,41 +227,4 @@ public class UsuarioPersistenceService {
         
         return texto;
     }
-    
-    /**
-     * Parsea una línea CSV considerando comillas y comas dentro de campos
-     * @param linea Línea CSV a parsear
-     * @return Array de campos
-     */
-    private String[] parsearLineaCSV(String linea) {
-        List<String> campos = new ArrayList<>();
-        StringBuilder campoActual = new StringBuilder();
-        boolean dentroComillas = false;
-        
-        for (int i = 0; i < linea.length(); i++) {
-            char c = linea.charAt(i);
-            
-            if (c == '"') {
-                if (dentroComillas && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
-                    // Comilla escapada
-                    campoActual.append('"');
-                    i++; // Saltar la siguiente comilla
-                } else {
-                    // Cambiar estado de comillas
-                    dentroComillas = !dentroComillas;
-                }
-            } else if (c == ',' && !dentroComillas) {
-                // Separador de campo
-                campos.add(campoActual.toString());
-                campoActual = new StringBuilder();
-            } else {
-                campoActual.append(c);
-            }
-        }
-        
-        // Agregar el último campo
-        campos.add(campoActual.toString());
-        
-        return campos.toArray(new String[0]);
-    }
 }
@@ -0,0 +1,120 @@
+// Paquete de vistas
+package vallegrande.edu.pe.view;
+
+import vallegrande.edu.pe.model.ResultadoBusqueda;
+import vallegrande.edu.pe.model.TextoBusqueda;
+
+import javax.swing.*;                       // Timer y SwingUtilities
+import javax.swing.event.DocumentEvent;     // eventos al cambiar texto
+import javax.swing.event.DocumentListener;  // escucha cambios del campo de búsqueda
+import java.util.concurrent.ExecutorService; // hilo de búsqueda
+import java.util.concurrent.Executors;       // fábrica de ejecutores
+import java.util.concurrent.Future;          // búsqueda en curso (para cancelarla)
+
+// Búsqueda en tiempo real sin bloquear la interfaz:
+// - espera a que el usuario deje de escribir antes de buscar,
+// - ejecuta la búsqueda en un hilo de fondo y cancela la anterior si llega otra tecla,
+// - si el nuevo texto contiene al anterior, solo revisa las coincidencias previas.
+public class BusquedaDiferida {
+
+    // Motor que realiza la búsqueda (normalmente un método del controlador)
+    public interface Motor {
+        ResultadoBusqueda buscar(String texto, ResultadoBusqueda anterior);
+    }
+
+    // Milisegundos sin teclear antes de lanzar la búsqueda
+    private static final int ESPERA_MS = 200;
+
+    private final JTextField campo;
+    private final Motor motor;
+    private final RegistroTableModel<?> modelo;
+    private final Timer timer;
+    private final ExecutorService ejecutor;
+
+    // Estado que solo se toca desde el hilo de Swing
+    private Future<?> enCurso;
+    private long generacion;
+    private String ultimoTexto;
+    private ResultadoBusqueda ultimoResultado;
+
+    public BusquedaDiferida(JTextField campo, Motor motor, RegistroTableModel<?> modelo) {
+        this.campo = campo;
+        this.motor = motor;
+        this.modelo = modelo;
+        // Temporizador de una sola vez que se reinicia con cada tecla
+        this.timer = new Timer(ESPERA_MS, e -> buscar());
+        this.timer.setRepeats(false);
+        // Si un cambio no se puede aplicar al filtro fila por fila, el modelo pide repetir la búsqueda
+        modelo.setRebuscar(this::buscarAhora);
+        this.ejecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "busqueda");
+            t.setDaemon(true);
+            return t;
+        });
+        campo.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+        });
+    }
+
+    // Busca de inmediato con el texto actual (por ejemplo, después de agregar o eliminar un registro)
+    public void buscarAhora() {
+        timer.stop();
+        buscar();
+    }
+
+    // Detiene el temporizador y el hilo de búsqueda (al cerrar la ventana)
+    public void cerrar() {
+        timer.stop();
+        ejecutor.shutdownNow();
+    }
+
+    // Lanza la búsqueda en segundo plano; se ejecuta en el hilo de Swing
+    private void buscar() {
+        String texto = TextoBusqueda.normalizar(campo.getText());
+        long miGeneracion = ++generacion;
+        // Una búsqueda más reciente reemplaza a la que esté en curso
+        if (enCurso != null) {
+            enCurso.cancel(true);
+            enCurso = null;
+        }
+        // Sin texto se muestran todos los registros sin buscar
+        if (texto.isEmpty()) {
+            ultimoTexto = null;
+            ultimoResultado = null;
+            modelo.mostrarTodos();
+            return;
+        }
+        // Si el texto nuevo contiene al anterior, sus resultados son un subconjunto de los anteriores
+        ResultadoBusqueda anterior = ultimoTexto != null && texto.contains(ultimoTexto) ? ultimoResultado : null;
+        enCurso = ejecutor.submit(() -> {
+            ResultadoBusqueda resultado = motor.buscar(texto, anterior);
+            if (resultado == null) {
+                return; // cancelada
+            }
+            SwingUtilities.invokeLater(() -> {
+                // Si mientras tanto se lanzó otra búsqueda, este resultado ya no sirve
+                if (miGeneracion != generacion) {
+                    return;
+                }
+                enCurso = null;
+                ultimoTexto = texto;
+                ultimoResultado = resultado;
+                // Si mientras se buscaba ya se aplicaron cambios posteriores, el resultado está desactualizado
+                if (!modelo.mostrarFiltrados(resultado.getPosiciones(), resultado.getVersion(), texto)) {
+                    buscar();
+                }
+            });
+        });
+    }
+}
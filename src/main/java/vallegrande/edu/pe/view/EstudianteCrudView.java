@@ -2,26 +2,39 @@
 package vallegrande.edu.pe.view;
 
 import vallegrande.edu.pe.controller.EstudianteController;
+import vallegrande.edu.pe.model.CambioRegistro;
 import vallegrande.edu.pe.model.Estudiante;
+import vallegrande.edu.pe.metricas.Contador;       // métricas de la vista
+import vallegrande.edu.pe.metricas.Histograma;
+import vallegrande.edu.pe.metricas.Metricas;
 
 import javax.swing.*;                       // componentes Swing
-import javax.swing.event.DocumentEvent;     // eventos al cambiar texto
-import javax.swing.event.DocumentListener;  // escucha cambios del campo de búsqueda
-import javax.swing.table.DefaultTableModel; // modelo de tabla
 import java.awt.*;                          // layouts y colores
-import java.util.List;                      // listas
+import java.awt.event.WindowAdapter;        // eventos de ventana
+import java.awt.event.WindowEvent;          // evento de cierre
+import java.util.function.Consumer;         // listener de cambios
 
 // Vista Swing para gestionar estudiantes (CRUD con búsqueda, edición y persistencia)
 public class EstudianteCrudView extends JFrame {
 
+    // Métricas: tiempo que las operaciones bloquean el hilo de Swing (sin contar los diálogos),
+    // tiempo de validación y validaciones rechazadas (compartidas con la vista de usuarios)
+    private static final Histograma BLOQUEO_EDT = Metricas.tiempo("edt.estudiantes");
+    private static final Histograma TIEMPO_VALIDAR = Metricas.tiempo("vista.validar");
+    private static final Contador VALIDACIONES_RECHAZADAS = Metricas.contador("vista.validar.rechazadas");
+
     // Referencia al controlador que maneja la lógica y persistencia
     private final EstudianteController controller;
-    // Modelo de la tabla que muestra los estudiantes
-    private final DefaultTableModel tableModel;
+    // Modelo de la tabla que muestra los estudiantes (lee directamente del controlador)
+    private final RegistroTableModel<Estudiante> tableModel;
     // Campo de búsqueda para filtrar la tabla
     private final JTextField txtSearch = new JTextField(20);
     // Tabla que presenta los datos
     private final JTable table;
+    // Búsqueda diferida y en segundo plano sobre el campo de búsqueda
+    private final BusquedaDiferida busqueda;
+    // Último error de guardado ya mostrado (para no repetir el aviso en cada cambio)
+    private String ultimoErrorAvisado;
 
     // Constructor que recibe el controlador y construye la interfaz
     public EstudianteCrudView(EstudianteController controller) {
@@ -34,8 +47,10 @@ public class EstudianteCrudView extends JFrame {
         setLocationRelativeTo(null);                          // centrar en pantalla
         setLayout(new BorderLayout(8, 8));                    // layout con separación
 
-        // Inicializa el modelo de la tabla con columnas
-        tableModel = new DefaultTableModel(new Object[]{"Nombre", "Correo", "Curso"}, 0);
+        // Inicializa el modelo de la tabla con columnas; las filas se piden al controlador por páginas
+        tableModel = new RegistroTableModel<>(new String[]{"Nombre", "Correo", "Curso"},
+                controller::contarEstudiantes, controller::paginaEstudiantes, controller::versionDatos,
+                (e, col) -> col == 0 ? e.getNombre() : col == 1 ? e.getCorreo() : e.getCurso());
         table = new JTable(tableModel);                       // crea la tabla con el modelo
         table.setRowHeight(26);                               // altura de filas
         table.setFont(new Font("SansSerif", Font.PLAIN, 14)); // fuente de contenido
@@ -47,24 +62,8 @@ public class EstudianteCrudView extends JFrame {
         searchPanel.add(new JLabel("Buscar:"));               // etiqueta
         searchPanel.add(txtSearch);                           // campo de búsqueda
 
-        // Añadimos un listener al documento del campo de búsqueda para filtrar en tiempo real
-        txtSearch.getDocument().addDocumentListener(new DocumentListener() {
-            // Método invocado cuando cambia el documento (insert)
-            @Override
-            public void insertUpdate(DocumentEvent e) {
-                filtrar();
-            }
-            // Método invocado cuando cambia el documento (remove)
-            @Override
-            public void removeUpdate(DocumentEvent e) {
-                filtrar();
-            }
-            // Método invocado cuando cambia el documento (change)
-            @Override
-            public void changedUpdate(DocumentEvent e) {
-                filtrar();
-            }
-        });
+        // Filtra en tiempo real: espera a que se deje de escribir y busca fuera del hilo de Swing
+        busqueda = new BusquedaDiferida(txtSearch, controller::buscarEstudiantes, tableModel);
 
         // Subpanel derecho: botones de acción (Agregar, Editar, Eliminar)
         JPanel actionsPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
@@ -94,36 +93,33 @@ public class EstudianteCrudView extends JFrame {
                 String curso = cursoField.getText().trim();
 
                 // Validación básica: no vacíos y formato básico de correo
-                if (nombre.isEmpty() || correo.isEmpty() || curso.isEmpty()) {
-                    JOptionPane.showMessageDialog(this, "Complete todos los campos.", "Error", JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
-                if (!isValidEmail(correo)) {
-                    JOptionPane.showMessageDialog(this, "Ingrese un correo válido.", "Error", JOptionPane.ERROR_MESSAGE);
+                if (!validarDatos(nombre, correo, curso)) {
                     return;
                 }
-                // Verificar si ya existe el correo
-                if (controller.existeCorreo(correo)) {
+                // Llamamos al controlador para agregar (rechaza correos repetidos) y recargamos la tabla
+                long inicio = System.nanoTime();
+                boolean agregado = controller.addEstudiante(nombre, correo, curso);
+                BLOQUEO_EDT.registrarDesde(inicio);
+                if (!agregado) {
                     JOptionPane.showMessageDialog(this, "Ya existe un estudiante con ese correo.", "Error", JOptionPane.ERROR_MESSAGE);
                     return;
                 }
-                // Llamamos al controlador para agregar y recargamos la tabla
-                controller.addEstudiante(nombre, correo, curso);
-                cargarTodos();
+                avisarErrorGuardado(); // la tabla se actualiza sola con el evento de cambio
             }
         });
 
         // Acción del botón Editar: permite modificar la fila seleccionada
         editButton.addActionListener(e -> {
-            int row = table.getSelectedRow();                    // fila seleccionada en la vista
-            if (row < 0) {                                      // si no hay fila seleccionada
+            long id = idSeleccionado();                          // ID del estudiante seleccionado
+            Estudiante actual = id > 0 ? controller.obtenerEstudiante(id) : null;
+            if (actual == null) {                               // si no hay fila seleccionada
                 JOptionPane.showMessageDialog(this, "Seleccione un estudiante para editar.", "Aviso", JOptionPane.INFORMATION_MESSAGE);
                 return;
             }
-            // Obtenemos los valores actuales de la tabla
-            String currentNombre = (String) table.getValueAt(row, 0);
-            String currentCorreo = (String) table.getValueAt(row, 1);
-            String currentCurso = (String) table.getValueAt(row, 2);
+            // Obtenemos los valores actuales del estudiante
+            String currentNombre = actual.getNombre();
+            String currentCorreo = actual.getCorreo();
+            String currentCurso = actual.getCurso();
 
             // Creamos campos pre-llenados
             JTextField nombreField = new JTextField(currentNombre);
@@ -145,44 +141,38 @@ public class EstudianteCrudView extends JFrame {
                 String curso = cursoField.getText().trim();
 
                 // Validaciones
-                if (nombre.isEmpty() || correo.isEmpty() || curso.isEmpty()) {
-                    JOptionPane.showMessageDialog(this, "Complete todos los campos.", "Error", JOptionPane.ERROR_MESSAGE);
+                if (!validarDatos(nombre, correo, curso)) {
                     return;
                 }
-                if (!isValidEmail(correo)) {
-                    JOptionPane.showMessageDialog(this, "Ingrese un correo válido.", "Error", JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
-                // Si el correo cambió y ya existe otro con ese correo, bloqueamos
-                // Obtener el estudiante original desde el controlador por índice
-                List<Estudiante> listaCompleta = controller.listarEstudiantes();
-                Estudiante original = listaCompleta.get(row);
-                if (!original.getCorreo().equalsIgnoreCase(correo) && controller.existeCorreo(correo)) {
+                // Creamos un nuevo objeto con los datos modificados
+                Estudiante actualizado = new Estudiante(nombre, correo, curso);
+                // Llamamos al controlador para actualizar; si el correo ya pertenece a otro estudiante, bloqueamos
+                long inicio = System.nanoTime();
+                boolean editado = controller.updateEstudiante(id, actualizado);
+                BLOQUEO_EDT.registrarDesde(inicio);
+                if (!editado) {
                     JOptionPane.showMessageDialog(this, "Ya existe otro estudiante con ese correo.", "Error", JOptionPane.ERROR_MESSAGE);
                     return;
                 }
-
-                // Creamos un nuevo objeto con los datos modificados
-                Estudiante actualizado = new Estudiante(nombre, correo, curso);
-                // Llamamos al controlador para actualizar y recargamos la tabla
-                controller.updateEstudiante(row, actualizado);
-                cargarTodos();
+                avisarErrorGuardado(); // la tabla se actualiza sola con el evento de cambio
             }
         });
 
         // Acción del botón Eliminar: elimina la fila seleccionada con confirmación
         deleteButton.addActionListener(e -> {
-            int row = table.getSelectedRow();                    // fila seleccionada
-            if (row < 0) {                                      // si no hay fila seleccionada
+            long id = idSeleccionado();                          // ID de la fila seleccionada
+            if (id <= 0) {                                      // si no hay fila seleccionada
                 JOptionPane.showMessageDialog(this, "Seleccione un estudiante para eliminar.", "Aviso", JOptionPane.INFORMATION_MESSAGE);
                 return;
             }
             // Confirmación antes de borrar
             int confirm = JOptionPane.showConfirmDialog(this, "¿Eliminar estudiante seleccionado?", "Confirmar", JOptionPane.YES_NO_OPTION);
             if (confirm == JOptionPane.YES_OPTION) {
-                // Llamada al controlador para eliminar por índice y recarga
-                controller.deleteEstudiante(row);
-                cargarTodos();
+                // Llamada al controlador para eliminar por ID y recarga
+                long inicio = System.nanoTime();
+                controller.deleteEstudiante(id);
+                BLOQUEO_EDT.registrarDesde(inicio);
+                avisarErrorGuardado(); // la tabla se actualiza sola con el evento de cambio
             }
         });
 
@@ -203,40 +193,72 @@ public class EstudianteCrudView extends JFrame {
         JPanel bottom = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         JButton btnRefresh = new JButton("🔄 Recargar");
         btnRefresh.addActionListener(e -> cargarTodos());     // recarga manual
+        // Importación masiva desde un CSV (en segundo plano, con avance y cancelación)
+        JButton btnImportar = new JButton("📥 Importar CSV");
+        btnImportar.addActionListener(e -> ImportacionDialog.importar(this, "Importar estudiantes",
+                "nombre;correo;curso", controller::importarCsv, this::avisarErrorGuardado));
+        // Exportación de lo que muestra la búsqueda actual (en segundo plano, leyendo por páginas)
+        JButton btnExportar = new JButton("📤 Exportar");
+        btnExportar.addActionListener(e -> ExportacionDialog.exportar(this, "Exportar estudiantes",
+                "estudiantes", txtSearch.getText(), controller::exportar));
+        bottom.add(btnImportar);
+        bottom.add(btnExportar);
         bottom.add(btnRefresh);
         add(bottom, BorderLayout.SOUTH);                      // añade al sur
 
+        // Cambios hechos desde cualquier ventana: cada uno se aplica a la tabla en el hilo de Swing
+        Consumer<CambioRegistro> cambiosListener = cambio -> SwingUtilities.invokeLater(() -> tableModel.aplicar(cambio));
+        controller.addCambioListener(cambiosListener);
+
+        // Al cerrar la ventana se deja de escuchar cambios y se detiene el hilo de búsqueda
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                controller.removeCambioListener(cambiosListener);
+                busqueda.cerrar();
+            }
+        });
+
         // Finalmente cargamos todos los estudiantes en la tabla
         cargarTodos();
     }
 
-    // Método que filtra la tabla según el texto de búsqueda
-    private void filtrar() {
-        String text = txtSearch.getText().trim().toLowerCase(); // texto ingresado en minúsculas
-        // Si el texto está vacío, cargamos todos los estudiantes
-        if (text.isEmpty()) {
-            cargarTodos();
-            return;
-        }
-        // Si hay texto, filtramos la lista del controlador
-        List<Estudiante> todos = controller.listarEstudiantes();
-        tableModel.setRowCount(0); // limpiamos la tabla
-        // Recorremos y agregamos solo los que contengan el texto en nombre o correo
-        for (Estudiante e : todos) {
-            if (e.getNombre().toLowerCase().contains(text) || e.getCorreo().toLowerCase().contains(text)) {
-                tableModel.addRow(new Object[]{e.getNombre(), e.getCorreo(), e.getCurso()});
-            }
+    // Muestra un aviso si el último cambio no se pudo escribir en disco (solo una vez por error)
+    private void avisarErrorGuardado() {
+        String error = controller.getErrorGuardado();
+        if (error != null && !error.equals(ultimoErrorAvisado)) {
+            JOptionPane.showMessageDialog(this, "Los cambios no se pudieron guardar en disco.\n" + error,
+                    "Error al guardar", JOptionPane.WARNING_MESSAGE);
         }
+        ultimoErrorAvisado = error;
     }
 
-    // Carga todos los estudiantes desde el controlador y llena la tabla
+    // Muestra todos los estudiantes del controlador en la tabla (sin copiarlos)
     private void cargarTodos() {
-        tableModel.setRowCount(0);                          // vacía la tabla
-        // Obtenemos la lista completa desde el controlador
-        for (Estudiante e : controller.listarEstudiantes()) {
-            // Añade una fila por cada estudiante
-            tableModel.addRow(new Object[]{e.getNombre(), e.getCorreo(), e.getCurso()});
+        tableModel.mostrarTodos();
+    }
+
+    // Devuelve el ID del estudiante de la fila seleccionada (0 si no hay selección)
+    private long idSeleccionado() {
+        int row = table.getSelectedRow();                   // fila seleccionada en la vista
+        if (row < 0) return 0;
+        // Convertimos la fila de la vista a la del modelo y el modelo la resuelve a un ID
+        return tableModel.getIdAt(table.convertRowIndexToModel(row));
+    }
+
+    // Valida los campos del formulario; si algo falla avisa al usuario y devuelve false
+    private boolean validarDatos(String nombre, String correo, String curso) {
+        long inicio = System.nanoTime();
+        String error = nombre.isEmpty() || correo.isEmpty() || curso.isEmpty() ? "Complete todos los campos."
+                : !isValidEmail(correo) ? "Ingrese un correo válido." : null;
+        // Solo se mide la validación en sí; el aviso espera al usuario
+        TIEMPO_VALIDAR.registrarDesde(inicio);
+        if (error != null) {
+            VALIDACIONES_RECHAZADAS.incrementar();
+            JOptionPane.showMessageDialog(this, error, "Error", JOptionPane.ERROR_MESSAGE);
+            return false;
         }
+        return true;
     }
 
     // Validación básica de correo (verifica presencia de '@' y '.')
@@ -0,0 +1,106 @@
+// Paquete de vistas
+package vallegrande.edu.pe.view;
+
+import vallegrande.edu.pe.service.ExportadorRegistros;
+
+import javax.swing.*;                        // componentes Swing
+import javax.swing.filechooser.FileNameExtensionFilter; // filtros CSV / JSON
+import java.awt.*;                           // layouts
+import java.io.File;                         // archivo elegido
+import java.nio.file.Path;                   // ruta del archivo
+import java.util.List;                       // avances publicados por el worker
+import java.util.concurrent.ExecutionException; // error dentro del worker
+import java.util.function.BooleanSupplier;   // consulta de cancelación
+
+// Diálogo de exportación: elige archivo y formato, escribe los registros de la búsqueda actual
+// con un SwingWorker (fuera del hilo de Swing) mostrando el avance y permite cancelar
+public class ExportacionDialog extends ProgresoDialog {
+
+    // Exportación que se ejecuta en segundo plano (normalmente un método del controlador)
+    public interface Tarea {
+        long exportar(String texto, Path archivo, ExportadorRegistros.Formato formato,
+                      ExportadorRegistros.Progreso progreso, BooleanSupplier cancelado) throws Exception;
+    }
+
+    private ExportacionDialog(Frame owner, String titulo) {
+        super(owner, titulo);
+    }
+
+    // Pide el archivo de destino y exporta los registros que coinciden con "texto" (todos si está vacío)
+    public static void exportar(Frame owner, String titulo, String nombreArchivo, String texto, Tarea tarea) {
+        JFileChooser selector = new JFileChooser();
+        selector.setDialogTitle(titulo);
+        FileNameExtensionFilter csv = new FileNameExtensionFilter("CSV (*.csv)", "csv");
+        FileNameExtensionFilter json = new FileNameExtensionFilter("JSON (*.json)", "json");
+        selector.addChoosableFileFilter(csv);
+        selector.addChoosableFileFilter(json);
+        selector.setAcceptAllFileFilterUsed(false);
+        selector.setFileFilter(csv);
+        selector.setSelectedFile(new File(nombreArchivo + ".csv"));
+        if (selector.showSaveDialog(owner) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        // El formato sale de la extensión escrita o, si no tiene, del filtro elegido
+        File archivo = selector.getSelectedFile();
+        String nombre = archivo.getName().toLowerCase();
+        ExportadorRegistros.Formato formato;
+        if (nombre.endsWith(".json")) {
+            formato = ExportadorRegistros.Formato.JSON;
+        } else if (nombre.endsWith(".csv")) {
+            formato = ExportadorRegistros.Formato.CSV;
+        } else {
+            formato = selector.getFileFilter() == json ? ExportadorRegistros.Formato.JSON : ExportadorRegistros.Formato.CSV;
+            archivo = new File(archivo.getPath() + "." + formato.getExtension());
+        }
+        if (archivo.exists()) {
+            int confirm = JOptionPane.showConfirmDialog(owner, "El archivo ya existe. ¿Reemplazarlo?",
+                    "Confirmar", JOptionPane.YES_NO_OPTION);
+            if (confirm != JOptionPane.YES_OPTION) return;
+        }
+        ExportacionDialog dialogo = new ExportacionDialog(owner, titulo);
+        dialogo.ejecutar(texto, archivo.toPath(), formato, tarea);
+    }
+
+    // Lanza el worker y muestra el diálogo (modal: bloquea la ventana dueña hasta terminar)
+    private void ejecutar(String texto, Path archivo, ExportadorRegistros.Formato formato, Tarea tarea) {
+        SwingWorker<Long, long[]> worker = new SwingWorker<>() {
+            @Override
+            protected Long doInBackground() throws Exception {
+                return tarea.exportar(texto, archivo, formato,
+                        (escritos, total) -> publish(new long[]{escritos, total}),
+                        cancelado::get);
+            }
+
+            @Override
+            protected void process(List<long[]> avances) {
+                // Solo interesa el último avance publicado
+                long[] ultimo = avances.get(avances.size() - 1);
+                barra.setValue(ultimo[1] == 0 ? 100 : (int) (ultimo[0] * 100 / ultimo[1]));
+                etiqueta.setText(String.format("Exportando… %,d de %,d registros", ultimo[0], ultimo[1]));
+            }
+
+            @Override
+            protected void done() {
+                dispose();
+                try {
+                    long escritos = get();
+                    if (escritos < 0) {
+                        JOptionPane.showMessageDialog(getOwner(), "Exportación cancelada.",
+                                "Exportación", JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(getOwner(),
+                                String.format("Se exportaron %,d registros a:%n%s", escritos, archivo),
+                                "Exportación terminada", JOptionPane.INFORMATION_MESSAGE);
+                    }
+                } catch (ExecutionException ex) {
+                    Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                    JOptionPane.showMessageDialog(getOwner(), "No se pudo exportar:\n" + causa.getMessage(),
+                            "Error de exportación", JOptionPane.ERROR_MESSAGE);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        mostrarMientras(worker);
+    }
+}
@@ -0,0 +1,135 @@
+// Paquete de vistas
+package vallegrande.edu.pe.view;
+
+import vallegrande.edu.pe.service.ImportadorCsv;
+
+import javax.swing.*;                        // componentes Swing
+import javax.swing.filechooser.FileNameExtensionFilter; // filtro de archivos CSV
+import java.awt.*;                           // layouts
+import java.io.File;                         // archivo elegido
+import java.nio.file.Path;                   // ruta del archivo
+import java.util.List;                       // avances publicados por el worker
+import java.util.concurrent.ExecutionException; // error dentro del worker
+import java.util.function.BooleanSupplier;   // consulta de cancelación
+
+// Diálogo de importación masiva: elige un CSV, lo importa con un SwingWorker (fuera del hilo de Swing)
+// mostrando el avance, permite cancelar y al final muestra el resumen con las filas rechazadas
+public class ImportacionDialog extends ProgresoDialog {
+
+    // Importación que se ejecuta en segundo plano (normalmente un método del controlador)
+    public interface Tarea {
+        ImportadorCsv.Resultado importar(Path archivo, ImportadorCsv.Progreso progreso, BooleanSupplier cancelado) throws Exception;
+    }
+
+    // Avance publicado por el worker hacia el hilo de Swing
+    private static final class Avance {
+        final int porcentaje;
+        final long filas;
+        final String etapa;
+
+        Avance(int porcentaje, long filas, String etapa) {
+            this.porcentaje = porcentaje;
+            this.filas = filas;
+            this.etapa = etapa;
+        }
+    }
+
+    private ImportacionDialog(Frame owner, String titulo) {
+        super(owner, titulo);
+    }
+
+    // Pide elegir un CSV y lo importa; "alTerminar" (opcional) se ejecuta en el hilo de Swing si se importó algo
+    public static void importar(Frame owner, String titulo, String ayudaFormato, Tarea tarea, Runnable alTerminar) {
+        JFileChooser selector = new JFileChooser();
+        selector.setDialogTitle(titulo + " (" + ayudaFormato + ")");
+        selector.setFileFilter(new FileNameExtensionFilter("Archivos CSV", "csv", "txt"));
+        if (selector.showOpenDialog(owner) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File archivo = selector.getSelectedFile();
+        ImportacionDialog dialogo = new ImportacionDialog(owner, titulo);
+        dialogo.ejecutar(archivo.toPath(), tarea, alTerminar);
+    }
+
+    // Lanza el worker y muestra el diálogo (modal: bloquea la ventana dueña hasta terminar)
+    private void ejecutar(Path archivo, Tarea tarea, Runnable alTerminar) {
+        SwingWorker<ImportadorCsv.Resultado, Avance> worker = new SwingWorker<>() {
+            @Override
+            protected ImportadorCsv.Resultado doInBackground() throws Exception {
+                return tarea.importar(archivo,
+                        (porcentaje, filas, etapa) -> publish(new Avance(porcentaje, filas, etapa)),
+                        cancelado::get);
+            }
+
+            @Override
+            protected void process(List<Avance> avances) {
+                // Solo interesa el último avance publicado
+                Avance ultimo = avances.get(avances.size() - 1);
+                barra.setValue(ultimo.porcentaje);
+                etiqueta.setText(ultimo.etapa + "… " + String.format("%,d", ultimo.filas) + " filas leídas");
+                // Al guardar ya no se puede cancelar (es una única operación sobre el repositorio)
+                if (ultimo.etapa.startsWith("Guardando")) {
+                    barra.setIndeterminate(true);
+                    cancelar.setEnabled(false);
+                }
+            }
+
+            @Override
+            protected void done() {
+                dispose();
+                try {
+                    ImportadorCsv.Resultado resultado = get();
+                    if (resultado.isCancelada()) {
+                        JOptionPane.showMessageDialog(getOwner(), "Importación cancelada: no se agregó ningún registro.",
+                                "Importación", JOptionPane.INFORMATION_MESSAGE);
+                        return;
+                    }
+                    if (resultado.getImportados() > 0 && alTerminar != null) {
+                        alTerminar.run();
+                    }
+                    mostrarResumen(resultado);
+                } catch (ExecutionException ex) {
+                    Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                    JOptionPane.showMessageDialog(getOwner(), "No se pudo importar el archivo:\n" + causa.getMessage(),
+                            "Error de importación", JOptionPane.ERROR_MESSAGE);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        mostrarMientras(worker);
+    }
+
+    // Muestra cuántas filas se importaron y el detalle de las rechazadas; si el repositorio no pudo
+    // guardar, el error va primero (lo importado puede estar solo en memoria)
+    private void mostrarResumen(ImportadorCsv.Resultado resultado) {
+        String resumen = String.format("Filas leídas: %,d%nImportadas: %,d%nRechazadas: %,d",
+                resultado.getLeidas(), resultado.getImportados(), resultado.getRechazados());
+        if (resultado.getErrorGuardado() != null) {
+            resumen = "No se pudieron guardar los cambios: " + resultado.getErrorGuardado() + "\n\n" + resumen;
+        }
+        if (resultado.getRechazados() == 0 && resultado.getErrorGuardado() != null) {
+            JOptionPane.showMessageDialog(getOwner(), resumen, "Importación sin guardar", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (resultado.getRechazados() == 0) {
+            JOptionPane.showMessageDialog(getOwner(), resumen, "Importación terminada", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        // Lista de rechazos (las primeras en pantalla, todas en el reporte)
+        StringBuilder detalle = new StringBuilder();
+        for (String rechazo : resultado.getDetalleRechazos()) {
+            detalle.append(rechazo).append('\n');
+        }
+        if (resultado.getRechazados() > resultado.getDetalleRechazos().size()) {
+            detalle.append("…\n");
+        }
+        JTextArea area = new JTextArea(detalle.toString(), 12, 50);
+        area.setEditable(false);
+        JPanel panel = new JPanel(new BorderLayout(8, 8));
+        panel.add(new JLabel("<html>" + resumen.replace("\n", "<br>")
+                + "<br>Reporte completo: " + resultado.getReporte() + "</html>"), BorderLayout.NORTH);
+        panel.add(new JScrollPane(area), BorderLayout.CENTER);
+        JOptionPane.showMessageDialog(getOwner(), panel, "Importación terminada", JOptionPane.WARNING_MESSAGE);
+    }
+}
@@ -1,24 +1,33 @@
 // Definición del paquete donde se encuentra esta clase
 package vallegrande.edu.pe.view;
 
-// Importa el controlador de usuarios para manejar la lógica
+// Importa el contexto que comparte los controladores entre todas las ventanas
+import vallegrande.edu.pe.AppContext;
 import vallegrande.edu.pe.controller.EstudianteController;
 import vallegrande.edu.pe.controller.UsuarioController;
+import vallegrande.edu.pe.model.CambioRegistro;
 
 // Importa clases de Swing y AWT necesarias para la interfaz gráfica
 import javax.swing.*;
 import java.awt.*;
 import javax.swing.border.EmptyBorder;
+import java.util.concurrent.CompletableFuture;   // carga de datos en segundo plano
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 // Clase que representa la ventana principal tipo "mini página web" del instituto
 public class MiniPaginaView extends JFrame {
 
-    // Controlador de usuarios para gestionar acciones relacionadas con usuarios
-    private final UsuarioController controller;
+    // Contexto de la aplicación: un único controlador por entidad, compartido por todas las ventanas
+    private final AppContext contexto;
 
-    // Constructor que recibe el controlador de usuarios
-    public MiniPaginaView(UsuarioController controller) {
-        this.controller = controller;   // Asigna el controlador recibido
+    // Constructor que recibe el contexto de la aplicación
+    public MiniPaginaView(AppContext contexto) {
+        this.contexto = contexto;       // Asigna el contexto recibido
         initUI();                        // Inicializa la interfaz gráfica
     }
 
@@ -96,19 +105,20 @@ public class MiniPaginaView extends JFrame {
         menuPanel.setBorder(new EmptyBorder(28, 64, 0, 64));
 
         // Botones tipo "tarjeta"
-        JButton btnUsuarios = crearBotonMenu(
-                "<html><div style='text-align:center;'><div style='font-size:42px; margin-bottom:6px;'>\uD83D\uDC64</div><div>Administrar Usuarios</div></div></html>",
+        JButton btnUsuarios = crearBotonMenu(textoTarjeta("\uD83D\uDC64", "Administrar Usuarios", null),
                 new Color(39, 63, 78));
-        btnUsuarios.addActionListener(e -> new UsuarioCrudView(controller).setVisible(true));
+        // Todas las ventanas usan el mismo controlador; los datos se cargan en segundo plano y la
+        // ventana CRUD se construye recién al hacer clic
+        new Tarjeta<>(btnUsuarios, "\uD83D\uDC64", "Administrar Usuarios", contexto::cargarUsuarios,
+                UsuarioController::contarUsuarios, UsuarioController::addCambioListener, UsuarioCrudView::new);
 
-        JButton btnDocentes = crearBotonMenu(
-                "<html><div style='text-align:center;'><div style='font-size:42px; margin-bottom:6px;'>\uD83D\uDC68\u200D\uD83C\uDF93</div><div>Administrar Docentes</div></div></html>",
+        JButton btnDocentes = crearBotonMenu(textoTarjeta("\uD83D\uDC68\u200D\uD83C\uDF93", "Administrar Docentes", null),
                 new Color(39, 63, 78));
 
-        JButton btnEstudiantes = crearBotonMenu(
-                "<html><div style='text-align:center;'><div style='font-size:42px; margin-bottom:6px;'>\uD83C\uDF93</div><div>Administrar Estudiantes</div></div></html>",
+        JButton btnEstudiantes = crearBotonMenu(textoTarjeta("\uD83C\uDF93", "Administrar Estudiantes", null),
                 new Color(32, 122, 102));
-        btnEstudiantes.addActionListener(e -> new EstudianteCrudView(new EstudianteController()).setVisible(true));
+        new Tarjeta<>(btnEstudiantes, "\uD83C\uDF93", "Administrar Estudiantes", contexto::cargarEstudiantes,
+                EstudianteController::contarEstudiantes, EstudianteController::addCambioListener, EstudianteCrudView::new);
 
 
         // Añade los botones al panel de menú
@@ -133,6 +143,103 @@ public class MiniPaginaView extends JFrame {
         add(footer, BorderLayout.SOUTH);
     }
 
+    // Texto HTML de una tarjeta: ícono, título y una línea de estado opcional (carga de datos)
+    private static String textoTarjeta(String icono, String titulo, String estado) {
+        return "<html><div style='text-align:center;'><div style='font-size:42px; margin-bottom:6px;'>" + icono
+                + "</div><div>" + titulo + "</div>"
+                + (estado == null ? "" : "<div style='font-size:11px; font-weight:400; color:#a9bcc7; margin-top:4px;'>" + estado + "</div>")
+                + "</div></html>";
+    }
+
+    // Tarjeta del menú que abre una ventana CRUD: muestra el avance de la carga de su controlador y,
+    // si se hace clic mientras carga, abre la ventana apenas terminan de cargarse los datos
+    private final class Tarjeta<C> {
+        private final JButton boton;
+        private final String icono;
+        private final String titulo;
+        private final Supplier<CompletableFuture<C>> carga;
+        private final Function<C, Integer> contar;
+        private final BiConsumer<C, Consumer<CambioRegistro>> suscribir;
+        private final Function<C, JFrame> abrir;
+        // Clic recibido mientras los datos cargaban (solo se usa en el hilo de Swing)
+        private boolean abrirAlCargar;
+        // Ya escucha los cambios del controlador (solo se usa en el hilo de Swing)
+        private boolean suscrita;
+        // Hay un recuento pendiente en la cola de Swing: una importación de miles de filas lo repinta una vez
+        private final AtomicBoolean recuentoPendiente = new AtomicBoolean();
+
+        Tarjeta(JButton boton, String icono, String titulo, Supplier<CompletableFuture<C>> carga,
+                Function<C, Integer> contar, BiConsumer<C, Consumer<CambioRegistro>> suscribir, Function<C, JFrame> abrir) {
+            this.boton = boton;
+            this.icono = icono;
+            this.titulo = titulo;
+            this.carga = carga;
+            this.contar = contar;
+            this.suscribir = suscribir;
+            this.abrir = abrir;
+            boton.addActionListener(e -> clic());
+            esperar(carga.get());
+        }
+
+        // Muestra "Cargando..." y, cuando la carga termina, el resultado (en el hilo de Swing)
+        private void esperar(CompletableFuture<C> futuro) {
+            if (!futuro.isDone()) {
+                boton.setText(textoTarjeta(icono, titulo, "⏳ Cargando datos…"));
+            }
+            futuro.whenComplete((controlador, error) -> SwingUtilities.invokeLater(() -> terminar(controlador, error)));
+        }
+
+        private void terminar(C controlador, Throwable error) {
+            boolean abrirAhora = abrirAlCargar;
+            abrirAlCargar = false;
+            if (error != null) {
+                Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                boton.setText(textoTarjeta(icono, titulo, "⚠ No se pudieron cargar los datos"));
+                boton.setToolTipText(causa.getMessage());
+                if (abrirAhora) {
+                    JOptionPane.showMessageDialog(MiniPaginaView.this, "No se pudieron cargar los datos.\n" + causa.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                }
+                return;
+            }
+            mostrarCantidad(controlador);
+            boton.setToolTipText(null);
+            if (!suscrita) {
+                // Las altas y bajas hechas en las ventanas CRUD (o en segundo plano) actualizan el recuento;
+                // la ventana principal vive lo mismo que el controlador, así que no hace falta desuscribirse
+                suscrita = true;
+                suscribir.accept(controlador, cambio -> {
+                    if (recuentoPendiente.compareAndSet(false, true)) {
+                        SwingUtilities.invokeLater(() -> {
+                            recuentoPendiente.set(false);
+                            mostrarCantidad(controlador);
+                        });
+                    }
+                });
+            }
+            if (abrirAhora) {
+                abrir.apply(controlador).setVisible(true);
+            }
+        }
+
+        private void mostrarCantidad(C controlador) {
+            boton.setText(textoTarjeta(icono, titulo, String.format("%,d registros", contar.apply(controlador))));
+        }
+
+        // Abre la ventana si los datos ya están; si no, la abre al terminar (un error reintenta la carga)
+        private void clic() {
+            CompletableFuture<C> futuro = carga.get();
+            if (futuro.isDone() && !futuro.isCompletedExceptionally()) {
+                abrir.apply(futuro.join()).setVisible(true);
+                return;
+            }
+            if (!abrirAlCargar) {
+                abrirAlCargar = true;
+                esperar(futuro);
+            }
+        }
+    }
+
     // Método auxiliar para crear botones tipo menú con estilo y esquinas redondeadas
     private JButton crearBotonMenu(String texto, Color colorFondo) {
         CardButton btn = new CardButton(texto, 24, colorFondo);
@@ -0,0 +1,56 @@
+// Paquete de vistas
+package vallegrande.edu.pe.view;
+
+import javax.swing.*;                        // componentes Swing
+import java.awt.*;                           // layouts
+import java.util.concurrent.atomic.AtomicBoolean; // pedido de cancelación
+
+// Base de los diálogos de importación y exportación: etiqueta, barra de avance y botón Cancelar.
+// Es modal mientras corre el SwingWorker; cancelar (o cerrar la ventana) solo marca el pedido,
+// que la tarea consulta entre lotes o páginas
+abstract class ProgresoDialog extends JDialog {
+
+    protected final JProgressBar barra = new JProgressBar(0, 100);
+    protected final JLabel etiqueta = new JLabel("Preparando…");
+    protected final JButton cancelar = new JButton("Cancelar");
+    // Pedido de cancelación que consulta la tarea en segundo plano
+    protected final AtomicBoolean cancelado = new AtomicBoolean();
+
+    protected ProgresoDialog(Frame owner, String titulo) {
+        super(owner, titulo, true);
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);     // se cierra al terminar o cancelar
+        barra.setStringPainted(true);
+        JPanel panel = new JPanel(new BorderLayout(8, 8));
+        panel.setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+        panel.add(etiqueta, BorderLayout.NORTH);
+        panel.add(barra, BorderLayout.CENTER);
+        JPanel botones = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        botones.add(cancelar);
+        panel.add(botones, BorderLayout.SOUTH);
+        setContentPane(panel);
+        cancelar.addActionListener(e -> pedirCancelacion());
+        // Cerrar la ventana también cancela
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                pedirCancelacion();
+            }
+        });
+        setSize(420, 150);
+        setLocationRelativeTo(owner);
+    }
+
+    // Lanza el worker y muestra el diálogo (modal: vuelve cuando done() del worker lo cierra)
+    protected void mostrarMientras(SwingWorker<?, ?> worker) {
+        worker.execute();
+        setVisible(true);
+    }
+
+    // Marca la tarea como cancelada (se detiene al terminar el lote o la página en curso)
+    private void pedirCancelacion() {
+        if (!cancelar.isEnabled()) return;
+        cancelado.set(true);
+        cancelar.setEnabled(false);
+        etiqueta.setText("Cancelando…");
+    }
+}
@@ -0,0 +1,330 @@
+// Paquete de vistas
+package vallegrande.edu.pe.view;
+
+import vallegrande.edu.pe.model.CambioRegistro;
+import vallegrande.edu.pe.model.Identificable;
+import vallegrande.edu.pe.metricas.Histograma; // tiempo de lectura de páginas
+import vallegrande.edu.pe.metricas.Metricas;
+
+import javax.swing.table.AbstractTableModel; // modelo de tabla base
+import java.util.Arrays;                    // búsqueda binaria en las posiciones filtradas
+import java.util.Iterator;                  // descarte de páginas de la caché
+import java.util.LinkedHashMap;             // caché LRU de páginas
+import java.util.List;                      // registros de una página
+import java.util.Map;                       // entradas de la caché
+import java.util.function.IntSupplier;      // cantidad de registros
+import java.util.function.LongSupplier;     // versión de los datos
+
+// Modelo de tabla "virtual": no copia todos los registros en filas propias,
+// pide al controlador solo las páginas que la tabla necesita pintar (las filas visibles)
+// y guarda las últimas páginas vistas en una caché LRU.
+// Cuando hay un filtro activo, solo guarda un int[] con las posiciones que coinciden.
+// Los cambios del repositorio llegan como eventos (aplicar) y cada uno se traduce en
+// un único evento de filas insertadas, actualizadas o eliminadas, sin recargar la tabla.
+public class RegistroTableModel<T extends Identificable> extends AbstractTableModel {
+
+    // Registros por página pedida al controlador
+    static final int TAMANIO_PAGINA = 100;
+    // Páginas que se conservan en la caché (las menos usadas recientemente se descartan)
+    static final int MAX_PAGINAS = 50;
+    // Tiempo de cada página pedida al controlador (se pide desde el hilo de Swing al pintar)
+    private static final Histograma TIEMPO_PAGINA = Metricas.tiempo("edt.tabla.pagina");
+
+    // Obtiene el valor de una columna para un registro
+    public interface Columnas<T> {
+        Object valor(T registro, int columna);
+    }
+
+    // Lee una página de registros del almacén: desde la posición "offset", como máximo "limit"
+    public interface Paginas<T> {
+        List<T> pagina(int offset, int limit);
+    }
+
+    // Nombres de las columnas visibles
+    private final String[] nombresColumnas;
+    // Cantidad actual de registros en el almacén
+    private final IntSupplier total;
+    // Páginas de registros del almacén
+    private final Paginas<T> paginas;
+    // Versión de los datos del almacén (si cambia, las páginas guardadas ya no sirven)
+    private final LongSupplier version;
+    // Valores de cada columna
+    private final Columnas<T> columnas;
+    // Posiciones filtradas (null = se muestran todos los registros)
+    private int[] filtro;
+    // Texto de la búsqueda que produjo el filtro (para decidir si un registro nuevo o editado entra)
+    private String textoFiltro;
+
+    // Filas que conoce la tabla sin filtro (se actualiza con cada evento, no se lee del almacén a cada rato)
+    private int filas;
+    // Versión de los datos que reflejan las filas (o el filtro); los eventos anteriores ya están incluidos
+    private long versionFilas = -1;
+    // Se llama cuando el filtro ya no se puede corregir con eventos y hay que volver a buscar
+    private Runnable rebuscar;
+
+    // Páginas leídas (número de página -> registros), en orden de uso para descartar la menos reciente
+    private final Map<Integer, List<T>> cache = new LinkedHashMap<>(MAX_PAGINAS * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+            return size() > MAX_PAGINAS;
+        }
+    };
+    // Versión de los datos con la que se leyeron las páginas de la caché
+    private long versionCache = -1;
+
+    public RegistroTableModel(String[] nombresColumnas, IntSupplier total, Paginas<T> paginas,
+                              LongSupplier version, Columnas<T> columnas) {
+        this.nombresColumnas = nombresColumnas;
+        this.total = total;
+        this.paginas = paginas;
+        this.version = version;
+        this.columnas = columnas;
+    }
+
+    // Acción para repetir la búsqueda actual (la registra BusquedaDiferida)
+    public void setRebuscar(Runnable rebuscar) {
+        this.rebuscar = rebuscar;
+    }
+
+    // Muestra todos los registros del almacén (un único evento de cambio)
+    public void mostrarTodos() {
+        cache.clear();
+        filtro = null;
+        textoFiltro = null;
+        // Cantidad y versión leídas juntas: si otro hilo cambia algo entre medio se vuelven a leer
+        long antes;
+        do {
+            antes = version.getAsLong();
+            filas = total.getAsInt();
+        } while (antes != version.getAsLong());
+        versionFilas = antes;
+        fireTableDataChanged();
+    }
+
+    // Muestra solo las posiciones indicadas (un único evento de cambio).
+    // Devuelve false si el resultado es anterior a cambios ya aplicados (hay que volver a buscar)
+    public boolean mostrarFiltrados(int[] posiciones, long versionBusqueda, String texto) {
+        if (versionBusqueda < versionFilas) {
+            return false;
+        }
+        cache.clear();
+        filtro = posiciones;
+        textoFiltro = texto;
+        versionFilas = versionBusqueda;
+        fireTableDataChanged();
+        return true;
+    }
+
+    // Aplica un cambio del repositorio; se llama en el hilo de Swing, en el orden en que ocurrieron
+    public void aplicar(CambioRegistro cambio) {
+        long v = cambio.getVersion();
+        if (v <= versionFilas) {
+            return; // ya incluido en lo que se muestra (se leyó después del cambio)
+        }
+        // Si faltan eventos intermedios o el cambio afecta a muchos registros no se puede corregir fila por fila
+        if (v != versionFilas + 1 || cambio.getTipo() == CambioRegistro.Tipo.VARIOS || cambio.getPosicion() < 0) {
+            recargar();
+            return;
+        }
+        versionFilas = v;
+        descartarPaginas(cambio);
+        boolean aplicado = filtro == null ? aplicarSinFiltro(cambio) : aplicarConFiltro(cambio);
+        if (!aplicado) {
+            recargar();
+        }
+    }
+
+    // Vuelve a leer todo: sin filtro se recarga la tabla, con filtro se repite la búsqueda
+    private void recargar() {
+        if (filtro == null || rebuscar == null) {
+            mostrarTodos();
+        } else {
+            rebuscar.run();
+        }
+    }
+
+    // Aplica el cambio a la tabla sin filtro (las filas son las posiciones del almacén)
+    private boolean aplicarSinFiltro(CambioRegistro cambio) {
+        int posicion = cambio.getPosicion();
+        switch (cambio.getTipo()) {
+            case INSERTADO:
+                if (posicion > filas) return false;
+                filas++;
+                fireTableRowsInserted(posicion, posicion);
+                return true;
+            case ACTUALIZADO:
+                if (posicion >= filas) return false;
+                fireTableRowsUpdated(posicion, posicion);
+                return true;
+            case ELIMINADO:
+                int movida = cambio.getPosicionMovida();
+                if (posicion >= filas || (movida >= 0 && movida != filas - 1)) return false;
+                if (movida >= 0) {
+                    // El último registro pasó al hueco: se repinta esa fila y desaparece la última
+                    fireTableRowsUpdated(posicion, posicion);
+                    filas--;
+                    fireTableRowsDeleted(movida, movida);
+                } else {
+                    filas--;
+                    fireTableRowsDeleted(posicion, posicion);
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // Aplica el cambio a la tabla filtrada: las filas son los índices dentro de "filtro"
+    private boolean aplicarConFiltro(CambioRegistro cambio) {
+        int posicion = cambio.getPosicion();
+        int indice = Arrays.binarySearch(filtro, posicion);
+        switch (cambio.getTipo()) {
+            case INSERTADO:
+                // Los registros desde esa posición se corren uno (normalmente el alta va al final y no hay ninguno)
+                int desde = indice >= 0 ? indice : -indice - 1;
+                for (int i = desde; i < filtro.length; i++) {
+                    filtro[i]++;
+                }
+                if (coincide(cambio)) {
+                    insertarEnFiltro(desde, posicion);
+                }
+                return true;
+            case ACTUALIZADO:
+                boolean estaba = indice >= 0;
+                boolean entra = coincide(cambio);
+                if (estaba && entra) {
+                    fireTableRowsUpdated(indice, indice);
+                } else if (estaba) {
+                    quitarDelFiltro(indice);        // ya no coincide con la búsqueda
+                } else if (entra) {
+                    insertarEnFiltro(-indice - 1, posicion);
+                }
+                return true;
+            case ELIMINADO:
+                if (indice >= 0) {
+                    quitarDelFiltro(indice);
+                }
+                int movida = cambio.getPosicionMovida();
+                if (movida >= 0) {
+                    // El registro de la última posición pasó al hueco: si estaba en el filtro cambia de lugar
+                    int desdeMovida = Arrays.binarySearch(filtro, movida);
+                    if (desdeMovida >= 0) {
+                        quitarDelFiltro(desdeMovida);
+                        int destino = Arrays.binarySearch(filtro, posicion);
+                        insertarEnFiltro(destino >= 0 ? destino : -destino - 1, posicion);
+                    }
+                } else {
+                    // Los registros siguientes se corren una posición hacia arriba (mismas filas, mismo orden)
+                    int siguiente = indice >= 0 ? indice : -indice - 1;
+                    for (int i = siguiente; i < filtro.length; i++) {
+                        filtro[i]--;
+                    }
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // Comprueba si el registro del cambio coincide con la búsqueda actual
+    private boolean coincide(CambioRegistro cambio) {
+        return cambio.getRegistro() != null && textoFiltro != null
+                && cambio.getRegistro().getClaveBusqueda().contains(textoFiltro);
+    }
+
+    private void insertarEnFiltro(int indice, int posicion) {
+        int[] nuevo = new int[filtro.length + 1];
+        System.arraycopy(filtro, 0, nuevo, 0, indice);
+        nuevo[indice] = posicion;
+        System.arraycopy(filtro, indice, nuevo, indice + 1, filtro.length - indice);
+        filtro = nuevo;
+        fireTableRowsInserted(indice, indice);
+    }
+
+    private void quitarDelFiltro(int indice) {
+        int[] nuevo = new int[filtro.length - 1];
+        System.arraycopy(filtro, 0, nuevo, 0, indice);
+        System.arraycopy(filtro, indice + 1, nuevo, indice, filtro.length - indice - 1);
+        filtro = nuevo;
+        fireTableRowsDeleted(indice, indice);
+    }
+
+    // Descarta solo las páginas de la caché que el cambio dejó desactualizadas
+    private void descartarPaginas(CambioRegistro cambio) {
+        if (versionCache != cambio.getVersion() - 1) {
+            // Las páginas son de una versión posterior (ya incluyen el cambio) o muy anterior
+            if (versionCache < cambio.getVersion()) {
+                cache.clear();
+            }
+            return;
+        }
+        versionCache = cambio.getVersion();
+        int pagina = cambio.getPosicion() / TAMANIO_PAGINA;
+        int movida = cambio.getPosicionMovida();
+        boolean corre = cambio.getTipo() == CambioRegistro.Tipo.INSERTADO
+                || (cambio.getTipo() == CambioRegistro.Tipo.ELIMINADO && movida < 0);
+        Iterator<Integer> numeros = cache.keySet().iterator();
+        while (numeros.hasNext()) {
+            int numero = numeros.next();
+            // Si las posiciones se corren, cambian todas las páginas desde la del cambio
+            if (numero == pagina || (corre && numero > pagina) || (movida >= 0 && numero == movida / TAMANIO_PAGINA)) {
+                numeros.remove();
+            }
+        }
+    }
+
+    // Registro mostrado en la fila indicada (null si la fila ya no existe)
+    public T getRegistroAt(int row) {
+        int posicion = filtro == null ? row : (row < filtro.length ? filtro[row] : -1);
+        if (posicion < 0 || posicion >= total.getAsInt()) {
+            return null;
+        }
+        return registroEn(posicion);
+    }
+
+    // Registro en una posición del almacén, leído de la página que lo contiene (de la caché si ya se leyó)
+    private T registroEn(int posicion) {
+        long versionActual = version.getAsLong();
+        if (versionActual != versionCache) {
+            cache.clear();
+            versionCache = versionActual;
+        }
+        int numero = posicion / TAMANIO_PAGINA;
+        List<T> pagina = cache.get(numero);
+        if (pagina == null) {
+            long inicio = System.nanoTime();
+            pagina = paginas.pagina(numero * TAMANIO_PAGINA, TAMANIO_PAGINA);
+            TIEMPO_PAGINA.registrarDesde(inicio);
+            cache.put(numero, pagina);
+        }
+        int indice = posicion - numero * TAMANIO_PAGINA;
+        return indice < pagina.size() ? pagina.get(indice) : null;
+    }
+
+    // ID del registro mostrado en la fila indicada (0 si la fila ya no existe)
+    public long getIdAt(int row) {
+        T registro = getRegistroAt(row);
+        return registro == null ? 0 : registro.getId();
+    }
+
+    @Override
+    public int getRowCount() {
+        return filtro == null ? filas : filtro.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return nombresColumnas.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return nombresColumnas[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        T registro = getRegistroAt(rowIndex);
+        return registro == null ? "" : columnas.valor(registro, columnIndex);
+    }
+}
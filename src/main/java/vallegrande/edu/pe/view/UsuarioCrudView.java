@@ -5,30 +5,50 @@ package vallegrande.edu.pe.view;
 // Importa el controlador de usuarios y la clase Usuario
 import vallegrande.edu.pe.controller.UsuarioController;
 import vallegrande.edu.pe.model.Usuario;
+import vallegrande.edu.pe.model.EstadoGuardado;
+import vallegrande.edu.pe.model.CambioRegistro;
+import vallegrande.edu.pe.metricas.Contador;
+import vallegrande.edu.pe.metricas.Histograma;
+import vallegrande.edu.pe.metricas.Metricas;
 
 
 // Importa clases de Swing y AWT necesarias para la interfaz gráfica y tablas
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.event.DocumentEvent;
-import javax.swing.event.DocumentListener;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.function.Consumer;
 
 
 // Clase que representa la ventana CRUD de usuarios
 public class UsuarioCrudView extends JFrame {
 
+    // Métricas: tiempo que las operaciones bloquean el hilo de Swing (sin contar los diálogos),
+    // tiempo de validación de los datos ingresados y validaciones rechazadas
+    private static final Histograma BLOQUEO_EDT = Metricas.tiempo("edt.usuarios");
+    private static final Histograma TIEMPO_VALIDAR = Metricas.tiempo("vista.validar");
+    private static final Contador VALIDACIONES_RECHAZADAS = Metricas.contador("vista.validar.rechazadas");
+
 
     // Controlador de usuarios para manejar la lógica
     private final UsuarioController controller;
 
 
-    // Modelo de tabla para mostrar los datos de los usuarios
-    private final DefaultTableModel tableModel;
+    // Modelo de tabla que lee los usuarios directamente del controlador
+    private final RegistroTableModel<Usuario> tableModel;
+
+    // Tabla que muestra los usuarios
+    private final JTable table;
     
     // Campo de texto para búsqueda
     private JTextField searchField;
 
+    // Búsqueda diferida y en segundo plano sobre el campo de búsqueda
+    private final BusquedaDiferida busqueda;
+
+    // Etiqueta que muestra el estado del guardado en disco
+    private final JLabel estadoLabel = new JLabel();
+
 
     // Constructor que recibe el controlador
     public UsuarioCrudView(UsuarioController controller) {
@@ -42,12 +62,14 @@ public class UsuarioCrudView extends JFrame {
         setLocationRelativeTo(null);                       // Centra la ventana en la pantalla
 
 
-        // Modelo de tabla con columnas: Nombre, Correo, Rol
-        tableModel = new DefaultTableModel(new Object[]{"Nombre", "Correo", "Rol"}, 0);
+        // Modelo de tabla con columnas: Nombre, Correo, Rol (las filas se piden al controlador por páginas)
+        tableModel = new RegistroTableModel<>(new String[]{"Nombre", "Correo", "Rol"},
+                controller::contarUsuarios, controller::paginaUsuarios, controller::versionDatos,
+                (u, col) -> col == 0 ? u.getNombre() : col == 1 ? u.getCorreo() : u.getRol());
 
 
         // Tabla que mostrará los usuarios
-        JTable table = new JTable(tableModel);
+        table = new JTable(tableModel);
         table.setRowHeight(25);                             // Altura de cada fila
         table.setFont(new Font("SansSerif", Font.PLAIN, 14)); // Fuente de las celdas
 
@@ -62,23 +84,8 @@ public class UsuarioCrudView extends JFrame {
         searchField.setFont(new Font("SansSerif", Font.PLAIN, 14));
         searchField.setPreferredSize(new Dimension(300, 30));
         
-        // Listener para filtrar en tiempo real mientras se escribe
-        searchField.getDocument().addDocumentListener(new DocumentListener() {
-            @Override
-            public void insertUpdate(DocumentEvent e) {
-                filtrarUsuarios();
-            }
-            
-            @Override
-            public void removeUpdate(DocumentEvent e) {
-                filtrarUsuarios();
-            }
-            
-            @Override
-            public void changedUpdate(DocumentEvent e) {
-                filtrarUsuarios();
-            }
-        });
+        // Filtra en tiempo real: espera a que se deje de escribir y busca fuera del hilo de Swing
+        busqueda = new BusquedaDiferida(searchField, controller::buscarUsuarios, tableModel);
         
         searchPanel.add(searchLabel, BorderLayout.WEST);
         searchPanel.add(searchField, BorderLayout.CENTER);
@@ -105,9 +112,14 @@ public class UsuarioCrudView extends JFrame {
             // Si los datos no son nulos y pasan las validaciones, agrega el usuario y recarga la tabla
             if (nombre != null && correo != null && rol != null) {
                 if (validarDatosUsuario(nombre, correo, rol)) {
-                    controller.addUsuario(new Usuario(nombre.trim(), correo.trim(), rol.trim()));
-                    cargarUsuarios();
-                    JOptionPane.showMessageDialog(this, "Usuario agregado exitosamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
+                    long inicio = System.nanoTime();
+                    boolean agregado = controller.addUsuario(new Usuario(nombre.trim(), correo.trim(), rol.trim()));
+                    BLOQUEO_EDT.registrarDesde(inicio);
+                    if (agregado) {
+                        JOptionPane.showMessageDialog(this, "Usuario agregado exitosamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Ya existe un usuario con ese correo.", "Error", JOptionPane.ERROR_MESSAGE);
+                    }
                 }
             }
         });
@@ -115,10 +127,9 @@ public class UsuarioCrudView extends JFrame {
 
         // Acción del botón Editar
         editButton.addActionListener(e -> {
-            int row = table.getSelectedRow();                     // Obtiene la fila seleccionada
-            if (row >= 0) {                                       // Verifica que haya una fila seleccionada
-                // Obtiene los datos actuales del usuario seleccionado
-                Usuario usuarioActual = controller.getUsuarios().get(row);
+            long id = idSeleccionado();                           // Obtiene el ID de la fila seleccionada
+            Usuario usuarioActual = id > 0 ? controller.getUsuario(id) : null;
+            if (usuarioActual != null) {                          // Verifica que haya una fila seleccionada
                 
                 // Solicita los nuevos datos mediante diálogos, mostrando los valores actuales
                 String nombre = JOptionPane.showInputDialog(this, "Nombre:", usuarioActual.getNombre());
@@ -128,9 +139,14 @@ public class UsuarioCrudView extends JFrame {
                 // Si los datos no son nulos y pasan las validaciones, actualiza el usuario y recarga la tabla
                 if (nombre != null && correo != null && rol != null) {
                     if (validarDatosUsuario(nombre, correo, rol)) {
-                        controller.updateUsuario(row, new Usuario(nombre.trim(), correo.trim(), rol.trim()));
-                        cargarUsuarios();
-                        JOptionPane.showMessageDialog(this, "Usuario editado exitosamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
+                        long inicio = System.nanoTime();
+                        boolean editado = controller.updateUsuario(id, new Usuario(nombre.trim(), correo.trim(), rol.trim()));
+                        BLOQUEO_EDT.registrarDesde(inicio);
+                        if (editado) {
+                            JOptionPane.showMessageDialog(this, "Usuario editado exitosamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
+                        } else {
+                            JOptionPane.showMessageDialog(this, "Ya existe un usuario con ese correo.", "Error", JOptionPane.ERROR_MESSAGE);
+                        }
                     }
                 }
             } else {
@@ -141,49 +157,95 @@ public class UsuarioCrudView extends JFrame {
 
         // Acción del botón Eliminar
         deleteButton.addActionListener(e -> {
-            int row = table.getSelectedRow();                 // Obtiene la fila seleccionada
-            if (row >= 0) {                                   // Verifica que haya una fila seleccionada
-                controller.deleteUsuario(row);               // Elimina el usuario correspondiente
-                cargarUsuarios();                             // Recarga la tabla
+            long id = idSeleccionado();                       // Obtiene el ID de la fila seleccionada
+            if (id > 0) {                                     // Verifica que haya una fila seleccionada
+                long inicio = System.nanoTime();
+                controller.deleteUsuario(id);                // Elimina el usuario (la tabla se actualiza con el evento)
+                BLOQUEO_EDT.registrarDesde(inicio);
             }
         });
 
 
+        // Acción del botón Importar: carga masiva desde un CSV en segundo plano
+        JButton importButton = new JButton("📥 Importar CSV");
+        importButton.addActionListener(e -> ImportacionDialog.importar(this, "Importar usuarios",
+                "nombre,correo,rol", controller::importarCsv, null));
+
+        // Acción del botón Exportar: escribe los usuarios de la búsqueda actual a CSV o JSON
+        JButton exportButton = new JButton("📤 Exportar");
+        exportButton.addActionListener(e -> ExportacionDialog.exportar(this, "Exportar usuarios",
+                "usuarios", searchField.getText(), controller::exportar));
+
+
         // Añade los botones al panel
         buttonPanel.add(addButton);
         buttonPanel.add(editButton);
         buttonPanel.add(deleteButton);
+        buttonPanel.add(importButton);
+        buttonPanel.add(exportButton);
+        buttonPanel.add(estadoLabel);                       // Estado del guardado junto a los botones
         add(buttonPanel, BorderLayout.SOUTH);               // Coloca el panel de botones al sur
 
+        // Muestra el estado del guardado; el listener llega desde el hilo escritor
+        mostrarEstadoGuardado(controller.getEstadoGuardado());
+        Consumer<EstadoGuardado> estadoListener = estado -> SwingUtilities.invokeLater(() -> mostrarEstadoGuardado(estado));
+        controller.addEstadoGuardadoListener(estadoListener);
+
+        // Cambios hechos desde cualquier ventana: cada uno se aplica a la tabla en el hilo de Swing
+        Consumer<CambioRegistro> cambiosListener = cambio -> SwingUtilities.invokeLater(() -> tableModel.aplicar(cambio));
+        controller.addCambioListener(cambiosListener);
+
+        // Al cerrar la ventana se dejan de escuchar cambios y se escriben los pendientes
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                controller.removeEstadoGuardadoListener(estadoListener);
+                controller.removeCambioListener(cambiosListener);
+                busqueda.cerrar();
+                // Si no se pudo escribir, los cambios siguen pendientes y se reintentan en segundo plano
+                if (!controller.flush()) {
+                    JOptionPane.showMessageDialog(null, "No se pudieron guardar los cambios de usuarios:\n"
+                            + controller.getErrorGuardado() + "\nSe volverá a intentar en segundo plano.",
+                            "Error al guardar", JOptionPane.WARNING_MESSAGE);
+                }
+            }
+        });
+
 
         // Carga inicialmente los usuarios en la tabla
         cargarUsuarios();
     }
 
 
-    // Método que carga todos los usuarios del controlador en la tabla
+    // Método que muestra todos los usuarios del controlador en la tabla (sin copiarlos)
     private void cargarUsuarios() {
-        tableModel.setRowCount(0);                          // Limpia la tabla
-        for (Usuario u : controller.getUsuarios()) {        // Recorre cada usuario
-            tableModel.addRow(new Object[]{u.getNombre(), u.getCorreo(), u.getRol()}); // Agrega fila
-        }
+        tableModel.mostrarTodos();                          // Un solo evento de cambio para toda la tabla
     }
 
-    // Método para filtrar usuarios según el texto de búsqueda
-    private void filtrarUsuarios() {
-        String textoBusqueda = searchField.getText().toLowerCase().trim(); // Obtiene el texto de búsqueda en minúsculas
-        tableModel.setRowCount(0);                          // Limpia la tabla
-        
-        for (Usuario u : controller.getUsuarios()) {        // Recorre cada usuario
-            // Verifica si el nombre o correo contienen el texto de búsqueda
-            boolean coincideNombre = u.getNombre().toLowerCase().contains(textoBusqueda);
-            boolean coincideCorreo = u.getCorreo().toLowerCase().contains(textoBusqueda);
-            
-            // Si hay coincidencia en nombre o correo, agrega la fila
-            if (coincideNombre || coincideCorreo) {
-                tableModel.addRow(new Object[]{u.getNombre(), u.getCorreo(), u.getRol()});
-            }
+    // Método que devuelve el ID del usuario de la fila seleccionada (0 si no hay selección)
+    private long idSeleccionado() {
+        int row = table.getSelectedRow();                   // Fila seleccionada en la vista
+        if (row < 0) return 0;
+        // Convierte la fila de la vista a la del modelo y el modelo la resuelve a un ID
+        return tableModel.getIdAt(table.convertRowIndexToModel(row));
+    }
+
+    // Método que actualiza la etiqueta de estado del guardado
+    private void mostrarEstadoGuardado(EstadoGuardado estado) {
+        switch (estado) {
+            case PENDIENTE:
+            case GUARDANDO:
+                estadoLabel.setText("💾 Guardando…");
+                break;
+            case ERROR:
+                estadoLabel.setText("⚠ Error al guardar");
+                break;
+            default:
+                estadoLabel.setText("✔ Guardado");
+                break;
         }
+        // El detalle del error se ve al pasar el mouse sobre la etiqueta
+        estadoLabel.setToolTipText(estado == EstadoGuardado.ERROR ? controller.getErrorGuardado() : null);
     }
 
     // Método para validar que los campos no estén vacíos
@@ -231,9 +293,17 @@ public class UsuarioCrudView extends JFrame {
 
     // Método completo de validación
     private boolean validarDatosUsuario(String nombre, String correo, String rol) {
-        return validarCamposVacios(nombre, correo, rol) && 
+        long inicio = System.nanoTime();
+        boolean valido = validarCamposVacios(nombre, correo, rol) && 
                validarFormatoCorreo(correo) && 
                validarRol(rol);
+        // Solo se mide la validación aceptada: la rechazada incluye el aviso, que espera al usuario
+        if (valido) {
+            TIEMPO_VALIDAR.registrarDesde(inicio);
+        } else {
+            VALIDACIONES_RECHAZADAS.incrementar();
+        }
+        return valido;
     }
 }
 
@@ -0,0 +1,45 @@
+package vallegrande.edu.pe;
+
+import org.junit.jupiter.api.Assumptions;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Limpieza de los archivos que los repositorios escriben en rutas relativas ("data/", "usuarios.*").
+ * Maven ejecuta las pruebas en target/pruebas; fuera de esa carpeta (por ejemplo, desde un IDE
+ * en la raíz del proyecto) las pruebas que la usan se omiten para no borrar datos reales.
+ */
+public final class CarpetaDePrueba {
+
+    private CarpetaDePrueba() {
+    }
+
+    /**
+     * Borra la carpeta "data" y los archivos de usuarios de la carpeta de trabajo
+     * @throws IOException Si no se pueden borrar
+     */
+    public static void limpiar() throws IOException {
+        Path actual = Paths.get("").toAbsolutePath();
+        Assumptions.assumeTrue(actual.getFileName().toString().equals("pruebas"),
+                "Las pruebas con archivos se ejecutan con Maven (carpeta target/pruebas)");
+        Path datos = actual.resolve("data");
+        if (Files.exists(datos)) {
+            try (Stream<Path> archivos = Files.walk(datos)) {
+                for (Path p : (Iterable<Path>) archivos.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(p);
+                }
+            }
+        }
+        try (DirectoryStream<Path> usuarios = Files.newDirectoryStream(actual, "usuarios.*")) {
+            for (Path p : usuarios) {
+                Files.delete(p);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package vallegrande.edu.pe.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Diario de cambios de estudiantes: reproducción después de una caída, registros cortados o dañados
+ * y rotación
+ */
+class EstudianteJournalTest {
+
+    @TempDir
+    Path carpeta;
+
+    /** Registros reproducidos: "operación id nombre" */
+    private final List<String> aplicados = new ArrayList<>();
+
+    private EstudianteJournal nuevo() {
+        return new EstudianteJournal(carpeta.resolve("estudiantes.csv"));
+    }
+
+    private Path activo() {
+        return carpeta.resolve("estudiantes.journal");
+    }
+
+    private void reproducir(EstudianteJournal journal, long marca) throws IOException {
+        aplicados.clear();
+        journal.reproducir(marca, (operacion, id, e) -> aplicados.add(operacion + " " + id + " " + e.getNombre()));
+    }
+
+    @Test
+    void reproduceLosCambiosSinHaberCerradoElDiario() throws IOException {
+        EstudianteJournal journal = nuevo();
+        journal.reproducir(0, (operacion, id, e) -> { });
+        journal.registrar(EstudianteJournal.ALTA, 1, new Estudiante("Ana", "ana@x.com", "Redes"));
+        journal.registrar(EstudianteJournal.EDICION, 1, new Estudiante("Ana María", "ana@x.com", "Redes"));
+        journal.registrar(EstudianteJournal.BAJA, 2, null);
+        // Caída: el diario no se cierra y otro lo abre
+        EstudianteJournal reabierto = nuevo();
+        reproducir(reabierto, 0);
+        assertEquals(List.of("A 1 Ana", "U 1 Ana María", "D 2 "), aplicados);
+        assertEquals(3, reabierto.getSecuencia());
+        journal.close();
+        reabierto.close();
+    }
+
+    @Test
+    void recortaElRegistroCortadoYAgregaDetrasDelUltimoCompleto() throws IOException {
+        EstudianteJournal journal = nuevo();
+        journal.reproducir(0, (operacion, id, e) -> { });
+        journal.registrar(EstudianteJournal.ALTA, 1, new Estudiante("Ana", "ana@x.com", "Redes"));
+        journal.registrar(EstudianteJournal.ALTA, 2, new Estudiante("Luis", "luis@x.com", "Redes"));
+        journal.close();
+        // Escritura interrumpida: el tercer registro quedó sin suma ni salto de línea
+        Files.write(activo(), "3;A;3;Pedro;pe".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        EstudianteJournal reabierto = nuevo();
+        reproducir(reabierto, 0);
+        assertEquals(List.of("A 1 Ana", "A 2 Luis"), aplicados);
+        reabierto.registrar(EstudianteJournal.ALTA, 3, new Estudiante("Pedro", "pedro@x.com", "Redes"));
+        reabierto.close();
+
+        reproducir(nuevo(), 0);
+        assertEquals(List.of("A 1 Ana", "A 2 Luis", "A 3 Pedro"), aplicados);
+        assertFalse(new String(Files.readAllBytes(activo()), StandardCharsets.UTF_8).contains("pe\n"));
+    }
+
+    @Test
+    void rechazaUnRegistroCuyaSumaNoCoincide() throws IOException {
+        EstudianteJournal journal = nuevo();
+        journal.reproducir(0, (operacion, id, e) -> { });
+        journal.registrar(EstudianteJournal.ALTA, 1, new Estudiante("Ana", "ana@x.com", "Redes"));
+        journal.registrar(EstudianteJournal.ALTA, 2, new Estudiante("Luis", "luis@x.com", "Redes"));
+        journal.close();
+        // Un byte cambiado en el primer registro (mismo largo)
+        String texto = new String(Files.readAllBytes(activo()), StandardCharsets.UTF_8);
+        Files.write(activo(), texto.replaceFirst("Ana", "Ama").getBytes(StandardCharsets.UTF_8));
+
+        reproducir(nuevo(), 0);
+        assertEquals(List.of("A 2 Luis"), aplicados);
+    }
+
+    @Test
+    void ignoraLoQueElSnapshotYaIncluye() throws IOException {
+        EstudianteJournal journal = nuevo();
+        journal.reproducir(0, (operacion, id, e) -> { });
+        for (int i = 1; i <= 4; i++) {
+            journal.registrar(EstudianteJournal.ALTA, i, new Estudiante("E" + i, "e" + i + "@x.com", "C"));
+        }
+        journal.close();
+        EstudianteJournal reabierto = nuevo();
+        reproducir(reabierto, 2);
+        assertEquals(List.of("A 3 E3", "A 4 E4"), aplicados);
+        // La secuencia sigue después del último registro, no de la marca
+        assertEquals(4, reabierto.getSecuencia());
+    }
+
+    @Test
+    void losDiariosRotadosSeReproducenHastaQueUnSnapshotLosIncluye() throws IOException {
+        EstudianteJournal journal = nuevo();
+        journal.reproducir(0, (operacion, id, e) -> { });
+        journal.registrar(EstudianteJournal.ALTA, 1, new Estudiante("Ana", "ana@x.com", "Redes"));
+        journal.rotar();
+        journal.registrar(EstudianteJournal.ALTA, 2, new Estudiante("Luis", "luis@x.com", "Redes"));
+        journal.close();
+        Path rotado = carpeta.resolve("estudiantes.journal.1");
+        assertTrue(Files.exists(rotado));
+
+        reproducir(nuevo(), 0);
+        assertEquals(List.of("A 1 Ana", "A 2 Luis"), aplicados);
+
+        journal.descartarHasta(1);
+        assertFalse(Files.exists(rotado));
+        reproducir(nuevo(), 1);
+        assertEquals(List.of("A 2 Luis"), aplicados);
+    }
+}
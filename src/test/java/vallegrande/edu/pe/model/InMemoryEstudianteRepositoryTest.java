@@ -0,0 +1,99 @@
+package vallegrande.edu.pe.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import vallegrande.edu.pe.CarpetaDePrueba;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Persistencia del motor de estudiantes: los cambios confirmados sobreviven a una caída (diario)
+ * y la compactación escribe un snapshot equivalente
+ */
+class InMemoryEstudianteRepositoryTest {
+
+    @BeforeEach
+    void limpiar() throws IOException {
+        CarpetaDePrueba.limpiar();
+    }
+
+    @AfterEach
+    void borrar() throws IOException {
+        CarpetaDePrueba.limpiar();
+    }
+
+    @Test
+    void losCambiosConfirmadosSobrevivenSinCerrarElRepositorio() {
+        InMemoryEstudianteRepository repo = new InMemoryEstudianteRepository();
+        assertEquals(2, repo.count()); // ejemplos iniciales
+        Estudiante pedro = new Estudiante("Pedro", "pedro@x.com", "Redes");
+        assertTrue(repo.save(pedro));
+        assertTrue(repo.save(new Estudiante(pedro.getId(), "Pedro Ruiz", "pedro@x.com", "Redes")));
+        Estudiante juan = repo.findByCorreo("juan@correo.com");
+        assertTrue(repo.delete(juan.getId()));
+
+        // Caída: se vuelve a abrir sin cerrar el anterior (solo el diario tiene los cambios)
+        InMemoryEstudianteRepository reabierto = new InMemoryEstudianteRepository();
+        assertEquals(2, reabierto.count());
+        assertEquals("Pedro Ruiz", reabierto.findById(pedro.getId()).getNombre());
+        assertNull(reabierto.findByCorreo("juan@correo.com"));
+        reabierto.close();
+        repo.close();
+    }
+
+    @Test
+    void elLoteSeRegistraEnElDiarioAntesDeDevolver() {
+        InMemoryEstudianteRepository repo = new InMemoryEstudianteRepository();
+        List<Estudiante> lote = List.of(new Estudiante("A", "a@x.com", "C"), new Estudiante("B", "b@x.com", "C"),
+                new Estudiante("Repetido", "A@x.com", "C"));
+        assertEquals(2, repo.saveAll(lote));
+        assertNull(repo.getErrorGuardado());
+
+        InMemoryEstudianteRepository reabierto = new InMemoryEstudianteRepository();
+        assertEquals(4, reabierto.count());
+        assertNotNull(reabierto.findByCorreo("b@x.com"));
+        reabierto.close();
+        repo.close();
+    }
+
+    @Test
+    void laCompactacionEscribeUnSnapshotConLosMismosDatos() throws IOException {
+        InMemoryEstudianteRepository repo = new InMemoryEstudianteRepository();
+        for (int i = 0; i < 1500; i++) {
+            assertTrue(repo.save(new Estudiante("E" + i, "e" + i + "@x.com", "C" + i % 3)));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertTrue(repo.delete(repo.findByCorreo("e" + i + "@x.com").getId()));
+        }
+        List<Estudiante> antes = repo.copia();
+        repo.close(); // espera la compactación en curso
+
+        // El snapshot incluye la compactación (marca mayor que 0) y el diario activo tiene solo lo posterior
+        Path csv = Paths.get("data", "estudiantes.csv");
+        String cabecera = Files.readAllLines(csv, StandardCharsets.UTF_8).get(0);
+        assertTrue(cabecera.startsWith("#seq=") && Long.parseLong(cabecera.substring(5)) >= 1000, cabecera);
+        long registrosActivos = Files.readAllLines(Paths.get("data", "estudiantes.journal")).size();
+        assertTrue(registrosActivos < 1000, "registros en el diario activo: " + registrosActivos);
+
+        InMemoryEstudianteRepository reabierto = new InMemoryEstudianteRepository();
+        assertEquals(antes.size(), reabierto.count());
+        for (Estudiante e : antes) {
+            Estudiante leido = reabierto.findById(e.getId());
+            assertNotNull(leido, e.getCorreo());
+            assertEquals(e.getNombre(), leido.getNombre());
+            assertEquals(e.getCorreo(), leido.getCorreo());
+        }
+        reabierto.close();
+    }
+}
@@ -0,0 +1,90 @@
+package vallegrande.edu.pe.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Búsqueda con el índice de trigramas: debe devolver exactamente lo mismo que recorrer todos los registros,
+ * también después de altas, ediciones y bajas
+ */
+class InMemoryRepositoryTest {
+
+    private static final String[] NOMBRES = {"ana", "andrés", "lucía", "josé", "maría", "pedro", "sofía", "diego"};
+    private static final String[] TEXTOS = {"ana", "an", "a", "lucia ped", "ía", "@x.", "e12", "e1999@", "zzz",
+            "maria maria", "diego", "ped"};
+
+    private final Random azar = new Random(7);
+    private InMemoryRepository<Estudiante> repo;
+
+    @BeforeEach
+    void cargar() {
+        repo = new InMemoryRepository<>();
+        List<Estudiante> lote = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            lote.add(nuevo(i));
+        }
+        assertEquals(3000, repo.saveAll(lote));
+    }
+
+    private Estudiante nuevo(int i) {
+        String nombre = NOMBRES[azar.nextInt(NOMBRES.length)] + " " + NOMBRES[azar.nextInt(NOMBRES.length)];
+        return new Estudiante(nombre, "e" + i + "@x.com", "Curso " + i % 4);
+    }
+
+    /** Posiciones que coinciden recorriendo todos los registros en orden */
+    private int[] recorrer(String texto) {
+        List<Integer> posiciones = new ArrayList<>();
+        for (int i = 0; i < repo.count(); i++) {
+            if (repo.findAt(i).getClaveBusqueda().contains(texto)) {
+                posiciones.add(i);
+            }
+        }
+        return posiciones.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void compararTodos() {
+        for (String texto : TEXTOS) {
+            String normalizado = TextoBusqueda.normalizar(texto);
+            ResultadoBusqueda resultado = repo.query(normalizado, null);
+            assertArrayEquals(recorrer(normalizado), resultado.getPosiciones(), texto);
+            assertEquals(repo.getVersion(), resultado.getVersion());
+        }
+    }
+
+    @Test
+    void coincideConElRecorridoCompleto() {
+        compararTodos();
+    }
+
+    @Test
+    void coincideDespuesDeAltasEdicionesYBajas() {
+        for (int i = 0; i < 300; i++) {
+            Estudiante e = repo.findAt(azar.nextInt(repo.count()));
+            switch (i % 3) {
+                case 0 -> assertTrue(repo.save(nuevo(10_000 + i)));
+                case 1 -> assertTrue(repo.save(new Estudiante(e.getId(), "renombrado " + NOMBRES[i % NOMBRES.length],
+                        e.getCorreo(), e.getCurso())));
+                default -> assertTrue(repo.delete(e.getId()));
+            }
+        }
+        compararTodos();
+    }
+
+    @Test
+    void laBusquedaQueSeEstrechaCoincideConLaCompleta() {
+        ResultadoBusqueda anterior = null;
+        for (String prefijo : new String[]{"a", "an", "ana", "ana ", "ana m"}) {
+            String texto = TextoBusqueda.normalizar(prefijo);
+            anterior = repo.query(texto, anterior);
+            assertArrayEquals(recorrer(texto), anterior.getPosiciones(), prefijo);
+        }
+    }
+}
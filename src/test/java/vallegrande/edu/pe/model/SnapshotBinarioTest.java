@@ -0,0 +1,118 @@
+package vallegrande.edu.pe.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vallegrande.edu.pe.CarpetaDePrueba;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Snapshot binario: lo que se escribe se vuelve a leer igual y un archivo dañado o de otro tipo se rechaza
+ */
+class SnapshotBinarioTest {
+
+    @TempDir
+    Path carpeta;
+
+    private static void assertMismosEstudiantes(List<Estudiante> esperados, List<Estudiante> leidos) {
+        assertEquals(esperados.size(), leidos.size());
+        for (int i = 0; i < esperados.size(); i++) {
+            Estudiante e = esperados.get(i);
+            Estudiante l = leidos.get(i);
+            assertEquals(e.getId(), l.getId());
+            assertEquals(e.getNombre(), l.getNombre());
+            assertEquals(e.getCorreo(), l.getCorreo());
+            assertEquals(e.getCurso(), l.getCurso());
+        }
+    }
+
+    @Test
+    void seLeeLoMismoQueSeEscribio() throws IOException {
+        List<Estudiante> estudiantes = new ArrayList<>();
+        for (int i = 1; i <= 5000; i++) {
+            estudiantes.add(new Estudiante(i * 3L, "Estudiante " + i, "e" + i + "@x.com", "Curso " + i % 7));
+        }
+        // Textos con tildes, caracteres fuera del plano básico, separadores y vacíos
+        estudiantes.add(new Estudiante(99_999, "Ñandú Peña 😀", "ñ@x.com", "Programación; \"avanzada\""));
+        estudiantes.add(new Estudiante(100_000, "", "vacio@x.com", ""));
+        ArchivoAtomico archivo = new ArchivoAtomico(carpeta.resolve("estudiantes.bin"), false);
+
+        SnapshotBinario.escribir(archivo, SnapshotBinario.ESTUDIANTES, 1234, estudiantes);
+        assertEquals(ArchivoAtomico.Verificacion.VALIDO, ArchivoAtomico.verificar(archivo.getDestino()));
+        SnapshotBinario.Leido<Estudiante> leido = SnapshotBinario.leer(archivo.getDestino(), SnapshotBinario.ESTUDIANTES);
+
+        assertEquals(1234, leido.getMarca());
+        assertMismosEstudiantes(estudiantes, leido.getRegistros());
+    }
+
+    @Test
+    void usuariosIdaYVuelta() throws IOException {
+        List<Usuario> usuarios = List.of(new Usuario(1, "Ana López", "ana@x.com", "Docente"),
+                new Usuario(7, "Luis", "luis@x.com", "Administrador"), new Usuario(8, "Eva", "eva@x.com", "Docente"));
+        ArchivoAtomico archivo = new ArchivoAtomico(carpeta.resolve("usuarios.bin"), false);
+        SnapshotBinario.escribir(archivo, SnapshotBinario.USUARIOS, 0, usuarios);
+
+        List<Usuario> leidos = SnapshotBinario.leer(archivo.getDestino(), SnapshotBinario.USUARIOS).getRegistros();
+        assertEquals(usuarios.size(), leidos.size());
+        for (int i = 0; i < usuarios.size(); i++) {
+            assertEquals(usuarios.get(i).getId(), leidos.get(i).getId());
+            assertEquals(usuarios.get(i).getNombre(), leidos.get(i).getNombre());
+            assertEquals(usuarios.get(i).getRol(), leidos.get(i).getRol());
+        }
+    }
+
+    @Test
+    void rechazaOtroTipoYArchivosCortadosODanados() throws IOException {
+        List<Estudiante> estudiantes = List.of(new Estudiante(1, "Ana", "ana@x.com", "Redes"),
+                new Estudiante(2, "Luis", "luis@x.com", "Redes"));
+        ArchivoAtomico archivo = new ArchivoAtomico(carpeta.resolve("estudiantes.bin"), false);
+        SnapshotBinario.escribir(archivo, SnapshotBinario.ESTUDIANTES, 0, estudiantes);
+        Path destino = archivo.getDestino();
+
+        assertThrows(IOException.class, () -> SnapshotBinario.leer(destino, SnapshotBinario.USUARIOS));
+
+        byte[] bytes = Files.readAllBytes(destino);
+        Path cortado = carpeta.resolve("cortado.bin");
+        Files.write(cortado, Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IOException.class, () -> SnapshotBinario.leer(cortado, SnapshotBinario.ESTUDIANTES));
+
+        // Un byte cambiado no rompe la estructura, pero la suma lo detecta
+        bytes[bytes.length / 2] ^= 1;
+        Path danado = carpeta.resolve("danado.bin");
+        Files.write(danado, bytes);
+        assertEquals(ArchivoAtomico.Verificacion.DANADO, ArchivoAtomico.verificar(danado));
+    }
+
+    @Test
+    void elRepositorioBinarioRecuperaSusDatosAlReabrir() throws IOException {
+        CarpetaDePrueba.limpiar();
+        try {
+            InMemoryEstudianteRepository repo = new InMemoryEstudianteRepository(true);
+            List<Estudiante> lote = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                lote.add(new Estudiante("E" + i, "e" + i + "@x.com", "C" + i % 3));
+            }
+            repo.saveAll(lote);
+            assertTrue(repo.saveToFile());
+            List<Estudiante> antes = repo.copia();
+            repo.close();
+            assertTrue(Files.exists(Paths.get("data", "estudiantes.bin")));
+
+            InMemoryEstudianteRepository reabierto = new InMemoryEstudianteRepository(true);
+            assertMismosEstudiantes(antes, reabierto.copia());
+            reabierto.close();
+        } finally {
+            CarpetaDePrueba.limpiar();
+        }
+    }
+}
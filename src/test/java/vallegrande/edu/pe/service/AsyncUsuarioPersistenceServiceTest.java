@@ -0,0 +1,115 @@
+package vallegrande.edu.pe.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import vallegrande.edu.pe.model.EstadoGuardado;
+import vallegrande.edu.pe.model.Usuario;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guardado de usuarios en segundo plano: agrupa las solicitudes y un error deja los cambios
+ * pendientes hasta que un reintento los escribe
+ */
+class AsyncUsuarioPersistenceServiceTest {
+
+    /**
+     * Servicio que no escribe archivos: falla las primeras veces indicadas y cuenta las escrituras
+     */
+    private static final class ServicioDePrueba extends UsuarioPersistenceService {
+        final AtomicInteger fallosRestantes = new AtomicInteger();
+        final AtomicInteger intentos = new AtomicInteger();
+        final AtomicInteger escrituras = new AtomicInteger();
+
+        @Override
+        public boolean guardarUsuarios(List<Usuario> usuarios) {
+            intentos.incrementAndGet();
+            if (fallosRestantes.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                return false;
+            }
+            escrituras.incrementAndGet();
+            return true;
+        }
+
+        @Override
+        public String getUltimoError() {
+            return "disco lleno";
+        }
+    }
+
+    private final ServicioDePrueba servicio = new ServicioDePrueba();
+    private AsyncUsuarioPersistenceService async;
+
+    @AfterEach
+    void cerrar() {
+        servicio.fallosRestantes.set(0);
+        async.close();
+    }
+
+    private AsyncUsuarioPersistenceService crear(long esperaMs) {
+        async = new AsyncUsuarioPersistenceService(servicio,
+                () -> List.of(new Usuario(1, "Ana", "ana@x.com", "Docente")), esperaMs);
+        return async;
+    }
+
+    @Test
+    void agrupaLasSolicitudesEnUnaEscritura() {
+        crear(200);
+        for (int i = 0; i < 5; i++) {
+            async.solicitarGuardado();
+        }
+        assertTrue(async.flush());
+        assertEquals(1, servicio.escrituras.get());
+        assertEquals(EstadoGuardado.GUARDADO, async.getEstado());
+    }
+
+    @Test
+    void unErrorQuedaPendienteYSeReintentaSolo() throws InterruptedException {
+        crear(10);
+        servicio.fallosRestantes.set(1);
+        async.solicitarGuardado();
+        long limite = System.currentTimeMillis() + 5000;
+        while (servicio.intentos.get() < 1 && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        assertEquals(EstadoGuardado.ERROR, async.getEstado());
+        // Sin nuevas solicitudes, el reintento (después de la espera creciente) escribe lo pendiente
+        while (servicio.escrituras.get() < 1 && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, servicio.escrituras.get());
+        assertEquals(EstadoGuardado.GUARDADO, async.getEstado());
+    }
+
+    @Test
+    void flushInformaElFalloYElSiguienteReintentaEnseguida() {
+        crear(10);
+        servicio.fallosRestantes.set(1);
+        async.solicitarGuardado();
+        assertFalse(async.flush());
+        long inicio = System.currentTimeMillis();
+        assertTrue(async.flush());
+        // No espera el reintento programado (1 s): flush lo adelanta
+        assertTrue(System.currentTimeMillis() - inicio < 900);
+        assertEquals(1, servicio.escrituras.get());
+    }
+
+    @Test
+    void cerrarConUnErrorPersistenteNoSeQuedaEsperando() {
+        crear(10);
+        servicio.fallosRestantes.set(Integer.MAX_VALUE);
+        async.solicitarGuardado();
+        assertFalse(async.flush());
+        long inicio = System.currentTimeMillis();
+        async.close();
+        assertTrue(System.currentTimeMillis() - inicio < 5000);
+        assertEquals(EstadoGuardado.ERROR, async.getEstado());
+        assertEquals(0, servicio.escrituras.get());
+    }
+}
@@ -0,0 +1,85 @@
+package vallegrande.edu.pe.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vallegrande.edu.pe.CarpetaDePrueba;
+import vallegrande.edu.pe.model.Estudiante;
+import vallegrande.edu.pe.model.InMemoryEstudianteRepository;
+import vallegrande.edu.pe.model.Repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Paso de los datos guardados al motor SQL: se hace una sola vez y sin escribir archivos
+ */
+class MotorAlmacenamientoTest {
+
+    @TempDir
+    Path carpeta;
+
+    @BeforeEach
+    void preparar() throws IOException {
+        CarpetaDePrueba.limpiar();
+        System.setProperty("agenda.sql.url", "jdbc:h2:" + carpeta.resolve("agenda").toAbsolutePath());
+    }
+
+    @AfterEach
+    void limpiar() throws IOException {
+        System.clearProperty("agenda.sql.url");
+        CarpetaDePrueba.limpiar();
+    }
+
+    @Test
+    void sinDatosGuardadosEmpiezaConLosEjemplosSinEscribirArchivos() {
+        Repository<Estudiante, Long> sql = MotorAlmacenamiento.SQL.crearEstudiantes();
+        assertEquals(InMemoryEstudianteRepository.ejemplos().size(), sql.count());
+        sql.close();
+        assertFalse(Files.exists(Paths.get("data", "estudiantes.csv")));
+    }
+
+    @Test
+    void migraUnaSolaVezAunqueDespuesSeBorreTodo() {
+        // Datos guardados por el motor CSV
+        InMemoryEstudianteRepository csv = new InMemoryEstudianteRepository();
+        csv.save(new Estudiante("Pedro", "pedro@x.com", "Redes"));
+        csv.close();
+        List<Estudiante> guardados = InMemoryEstudianteRepository.leerGuardados();
+        assertEquals(3, guardados.size());
+
+        Repository<Estudiante, Long> sql = MotorAlmacenamiento.SQL.crearEstudiantes();
+        assertEquals(guardados.size(), sql.count());
+        for (Estudiante e : guardados) {
+            // Conservan su ID
+            assertNotNull(sql.findById(e.getId()), e.getCorreo());
+        }
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < sql.count(); i++) {
+            ids.add(sql.findAt(i).getId());
+        }
+        assertEquals(guardados.size(), sql.deleteAll(ids));
+        sql.close();
+
+        // Los archivos siguen ahí, pero la tabla ya está anotada como migrada
+        Repository<Estudiante, Long> reabierto = MotorAlmacenamiento.SQL.crearEstudiantes();
+        assertEquals(0, reabierto.count());
+        reabierto.close();
+    }
+
+    @Test
+    void siLaBaseNoSePuedeAbrirFallaEnLugarDeCambiarDeMotor() {
+        System.setProperty("agenda.sql.url", "jdbc:h2:" + carpeta.resolve("no-existe").toAbsolutePath() + ";IFEXISTS=TRUE");
+        assertThrows(IllegalStateException.class, MotorAlmacenamiento.SQL::crearEstudiantes);
+    }
+}
@@ -0,0 +1,163 @@
+package vallegrande.edu.pe.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vallegrande.edu.pe.model.CambioRegistro;
+import vallegrande.edu.pe.model.Estudiante;
+import vallegrande.edu.pe.model.SnapshotBinario;
+import vallegrande.edu.pe.model.TextoBusqueda;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Motor SQL: páginas en orden de ID, cantidad contada en la base, correo único,
+ * búsqueda y avisos de cambios
+ */
+class SqlRepositoryTest {
+
+    @TempDir
+    Path carpeta;
+
+    private SqlRepository<Estudiante> repo;
+
+    @BeforeEach
+    void abrir() throws SQLException {
+        ConexionesSql conexiones = new ConexionesSql("jdbc:h2:" + carpeta.resolve("agenda").toAbsolutePath(), 2);
+        repo = new SqlRepository<>(conexiones, "estudiantes", "curso", SnapshotBinario.ESTUDIANTES);
+    }
+
+    @AfterEach
+    void cerrar() {
+        repo.close();
+    }
+
+    private void cargar(int cantidad) {
+        List<Estudiante> lote = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            lote.add(new Estudiante((i % 2 == 0 ? "ana " : "luis ") + i, "e" + i + "@x.com", "C" + i % 3));
+        }
+        assertEquals(cantidad, repo.saveAll(lote));
+    }
+
+    /** IDs de todas las posiciones leídas de a una (como la tabla) */
+    private long[] idsPorPosicion() {
+        long[] ids = new long[repo.count()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = repo.findAt(i).getId();
+        }
+        return ids;
+    }
+
+    @Test
+    void lasPaginasSiguenElOrdenPorIdEnCualquierDireccion() {
+        cargar(1000);
+        assertTrue(repo.delete(repo.findAt(10).getId()));
+        long[] ids = idsPorPosicion();
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i - 1] < ids[i]);
+        }
+        // Hacia adelante (continuación por clave), salto (OFFSET) y hacia atrás
+        for (int desde : new int[]{0, 100, 200, 700, 600, 500, 950}) {
+            List<Estudiante> pagina = repo.findAll(desde, 100);
+            assertEquals(Math.min(100, ids.length - desde), pagina.size());
+            for (int i = 0; i < pagina.size(); i++) {
+                assertEquals(ids[desde + i], pagina.get(i).getId(), "posición " + (desde + i));
+            }
+        }
+        assertTrue(repo.findAll(ids.length, 10).isEmpty());
+    }
+
+    @Test
+    void laCantidadSigueLasEscriturasYSeLeeDeLaBase() throws SQLException {
+        cargar(300);
+        assertEquals(300, repo.count());
+        assertTrue(repo.save(new Estudiante("Nuevo", "nuevo@x.com", "C")));
+        assertTrue(repo.delete(repo.findAt(0).getId()));
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ids.add(repo.findAt(i).getId());
+        }
+        assertEquals(50, repo.deleteAll(ids));
+        assertEquals(250, repo.count());
+        repo.close();
+
+        // Otra apertura cuenta lo mismo
+        abrir();
+        assertEquals(250, repo.count());
+    }
+
+    @Test
+    void elCorreoEsUnicoSinDistinguirMayusculas() {
+        Estudiante ana = new Estudiante("Ana", "ana@x.com", "C");
+        assertTrue(repo.save(ana));
+        assertFalse(repo.save(new Estudiante("Otra Ana", " ANA@x.com ", "C")));
+        // En un lote se guarda la primera aparición
+        List<Estudiante> lote = List.of(new Estudiante("Luis", "luis@x.com", "C"), new Estudiante("Luis 2", "Luis@X.com", "C"),
+                new Estudiante("Ana 2", "ana@x.com", "C"));
+        assertEquals(1, repo.saveAll(lote));
+        assertTrue(lote.get(0).getId() > 0);
+        assertEquals(0, lote.get(1).getId());
+        assertEquals(0, lote.get(2).getId());
+        // Una edición no puede tomar el correo de otro
+        Estudiante luis = repo.findByCorreo("LUIS@x.com");
+        assertFalse(repo.save(new Estudiante(luis.getId(), "Luis", "ana@x.com", "C")));
+        assertEquals(2, repo.count());
+        assertNull(repo.getErrorGuardado());
+    }
+
+    @Test
+    void laBusquedaCoincideConElRecorrido() {
+        cargar(500);
+        repo.delete(repo.findAt(3).getId());
+        for (String texto : new String[]{"ana", "luis 1", "e4", "@x.com", "zzz"}) {
+            String normalizado = TextoBusqueda.normalizar(texto);
+            List<Integer> esperado = new ArrayList<>();
+            for (int i = 0; i < repo.count(); i++) {
+                if (repo.findAt(i).getClaveBusqueda().contains(normalizado)) {
+                    esperado.add(i);
+                }
+            }
+            assertArrayEquals(esperado.stream().mapToInt(Integer::intValue).toArray(),
+                    repo.query(normalizado, null).getPosiciones(), texto);
+        }
+    }
+
+    @Test
+    void avisaLasAltasYEdicionesConSuPosicion() {
+        cargar(600);
+        List<CambioRegistro> cambios = new ArrayList<>();
+        repo.addCambioListener(cambios::add);
+
+        Estudiante nuevo = new Estudiante("Nuevo", "nuevo@x.com", "C");
+        assertTrue(repo.save(nuevo));
+        assertEquals(CambioRegistro.Tipo.INSERTADO, cambios.get(0).getTipo());
+        assertEquals(600, cambios.get(0).getPosicion());
+
+        // Fila leída por la tabla: se conoce su posición
+        Estudiante visible = repo.findAt(20);
+        assertTrue(repo.save(new Estudiante(visible.getId(), "Editado", visible.getCorreo(), "C")));
+        assertEquals(CambioRegistro.Tipo.ACTUALIZADO, cambios.get(1).getTipo());
+        assertEquals(20, cambios.get(1).getPosicion());
+        assertTrue(repo.delete(repo.findAt(30).getId()));
+        assertEquals(CambioRegistro.Tipo.ELIMINADO, cambios.get(2).getTipo());
+        assertEquals(30, cambios.get(2).getPosicion());
+
+        // Fila fuera de lo leído: no se cuentan filas en la base, las vistas vuelven a leer
+        Estudiante lejano = repo.findByCorreo("e590@x.com");
+        repo.findAt(0);
+        assertTrue(repo.save(new Estudiante(lejano.getId(), "Lejano", lejano.getCorreo(), "C")));
+        assertEquals(CambioRegistro.Tipo.VARIOS, cambios.get(3).getTipo());
+        assertEquals(repo.getVersion(), cambios.get(3).getVersion());
+    }
+}
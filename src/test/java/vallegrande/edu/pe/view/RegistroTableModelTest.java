@@ -0,0 +1,138 @@
+package vallegrande.edu.pe.view;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import vallegrande.edu.pe.model.CambioRegistro;
+import vallegrande.edu.pe.model.Estudiante;
+import vallegrande.edu.pe.model.InMemoryRepository;
+import vallegrande.edu.pe.model.ResultadoBusqueda;
+import vallegrande.edu.pe.model.TextoBusqueda;
+
+import javax.swing.event.TableModelEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Aplicación de los eventos del repositorio a la tabla virtual: cada cambio se traduce en el evento
+ * de filas correspondiente y lo que muestra la tabla coincide con el repositorio (o con la búsqueda)
+ */
+class RegistroTableModelTest {
+
+    private InMemoryRepository<Estudiante> repo;
+    private RegistroTableModel<Estudiante> modelo;
+    private final List<TableModelEvent> eventos = new ArrayList<>();
+    private final Consumer<CambioRegistro> aplicar = c -> modelo.aplicar(c);
+
+    @BeforeEach
+    void preparar() {
+        repo = new InMemoryRepository<>();
+        List<Estudiante> lote = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            lote.add(new Estudiante((i % 2 == 0 ? "Ana " : "Luis ") + i, "e" + i + "@x.com", "C"));
+        }
+        repo.saveAll(lote);
+        modelo = new RegistroTableModel<>(new String[]{"Nombre", "Correo"}, repo::count, repo::findAll,
+                repo::getVersion, (e, columna) -> columna == 0 ? e.getNombre() : e.getCorreo());
+        modelo.mostrarTodos();
+        repo.addCambioListener(aplicar);
+        modelo.addTableModelListener(eventos::add);
+    }
+
+    /** La tabla sin filtro muestra exactamente los registros del repositorio en orden */
+    private void assertIgualAlRepositorio() {
+        assertEquals(repo.count(), modelo.getRowCount());
+        for (int i = 0; i < repo.count(); i++) {
+            assertEquals(repo.findAt(i).getId(), modelo.getIdAt(i), "fila " + i);
+            assertEquals(repo.findAt(i).getNombre(), modelo.getValueAt(i, 0));
+        }
+    }
+
+    /** La tabla filtrada muestra lo mismo que repetir la búsqueda */
+    private void assertIgualALaBusqueda(String texto) {
+        int[] posiciones = repo.query(texto, null).getPosiciones();
+        assertEquals(posiciones.length, modelo.getRowCount());
+        for (int i = 0; i < posiciones.length; i++) {
+            assertEquals(repo.findAt(posiciones[i]).getId(), modelo.getIdAt(i), "fila " + i);
+        }
+    }
+
+    private TableModelEvent ultimo() {
+        return eventos.get(eventos.size() - 1);
+    }
+
+    @Test
+    void sinFiltroCadaCambioEsUnEventoDeFilas() {
+        modelo.getValueAt(240, 0); // páginas en la caché que los cambios deben descartar
+
+        repo.save(new Estudiante("Nueva", "nueva@x.com", "C"));
+        assertEquals(1, eventos.size());
+        assertEquals(TableModelEvent.INSERT, ultimo().getType());
+        assertEquals(250, ultimo().getFirstRow());
+
+        Estudiante e = repo.findAt(120);
+        repo.save(new Estudiante(e.getId(), "Editado", e.getCorreo(), "C"));
+        assertEquals(TableModelEvent.UPDATE, ultimo().getType());
+        assertEquals(120, ultimo().getFirstRow());
+        assertEquals("Editado", modelo.getValueAt(120, 0));
+
+        // Baja: el último registro pasa al hueco (se repinta esa fila y desaparece la última)
+        eventos.clear();
+        repo.delete(repo.findAt(10).getId());
+        assertEquals(2, eventos.size());
+        assertEquals(TableModelEvent.UPDATE, eventos.get(0).getType());
+        assertEquals(10, eventos.get(0).getFirstRow());
+        assertEquals(TableModelEvent.DELETE, eventos.get(1).getType());
+        assertEquals(250, eventos.get(1).getFirstRow());
+        assertIgualAlRepositorio();
+    }
+
+    @Test
+    void conFiltroLosCambiosEntranYSalenDelResultado() {
+        String texto = TextoBusqueda.normalizar("ana");
+        ResultadoBusqueda resultado = repo.query(texto, null);
+        modelo.mostrarFiltrados(resultado.getPosiciones(), resultado.getVersion(), texto);
+        assertEquals(125, modelo.getRowCount());
+
+        repo.save(new Estudiante("Ana Nueva", "ana.nueva@x.com", "C"));   // entra
+        repo.save(new Estudiante("Pedro", "pedro@x.com", "C"));           // no entra
+        assertEquals(126, modelo.getRowCount());
+        assertIgualALaBusqueda(texto);
+
+        Estudiante luis = repo.findAt(1);
+        repo.save(new Estudiante(luis.getId(), "Ana Luisa", luis.getCorreo(), "C")); // ahora coincide
+        Estudiante ana = repo.findAt(0);
+        repo.save(new Estudiante(ana.getId(), "Sofía", ana.getCorreo(), "C"));       // ya no coincide
+        assertIgualALaBusqueda(texto);
+
+        repo.delete(repo.findAt(2).getId()); // estaba en el filtro; el último (Pedro) pasa a su lugar
+        repo.delete(repo.findAt(4).getId());
+        assertIgualALaBusqueda(texto);
+    }
+
+    @Test
+    void sinLosEventosIntermediosOConVariosRegistrosSeVuelveALeer() {
+        repo.removeCambioListener(aplicar);
+        repo.save(new Estudiante("Perdido", "perdido@x.com", "C"));
+        repo.addCambioListener(aplicar);
+        eventos.clear();
+        repo.save(new Estudiante("Otro", "otro@x.com", "C"));
+        // Falta un evento: se recarga toda la tabla
+        assertEquals(1, eventos.size());
+        assertEquals(0, ultimo().getFirstRow());
+        assertEquals(Integer.MAX_VALUE, ultimo().getLastRow()); // fireTableDataChanged
+        assertIgualAlRepositorio();
+
+        // Con filtro, un cambio de varios registros repite la búsqueda
+        AtomicInteger busquedas = new AtomicInteger();
+        modelo.setRebuscar(busquedas::incrementAndGet);
+        String texto = TextoBusqueda.normalizar("luis");
+        ResultadoBusqueda resultado = repo.query(texto, null);
+        modelo.mostrarFiltrados(resultado.getPosiciones(), resultado.getVersion(), texto);
+        repo.saveAll(List.of(new Estudiante("Luis A", "la@x.com", "C"), new Estudiante("Luis B", "lb@x.com", "C")));
+        assertEquals(1, busquedas.get());
+    }
+}